@@ -6,10 +6,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {RabbitAutoConfiguration.class})
 @EnableCaching
 @EnableMongoAuditing
+@EnableScheduling
 public class DocumentServiceApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,13 @@
+package com.tadaah.cache;
+
+/**
+ * Implemented by cached values whose footprint depends on their content, such as pages of
+ * documents. Caches bounded by a maximum weight use it to weigh entries; other values weigh 1.
+ */
+public interface CacheWeight {
+
+  /**
+   * @return The relative weight of this value, at least 1.
+   */
+  int weight();
+}
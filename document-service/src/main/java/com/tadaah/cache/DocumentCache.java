@@ -0,0 +1,247 @@
+package com.tadaah.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tadaah.config.CacheConfig;
+import com.tadaah.models.Documents;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of documents by id with secondary indexes by name and by owner.
+ *
+ * <p>Documents are held once, in a bounded Caffeine map keyed by id. The name and owner indexes
+ * only hold ids and are kept in step with the primary map: writes update them inside the primary
+ * map's per-key compute, and entries evicted for size or age are unindexed by the eviction
+ * listener. An owner's documents are only served from the cache once all of them were loaded
+ * together; evicting any of them makes the next lookup for that owner go to MongoDB again.
+ *
+ * <p>The cache is local to each instance, while other instances write to the same documents.
+ * Reads therefore serve a cached copy only after a projected read of the stored version and
+ * notification error, see {@link #isCurrent(Documents, Documents)}; the only writes that do not
+ * bump the version are the ones setting or clearing notification errors.
+ *
+ * <p>The primary map is registered with the cache manager as {@code documentsCache}, so it shows
+ * up in the cache inspection endpoints and the actuator cache metrics.
+ */
+@Component
+public class DocumentCache {
+
+  private final Cache<String, Documents> documentsById;
+  private final Map<String, String> idsByName = new ConcurrentHashMap<>();
+  private final Map<String, Set<String>> idsByUser = new ConcurrentHashMap<>();
+  private final Set<String> completeUsers = ConcurrentHashMap.newKeySet();
+
+  public DocumentCache(
+      @Value("${documents.cache.documents-cache.spec:maximumSize=10000,expireAfterWrite=10m}") String spec) {
+    this.documentsById = CacheConfig.caffeineBuilder(spec)
+        .evictionListener((String id, Documents document, RemovalCause cause) -> {
+          if (document != null) {
+            unindex(document);
+            if (document.getUserName() != null) {
+              completeUsers.remove(document.getUserName());
+            }
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Looks up a document by id.
+   *
+   * @param id The document ID.
+   * @return The cached document, or empty if it is not cached.
+   */
+  public Optional<Documents> get(String id) {
+    return Optional.ofNullable(documentsById.getIfPresent(id));
+  }
+
+  /**
+   * Looks up a document by name.
+   *
+   * @param name The document name.
+   * @return The cached document, or empty if it is not cached.
+   */
+  public Optional<Documents> getByName(String name) {
+    String id = idsByName.get(name);
+    return id == null ? Optional.empty() : get(id).filter(document -> name.equals(document.getName()));
+  }
+
+  /**
+   * Looks up all documents of an owner.
+   *
+   * @param userName The owner's username.
+   * @return All of the owner's documents, or empty if they are not all cached.
+   */
+  public Optional<List<Documents>> getByUser(String userName) {
+    if (userName == null || !completeUsers.contains(userName)) {
+      return Optional.empty();
+    }
+    List<Documents> documents = new ArrayList<>();
+    for (String id : idsByUser.getOrDefault(userName, Set.of())) {
+      Documents document = documentsById.getIfPresent(id);
+      if (document == null) {
+        completeUsers.remove(userName);
+        return Optional.empty();
+      }
+      documents.add(document);
+    }
+    return Optional.of(documents);
+  }
+
+  /**
+   * Caches a created or updated document and moves its index entries if its name or owner changed.
+   *
+   * @param document The document to cache.
+   */
+  public void put(Documents document) {
+    documentsById.asMap().compute(document.getId(), (id, previous) -> {
+      if (previous != null) {
+        unindex(previous);
+      }
+      index(document);
+      return document;
+    });
+  }
+
+  /**
+   * Caches all documents of an owner, so later lookups by owner are served from the cache.
+   *
+   * @param userName  The owner's username.
+   * @param documents All of the owner's documents.
+   */
+  public void putAllForUser(String userName, Collection<Documents> documents) {
+    documents.forEach(this::put);
+    completeUsers.add(userName);
+    // A document evicted while the batch was being cached leaves the owner incomplete
+    if (documents.stream().anyMatch(document -> documentsById.getIfPresent(document.getId()) == null)) {
+      completeUsers.remove(userName);
+    }
+  }
+
+  /**
+   * Removes a deleted document. The owner's documents stay complete, since the document is gone.
+   *
+   * @param id The document ID.
+   */
+  public void evict(String id) {
+    documentsById.asMap().computeIfPresent(id, (key, previous) -> {
+      unindex(previous);
+      return null;
+    });
+  }
+
+  /**
+   * Removes a document that was cached by a read which may have raced with a write. The entry is
+   * only removed if it is still the instance that read cached.
+   *
+   * @param document The document the read cached.
+   */
+  public void evictIfUnchanged(Documents document) {
+    documentsById.asMap().computeIfPresent(document.getId(), (key, current) -> {
+      if (current != document) {
+        return current;
+      }
+      unindex(current);
+      return null;
+    });
+  }
+
+  /**
+   * Forgets that all of an owner's documents are cached and removes the ones that are, for writes
+   * that bypass the cache and for reads that raced with a write.
+   *
+   * @param userName The owner's username.
+   */
+  public void invalidateUser(String userName) {
+    if (userName == null) {
+      return;
+    }
+    completeUsers.remove(userName);
+    for (String id : Set.copyOf(idsByUser.getOrDefault(userName, Set.of()))) {
+      evict(id);
+    }
+  }
+
+  /**
+   * Tells whether a cached document is still current.
+   *
+   * @param cached  The cached document.
+   * @param current The stored version and notification error of the document.
+   * @return True if the cached copy matches what is stored.
+   */
+  public static boolean isCurrent(Documents cached, Documents current) {
+    return Objects.equals(cached.getVersion(), current.getVersion())
+        && Objects.equals(cached.getNotificationError(), current.getNotificationError());
+  }
+
+  /**
+   * Tells whether the cached documents of an owner are still all of the owner's documents, each
+   * at its stored version.
+   *
+   * @param cached  The cached documents of the owner.
+   * @param current The stored IDs, versions and notification errors of the owner's documents.
+   * @return True if the cached documents match what is stored.
+   */
+  public static boolean isCurrent(Collection<Documents> cached, Collection<Documents> current) {
+    if (cached.size() != current.size()) {
+      return false;
+    }
+    Map<String, Documents> cachedById = new HashMap<>();
+    cached.forEach(document -> cachedById.put(document.getId(), document));
+    return current.stream().allMatch(document -> {
+      Documents copy = cachedById.get(document.getId());
+      return copy != null && isCurrent(copy, document);
+    });
+  }
+
+  /**
+   * @return The number of cached documents.
+   */
+  public long size() {
+    return documentsById.estimatedSize();
+  }
+
+  /**
+   * @return The primary id to document map, for registration with the cache manager.
+   */
+  public Cache<String, Documents> nativeCache() {
+    return documentsById;
+  }
+
+  private void index(Documents document) {
+    String id = document.getId();
+    if (document.getName() != null) {
+      idsByName.put(document.getName(), id);
+    }
+    if (document.getUserName() != null) {
+      idsByUser.compute(document.getUserName(), (userName, ids) -> {
+        Set<String> userIds = ids != null ? ids : ConcurrentHashMap.newKeySet();
+        userIds.add(id);
+        return userIds;
+      });
+    }
+  }
+
+  private void unindex(Documents document) {
+    String id = document.getId();
+    if (document.getName() != null) {
+      idsByName.remove(document.getName(), id);
+    }
+    if (document.getUserName() != null) {
+      idsByUser.computeIfPresent(document.getUserName(), (userName, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.tadaah.cache;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.tadaah.config.CacheConfig;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.utils.DocumentQueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Approximate counts of documents matching a filter.
+ *
+ * <p>Counts are cached per filter. Once an entry is older than the refresh interval of the spec,
+ * the next read still returns the cached count and reloads it in the background, so only the
+ * first read of a filter waits for MongoDB. The count of all documents is taken from the
+ * collection metadata instead of counting. These counts only serve
+ * {@link com.tadaah.models.CountMode#APPROXIMATE}; exact totals are counted by the repository.
+ */
+@Component
+public class DocumentCountCache {
+
+  private final MongoTemplate mongoTemplate;
+  private final LoadingCache<CountKey, Long> counts;
+
+  public DocumentCountCache(MongoTemplate mongoTemplate,
+      @Value("${documents.cache.count-cache.spec:maximumSize=1000,refreshAfterWrite=30s,expireAfterWrite=10m}") String spec) {
+    this.mongoTemplate = mongoTemplate;
+    this.counts = CacheConfig.caffeineBuilder(spec).build(this::count);
+  }
+
+  /**
+   * Returns the approximate number of documents matching all of the given filters.
+   *
+   * @param documentType       The document type, or null.
+   * @param user               The owner's username, or null.
+   * @param verified           The verification status, or null.
+   * @param notificationFailed Whether to only count documents with a notification error.
+   * @return The cached or estimated count.
+   */
+  public long approximateCount(DocumentType documentType, String user, Boolean verified,
+      boolean notificationFailed) {
+    return counts.get(new CountKey(documentType, user, verified, notificationFailed));
+  }
+
+  /**
+   * @return The count cache, for registration with the cache manager.
+   */
+  public LoadingCache<CountKey, Long> nativeCache() {
+    return counts;
+  }
+
+  private long count(CountKey key) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(key.user())
+        .documentType(key.documentType())
+        .verified(key.verified())
+        .notificationFailed(key.notificationFailed())
+        .build();
+    if (query.getQueryObject().isEmpty()) {
+      return mongoTemplate.estimatedCount(Documents.class);
+    }
+    return mongoTemplate.count(query, Documents.class);
+  }
+
+  public record CountKey(DocumentType documentType, String user, Boolean verified,
+      boolean notificationFailed) {}
+}
@@ -0,0 +1,152 @@
+package com.tadaah.cache;
+
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generation counters that tell whether a cached page of filtered documents may be stale.
+ *
+ * <p>Every document write bumps the generation of the owner and document type it touches (before
+ * and after the write), and a global generation. Filters AND their criteria, so a page filtered by
+ * owner only depends on that owner's generation, a page filtered by type but not owner only on
+ * that type's generation, and any other page on the global generation. Changes to notification
+ * errors bump a separate generation that pages of failed notifications also depend on. A cached
+ * page stores the stamp of the generations its filter depends on and is only served while that
+ * stamp is unchanged, so a write for one user or type leaves the pages of other users and types
+ * cached.
+ *
+ * <p>Users are mapped onto a fixed number of striped counters; two users sharing a stripe only
+ * cause extra invalidation, never a stale read. Generations are bumped after the write is stored,
+ * so a page read concurrently with a write is always stamped with the older generation.
+ */
+@Component
+public class DocumentFilterGenerations {
+
+  private final AtomicLongArray userGenerations;
+  private final AtomicLongArray typeGenerations;
+  private final AtomicLong globalGeneration = new AtomicLong();
+  private final AtomicLong notificationGeneration = new AtomicLong();
+  private final int stripeMask;
+
+  public DocumentFilterGenerations(
+      @Value("${documents.filter-cache.user-stripes:1024}") int userStripes) {
+    int stripes = Integer.highestOneBit(Math.max(userStripes - 1, 1)) << 1;
+    this.userGenerations = new AtomicLongArray(stripes);
+    this.stripeMask = stripes - 1;
+    // One slot per document type and one for documents without a type
+    this.typeGenerations = new AtomicLongArray(DocumentType.values().length + 1);
+  }
+
+  /**
+   * Computes the stamp of the generations a filter depends on. The stamp grows whenever one of
+   * them is bumped.
+   *
+   * @param documentType       The document type filter, or null.
+   * @param userName           The owner filter, or null.
+   * @param verified           The verification status filter, or null. It narrows the pages of
+   *                           the owner or type it is combined with, so it adds no dependency.
+   * @param notificationFailed Whether the filter only matches documents with a notification error.
+   * @return The stamp to store with the cached page.
+   */
+  public long stamp(DocumentType documentType, String userName, Boolean verified,
+      boolean notificationFailed) {
+    long stamp;
+    if (userName != null) {
+      stamp = userGenerations.get(userStripe(userName));
+    } else if (documentType != null) {
+      stamp = typeGenerations.get(typeSlot(documentType));
+    } else {
+      stamp = globalGeneration.get();
+    }
+    if (notificationFailed) {
+      stamp += notificationGeneration.get();
+    }
+    return stamp;
+  }
+
+  /**
+   * Returns the generation of an owner's documents, which grows with every write for that owner.
+   *
+   * @param userName The owner's username.
+   * @return The owner's current generation.
+   */
+  public long userGeneration(String userName) {
+    return userGenerations.get(userStripe(userName));
+  }
+
+  /**
+   * Returns the global generation, which grows with every document write.
+   *
+   * @return The current global generation.
+   */
+  public long globalGeneration() {
+    return globalGeneration.get();
+  }
+
+  /**
+   * Records a write of a single document.
+   *
+   * @param before The document before the write, or null if it was created.
+   * @param after  The document after the write, or null if it was deleted.
+   */
+  public void documentChanged(Documents before, Documents after) {
+    if (before != null) {
+      bump(before);
+    }
+    if (after != null) {
+      bump(after);
+    }
+    globalGeneration.incrementAndGet();
+  }
+
+  /**
+   * Records the creation of a batch of documents.
+   *
+   * @param documents The created documents.
+   */
+  public void documentsCreated(Collection<Documents> documents) {
+    documents.forEach(this::bump);
+    globalGeneration.incrementAndGet();
+  }
+
+  /**
+   * Records a write of a batch of documents that changed neither their owner nor their type, such
+   * as the expiry scanner marking documents.
+   *
+   * @param documents The changed documents.
+   */
+  public void documentsChanged(Collection<Documents> documents) {
+    documents.forEach(this::bump);
+    globalGeneration.incrementAndGet();
+  }
+
+  /**
+   * Records a change of notification errors that was made without a document write, such as the
+   * outbox relay flagging or clearing documents.
+   */
+  public void notificationErrorsChanged() {
+    notificationGeneration.incrementAndGet();
+  }
+
+  private void bump(Documents document) {
+    userGenerations.incrementAndGet(userStripe(document.getUserName()));
+    typeGenerations.incrementAndGet(typeSlot(document.getDocumentType()));
+  }
+
+  private int userStripe(String userName) {
+    if (userName == null) {
+      return 0;
+    }
+    int hash = userName.hashCode();
+    return (hash ^ (hash >>> 16)) & stripeMask;
+  }
+
+  private int typeSlot(DocumentType documentType) {
+    return documentType == null ? typeGenerations.length() - 1 : documentType.ordinal();
+  }
+}
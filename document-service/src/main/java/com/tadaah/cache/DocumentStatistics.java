@@ -0,0 +1,272 @@
+package com.tadaah.cache;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.tadaah.models.DocumentStatCounter;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.response.DocumentStatsDto;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Document counts by type, verification status, notification failure and owner, maintained
+ * incrementally so reads never aggregate.
+ *
+ * <p>Writes add their changes to in-memory {@link LongAdder}s, one per statistic, which
+ * {@link #checkpoint()} periodically drains into the {@code documentStats} collection with $inc,
+ * so the collection sums the changes of every instance. Reads combine the checkpointed counts with
+ * the changes this instance has not checkpointed yet. The counts of the few global statistics are
+ * kept in memory and reloaded after each checkpoint; an owner's count is one read by ID.
+ *
+ * <p>Counts of other instances lag by up to one checkpoint interval. Every write of this service
+ * records its changes, including the outbox relay and the notification reconciler flagging and
+ * clearing notification errors. Writes made directly to the database are only picked up by
+ * {@link #reconcile(Map, LocalDateTime)}, which replaces all counts with exact ones.
+ */
+@Slf4j
+@Component
+public class DocumentStatistics {
+
+  public static final String TOTAL = "total";
+  public static final String TYPE = "type";
+  public static final String VERIFIED = "verified";
+  public static final String NOTIFICATION_FAILED = "notificationFailed";
+  public static final String USER = "user";
+
+  private final MongoTemplate mongoTemplate;
+  private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+  // Changes drained from the adders but not reloaded yet, so reads during a checkpoint see them
+  private final ConcurrentHashMap<String, Long> inFlight = new ConcurrentHashMap<>();
+  private volatile Map<String, Long> checkpointed = Map.of();
+
+  public DocumentStatistics(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Records a write of a single document.
+   *
+   * @param before The document before the write, or null if it was created.
+   * @param after  The document after the write, or null if it was deleted.
+   */
+  public void documentChanged(Documents before, Documents after) {
+    List<String> removed = before != null ? keys(before) : new ArrayList<>();
+    List<String> added = after != null ? keys(after) : new ArrayList<>();
+    // Statistics the write did not change cancel out
+    List<String> unchanged = new ArrayList<>(removed);
+    unchanged.retainAll(added);
+    removed.removeAll(unchanged);
+    added.removeAll(unchanged);
+    removed.forEach(key -> add(key, -1));
+    added.forEach(key -> add(key, 1));
+  }
+
+  /**
+   * Records the creation of a batch of documents.
+   *
+   * @param documents The created documents.
+   */
+  public void documentsCreated(Collection<Documents> documents) {
+    documents.forEach(document -> keys(document).forEach(key -> add(key, 1)));
+  }
+
+  /**
+   * Records that documents without a notification error were flagged with one.
+   *
+   * @param documents The flagged documents.
+   */
+  public void notificationErrorsFlagged(Collection<Documents> documents) {
+    notificationErrorsFlagged(documents.size());
+  }
+
+  /**
+   * Records that documents without a notification error were flagged with one.
+   *
+   * @param count The number of flagged documents.
+   */
+  public void notificationErrorsFlagged(long count) {
+    add(key(NOTIFICATION_FAILED, false), -count);
+    add(key(NOTIFICATION_FAILED, true), count);
+  }
+
+  /**
+   * Records that the notification error of flagged documents was cleared.
+   *
+   * @param count The number of cleared documents.
+   */
+  public void notificationErrorsCleared(long count) {
+    add(key(NOTIFICATION_FAILED, true), -count);
+    add(key(NOTIFICATION_FAILED, false), count);
+  }
+
+  /**
+   * Returns the document counts, optionally with the count of one owner.
+   *
+   * @param userName The owner to count documents for, or null.
+   * @return The document counts.
+   */
+  public DocumentStatsDto stats(String userName) {
+    DocumentStatsDto stats = new DocumentStatsDto();
+    stats.setTotal(count(TOTAL));
+    for (DocumentType documentType : DocumentType.values()) {
+      stats.getByType().put(documentType, count(key(TYPE, documentType)));
+    }
+    stats.setVerified(count(key(VERIFIED, true)));
+    stats.setUnverified(count(key(VERIFIED, false)));
+    stats.setNotificationFailed(count(key(NOTIFICATION_FAILED, true)));
+    if (userName != null) {
+      String key = key(USER, userName);
+      DocumentStatCounter counter = mongoTemplate.findById(key, DocumentStatCounter.class);
+      stats.setUserName(userName);
+      // In-flight changes may already be in the collection, so only undrained ones are added
+      LongAdder adder = pending.get(key);
+      stats.setUserDocuments((counter != null ? counter.getCount() : 0)
+          + (adder != null ? adder.sum() : 0));
+    }
+    return stats;
+  }
+
+  /**
+   * Adds the pending changes of this instance to the checkpointed counts and reloads the global
+   * counts. Changes that could not be written are kept for the next checkpoint.
+   */
+  public void checkpoint() {
+    Map<String, Long> deltas = new LinkedHashMap<>();
+    pending.forEach((key, adder) -> {
+      // Unlike sumThenReset, this keeps changes added while the adder is drained
+      long delta = adder.sum();
+      if (delta != 0) {
+        adder.add(-delta);
+        inFlight.merge(key, delta, Long::sum);
+        deltas.put(key, delta);
+      }
+    });
+
+    if (!deltas.isEmpty()) {
+      LocalDateTime now = LocalDateTime.now();
+      // Ordered, so a failure leaves every change before the failing one applied and none after it
+      BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.ORDERED, DocumentStatCounter.class);
+      deltas.forEach((key, delta) -> bulk.upsert(query(where("key").is(key)),
+          new Update().inc("count", delta).set("dimension", dimension(key)).set("updatedAt", now)));
+      try {
+        bulk.execute();
+      } catch (BulkOperationException e) {
+        int failedFrom = e.getErrors().isEmpty() ? 0 : e.getErrors().get(0).getIndex();
+        deltas.entrySet().stream().skip(failedFrom).forEach(this::restore);
+        throw e;
+      } catch (RuntimeException e) {
+        // Whether any change was applied is unknown; reconciliation corrects a double count
+        deltas.entrySet().forEach(this::restore);
+        throw e;
+      }
+    }
+    // Owners come and go, so adders without pending changes are not kept around
+    pending.keySet().forEach(key ->
+        pending.computeIfPresent(key, (k, adder) -> adder.sum() == 0 ? null : adder));
+    reload();
+  }
+
+  /**
+   * Replaces the checkpointed counts with exact ones. Statistics that no document has any more are
+   * removed, unless a checkpoint changed them after the counting started.
+   *
+   * @param counts    The exact counts by statistic.
+   * @param countedAt The time the counting started.
+   */
+  public void reconcile(Map<String, Long> counts, LocalDateTime countedAt) {
+    LocalDateTime now = LocalDateTime.now();
+    if (!counts.isEmpty()) {
+      BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, DocumentStatCounter.class);
+      counts.forEach((key, count) -> bulk.upsert(query(where("key").is(key)),
+          new Update().set("count", count).set("dimension", dimension(key)).set("updatedAt", now)));
+      bulk.execute();
+    }
+    mongoTemplate.remove(query(where("updatedAt").lt(countedAt)), DocumentStatCounter.class);
+    reload();
+  }
+
+  /**
+   * Reloads the checkpointed global counts; owner counts are read on demand.
+   */
+  public void reload() {
+    Map<String, Long> counts = new HashMap<>();
+    mongoTemplate.find(query(where("dimension").ne(USER)), DocumentStatCounter.class)
+        .forEach(counter -> counts.put(counter.getKey(), counter.getCount()));
+    checkpointed = counts;
+    inFlight.clear();
+  }
+
+  /**
+   * Returns the statistics a document counts towards.
+   *
+   * @param document The document.
+   * @return The statistic keys.
+   */
+  public static List<String> keys(Documents document) {
+    List<String> keys = new ArrayList<>(5);
+    keys.add(TOTAL);
+    if (document.getDocumentType() != null) {
+      keys.add(key(TYPE, document.getDocumentType()));
+    }
+    keys.add(key(VERIFIED, document.isVerified()));
+    keys.add(key(NOTIFICATION_FAILED, document.getNotificationError() != null));
+    if (document.getUserName() != null) {
+      keys.add(key(USER, document.getUserName()));
+    }
+    return keys;
+  }
+
+  public static String key(String dimension, Object value) {
+    return dimension + ":" + value;
+  }
+
+  private static String dimension(String key) {
+    int separator = key.indexOf(':');
+    return separator < 0 ? key : key.substring(0, separator);
+  }
+
+  private long count(String key) {
+    return checkpointed.getOrDefault(key, 0L) + pendingCount(key);
+  }
+
+  private long pendingCount(String key) {
+    LongAdder adder = pending.get(key);
+    return (adder != null ? adder.sum() : 0) + inFlight.getOrDefault(key, 0L);
+  }
+
+  /**
+   * Adds a change inside the map's per-key lock, so a checkpoint removing the emptied adder of the
+   * key cannot lose it.
+   */
+  private void add(String key, long delta) {
+    pending.compute(key, (k, adder) -> {
+      LongAdder target = adder != null ? adder : new LongAdder();
+      target.add(delta);
+      return target;
+    });
+  }
+
+  /**
+   * Moves a change that was not written back from in flight to pending.
+   */
+  private void restore(Map.Entry<String, Long> delta) {
+    inFlight.merge(delta.getKey(), -delta.getValue(), Long::sum);
+    add(delta.getKey(), delta.getValue());
+  }
+}
@@ -0,0 +1,212 @@
+package com.tadaah.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded cache of user lookups used by document validation.
+ *
+ * <p>Lookups are held in a Caffeine map of username to an optional user. Known users are kept for
+ * a longer time-to-live and unknown usernames are cached as negative entries for a short one, set
+ * per entry by an {@link Expiry}, so repeated validation of the same owner costs no MongoDB reads.
+ * Replacing an entry restarts its time-to-live according to the new value.
+ *
+ * <p>The map is registered with the cache manager as {@code usersLookupCache}, so its size,
+ * evictions and hit ratio show up in the cache inspection endpoints and the actuator cache
+ * metrics. Hits on negative entries are counted separately by {@code users.lookup.cache.requests}.
+ */
+@Slf4j
+@Component
+public class UserLookupCache {
+
+  private final UserRepository userRepository;
+  private final Cache<String, Optional<Users>> lookups;
+
+  private final Counter hits;
+  private final Counter negativeHits;
+  private final Counter misses;
+
+  public UserLookupCache(UserRepository userRepository, MeterRegistry meterRegistry,
+      @Value("${users.lookup-cache.max-size:10000}") int maxSize,
+      @Value("${users.lookup-cache.ttl-ms:600000}") long ttlMillis,
+      @Value("${users.lookup-cache.negative-ttl-ms:30000}") long negativeTtlMillis) {
+    this.userRepository = userRepository;
+    this.lookups = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new LookupExpiry(TimeUnit.MILLISECONDS.toNanos(ttlMillis),
+            TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis)))
+        .recordStats()
+        .build();
+
+    this.hits = lookupCounter(meterRegistry, "hit");
+    this.negativeHits = lookupCounter(meterRegistry, "negative_hit");
+    this.misses = lookupCounter(meterRegistry, "miss");
+  }
+
+  /**
+   * Looks up a user, serving known and unknown usernames from the cache when possible.
+   *
+   * @param userName The username to look up.
+   * @return The user, or empty if no such user exists.
+   */
+  public Optional<Users> findUser(String userName) {
+    if (userName == null) {
+      return Optional.empty();
+    }
+    Optional<Users> cached = getIfPresent(userName);
+    if (cached != null) {
+      return cached;
+    }
+
+    misses.increment();
+    Optional<Users> user = userRepository.findById(userName);
+    store(userName, user.orElse(null));
+    return user;
+  }
+
+  /**
+   * Looks up a user without blocking, serving known and unknown usernames from the cache when
+   * possible and loading misses with the given reactive lookup.
+   *
+   * @param userName The username to look up.
+   * @param loader   The reactive lookup of a user by username.
+   * @return The user, or empty if no such user exists.
+   */
+  public Mono<Optional<Users>> findUser(String userName, Function<String, Mono<Users>> loader) {
+    if (userName == null) {
+      return Mono.just(Optional.empty());
+    }
+    Optional<Users> cached = getIfPresent(userName);
+    if (cached != null) {
+      return Mono.just(cached);
+    }
+
+    misses.increment();
+    return loader.apply(userName)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .doOnNext(user -> store(userName, user.orElse(null)));
+  }
+
+  /**
+   * Looks up several users, resolving all cache misses with a single query.
+   *
+   * @param userNames The usernames to look up.
+   * @return The existing users keyed by username; unknown usernames are absent.
+   */
+  public Map<String, Users> findUsers(Collection<String> userNames) {
+    Map<String, Users> users = new HashMap<>();
+    Set<String> missing = new HashSet<>();
+    for (String userName : userNames) {
+      Optional<Users> cached = getIfPresent(userName);
+      if (cached == null) {
+        missing.add(userName);
+      } else {
+        cached.ifPresent(user -> users.put(userName, user));
+      }
+    }
+    if (missing.isEmpty()) {
+      return users;
+    }
+
+    misses.increment(missing.size());
+    userRepository.findAllById(missing).forEach(user -> users.put(user.getUserName(), user));
+    for (String userName : missing) {
+      store(userName, users.get(userName));
+    }
+    return users;
+  }
+
+  /**
+   * Caches a user that is known to exist, replacing any negative entry.
+   *
+   * @param user The user to cache.
+   */
+  public void put(Users user) {
+    store(user.getUserName(), user);
+  }
+
+  /**
+   * Removes the cached lookup of a username.
+   *
+   * @param userName The username whose lookup is invalidated.
+   */
+  public void invalidate(String userName) {
+    lookups.invalidate(userName);
+  }
+
+  /**
+   * @return The number of cached user lookups, including negative entries.
+   */
+  public long size() {
+    return lookups.estimatedSize();
+  }
+
+  /**
+   * @return The username to lookup map, for registration with the cache manager.
+   */
+  public Cache<String, Optional<Users>> nativeCache() {
+    return lookups;
+  }
+
+  private Optional<Users> getIfPresent(String userName) {
+    Optional<Users> cached = lookups.getIfPresent(userName);
+    if (cached != null) {
+      (cached.isPresent() ? hits : negativeHits).increment();
+    }
+    return cached;
+  }
+
+  private void store(String userName, Users user) {
+    lookups.put(userName, Optional.ofNullable(user));
+  }
+
+  private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("users.lookup.cache.requests")
+        .description("User lookups served by the user lookup cache")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Expires known users after the positive time-to-live and unknown usernames after the negative
+   * one, counted from the last write of the entry. Reads do not extend either.
+   */
+  private record LookupExpiry(long ttlNanos, long negativeTtlNanos)
+      implements Expiry<String, Optional<Users>> {
+
+    @Override
+    public long expireAfterCreate(String userName, Optional<Users> user, long currentTime) {
+      return user.isPresent() ? ttlNanos : negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(String userName, Optional<Users> user, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(userName, user, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String userName, Optional<Users> user, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.tadaah.clients;
+
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.utils.NotificationUtil;
+import com.tadaah.utils.NotificationUtil.NotificationRequest;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Client for the notification service.
+ *
+ * <p>Calls go through a circuit breaker that fails fast while the notification service is
+ * unhealthy, and a bulkhead that caps the number of in-flight requests, on top of the pooled and
+ * time-bounded HTTP client. Short-circuited and rejected calls throw a
+ * {@link NotificationServiceException} with {@link HttpStatus#SERVICE_UNAVAILABLE}.
+ * Latency and outcomes are published as {@code notification.client.requests}.
+ */
+@Slf4j
+@Component
+public class NotificationClient {
+
+  private static final String NAME = "notificationService";
+
+  private final RestTemplate restTemplate;
+  private final String notificationServiceUrl;
+  private final MeterRegistry meterRegistry;
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+
+  public NotificationClient(@Qualifier("notificationRestTemplate") RestTemplate restTemplate,
+      @Value("${notification.service.url}") String notificationServiceUrl,
+      MeterRegistry meterRegistry,
+      @Value("${notification.client.max-concurrent-calls:20}") int maxConcurrentCalls,
+      @Value("${notification.client.max-wait-ms:0}") long maxWaitMs,
+      @Value("${notification.client.failure-rate-threshold:50}") float failureRateThreshold,
+      @Value("${notification.client.sliding-window-size:20}") int slidingWindowSize,
+      @Value("${notification.client.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+      @Value("${notification.client.wait-in-open-state-ms:30000}") long waitInOpenStateMs,
+      @Value("${notification.client.read-timeout-ms:3000}") long readTimeoutMs) {
+    this.restTemplate = restTemplate;
+    this.notificationServiceUrl = notificationServiceUrl;
+    this.meterRegistry = meterRegistry;
+
+    CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+        .failureRateThreshold(failureRateThreshold)
+        .slowCallRateThreshold(failureRateThreshold)
+        .slowCallDurationThreshold(Duration.ofMillis(readTimeoutMs))
+        .slidingWindowSize(slidingWindowSize)
+        .minimumNumberOfCalls(minimumNumberOfCalls)
+        .waitDurationInOpenState(Duration.ofMillis(waitInOpenStateMs))
+        .automaticTransitionFromOpenToHalfOpenEnabled(true)
+        .ignoreExceptions(BulkheadFullException.class)
+        .build());
+    BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+        .maxConcurrentCalls(maxConcurrentCalls)
+        .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+        .build());
+    TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+    TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+
+    this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+    this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+    this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+        log.warn("Notification service circuit breaker transitioned: {}", event.getStateTransition()));
+  }
+
+  /**
+   * Sends a single notification.
+   *
+   * @param request The notification to send.
+   * @throws NotificationServiceException if the call fails, is short-circuited or rejected.
+   */
+  public void send(NotificationRequest request) {
+    execute("single", () ->
+        NotificationUtil.sendNotification(restTemplate, notificationServiceUrl, request));
+  }
+
+  /**
+   * Sends a batch of notifications in one request.
+   *
+   * @param requests The notifications to send.
+   * @throws NotificationServiceException if the call fails, is short-circuited or rejected.
+   */
+  public void sendBatch(List<NotificationRequest> requests) {
+    execute("batch", () ->
+        NotificationUtil.sendNotifications(restTemplate, notificationServiceUrl + "/batch", requests));
+  }
+
+  /**
+   * Tells whether the circuit breaker currently lets calls through. Background senders use it to
+   * skip work while the notification service is known to be down.
+   *
+   * @return false while the circuit is open.
+   */
+  public boolean isCallPermitted() {
+    CircuitBreaker.State state = circuitBreaker.getState();
+    return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+  }
+
+  private void execute(String operation, Runnable call) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "success";
+    try {
+      CircuitBreaker.decorateRunnable(circuitBreaker, Bulkhead.decorateRunnable(bulkhead, call)).run();
+    } catch (CallNotPermittedException e) {
+      outcome = "short_circuited";
+      throw new NotificationServiceException("Notification service circuit breaker is open",
+          HttpStatus.SERVICE_UNAVAILABLE, e);
+    } catch (BulkheadFullException e) {
+      outcome = "rejected";
+      throw new NotificationServiceException("Too many in-flight notification requests",
+          HttpStatus.SERVICE_UNAVAILABLE, e);
+    } catch (RuntimeException e) {
+      outcome = "failure";
+      throw e;
+    } finally {
+      sample.stop(Timer.builder("notification.client.requests")
+          .description("Latency of calls to the notification service")
+          .tag("operation", operation)
+          .tag("outcome", outcome)
+          .publishPercentiles(0.5, 0.95, 0.99)
+          .register(meterRegistry));
+    }
+  }
+}
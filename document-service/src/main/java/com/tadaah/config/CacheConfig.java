@@ -0,0 +1,76 @@
+package com.tadaah.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tadaah.cache.CacheWeight;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentCountCache;
+import com.tadaah.cache.UserLookupCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Bounded in-process caches backed by Caffeine.
+ *
+ * <p>Each cache is configured with a Caffeine spec, so size or weight bounds and
+ * expire-after-write or expire-after-access can be set per cache. Caffeine's W-TinyLFU admission
+ * keeps frequently read entries when the bound is reached. Statistics are always recorded and are
+ * published through the actuator cache metrics and the cache inspection endpoints.
+ */
+@Configuration
+public class CacheConfig {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+  // documentsCache, documentCountsCache and usersLookupCache are configured by DocumentCache,
+  // DocumentCountCache and UserLookupCache
+  @Value("${documents.cache.filtered-documents-cache.spec:maximumWeight=200000,expireAfterWrite=5m,expireAfterAccess=2m}")
+  private String filteredDocumentsCacheSpec;
+
+  @Value("${documents.cache.default-spec:maximumSize=1000,expireAfterWrite=10m}")
+  private String defaultSpec;
+
+  /**
+   * The documentsCache is the primary map of {@link DocumentCache}, which maintains its own
+   * secondary indexes, the documentCountsCache is the refreshing map of
+   * {@link DocumentCountCache} and the usersLookupCache is the map of {@link UserLookupCache} with
+   * its per-entry expiry; they are registered here so they can be inspected like the other caches.
+   */
+  @Bean
+  @SuppressWarnings("unchecked")
+  public CacheManager cacheManager(DocumentCache documentCache,
+      DocumentCountCache documentCountCache, UserLookupCache userLookupCache) {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.setCaffeine(caffeineBuilder(defaultSpec));
+    cacheManager.registerCustomCache("documentsCache",
+        (Cache<Object, Object>) (Cache<?, ?>) documentCache.nativeCache());
+    cacheManager.registerCustomCache("documentCountsCache",
+        (Cache<Object, Object>) (Cache<?, ?>) documentCountCache.nativeCache());
+    cacheManager.registerCustomCache("usersLookupCache",
+        (Cache<Object, Object>) (Cache<?, ?>) userLookupCache.nativeCache());
+    cacheManager.registerCustomCache("filteredDocumentsCache",
+        caffeineBuilder(filteredDocumentsCacheSpec).build());
+
+    logger.info("Caches configured - filteredDocumentsCache: [{}], default: [{}]",
+        filteredDocumentsCacheSpec, defaultSpec);
+    return cacheManager;
+  }
+
+  /**
+   * Creates a Caffeine builder from a spec. Weight-bounded caches weigh entries with
+   * {@link CacheWeight}.
+   */
+  public static Caffeine<Object, Object> caffeineBuilder(String spec) {
+    Caffeine<Object, Object> builder = Caffeine.from(spec).recordStats();
+    if (spec.contains("maximumWeight")) {
+      builder.weigher((key, value) -> value instanceof CacheWeight weighted
+          ? Math.max(weighted.weight(), 1) : 1);
+    }
+    return builder;
+  }
+}
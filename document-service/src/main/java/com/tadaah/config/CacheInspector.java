@@ -1,6 +1,8 @@
 package com.tadaah.config;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +14,8 @@ import java.util.concurrent.ConcurrentMap;
 
 /**
  * Utility class to inspect and interact with cache content.
- * Provides methods to log the contents of a cache, check the presence of a key, and retrieve the size of a cache.
+ * Provides methods to read the contents of a cache, check the presence of a key, and retrieve the size and statistics of a cache.
+ * Caffeine caches are inspected through their map view; plain {@link ConcurrentMap} caches are still supported.
  */
 @Slf4j
 @Component
@@ -22,19 +25,14 @@ public class CacheInspector {
   private CacheManager cacheManager;
 
   /**
-   * Logs the contents of a specified cache.
-   * If the cache does not exist or is empty, appropriate messages are logged.
+   * Retrieves the contents of a specified cache.
+   * If the cache does not exist or cannot be inspected, an empty map is returned.
    *
    * @param cacheName The name of the cache to inspect.
    */
   public Map<Object, Object> getCacheContent(String cacheName) {
-    Cache cache = cacheManager.getCache(cacheName);
-    if (cache != null) {
-      ConcurrentMap<Object, Object> cacheMap = (ConcurrentMap<Object, Object>) cache.getNativeCache();
-      return cacheMap;
-    } else {
-      return Collections.emptyMap();
-    }
+    ConcurrentMap<Object, Object> cacheMap = asMap(cacheName);
+    return cacheMap != null ? cacheMap : Collections.emptyMap();
   }
 
   /**
@@ -44,54 +42,88 @@ public class CacheInspector {
    * @param key The key to check for presence in the cache.
    * @return true if the key is present in the cache, false otherwise.
    */
-  @SuppressWarnings("unchecked")
   public boolean isCachePresent(String cacheName, Object key) {
-    Cache cache = cacheManager.getCache(cacheName);
-    if (cache != null) {
-      Object nativeCache = cache.getNativeCache();
-      if (nativeCache instanceof ConcurrentMap) {
-        ConcurrentMap<Object, Object> cacheMap = (ConcurrentMap<Object, Object>) nativeCache;
-        if (cacheMap.containsKey(key)) {
-          log.info("Cache {} contains key: {}", cacheName, key);
-          return true;
-        } else {
-          log.info("Cache {} does not contain key: {}", cacheName, key);
-          return false;
-        }
-      } else {
-        log.warn("Cache {} is not a ConcurrentMap. Unable to check key presence.", cacheName);
-        return false;
-      }
+    ConcurrentMap<Object, Object> cacheMap = asMap(cacheName);
+    if (cacheMap == null) {
+      return false;
+    }
+    if (cacheMap.containsKey(key)) {
+      log.info("Cache {} contains key: {}", cacheName, key);
+      return true;
     } else {
-      log.warn("Cache {} does not exist.", cacheName);
+      log.info("Cache {} does not contain key: {}", cacheName, key);
       return false;
     }
   }
 
   /**
    * Retrieves the size of a specified cache.
-   * Logs a message if the cache does not exist or is not a ConcurrentMap.
+   * Logs a message if the cache does not exist or cannot be inspected.
    *
    * @param cacheName The name of the cache to inspect.
-   * @return The number of entries in the cache, or 0 if the cache does not exist or is not a ConcurrentMap.
+   * @return The number of entries in the cache, or 0 if the cache does not exist or cannot be inspected.
    */
-  @SuppressWarnings("unchecked")
   public int getCacheSize(String cacheName) {
+    ConcurrentMap<Object, Object> cacheMap = asMap(cacheName);
+    if (cacheMap == null) {
+      return 0;
+    }
+    int size = cacheMap.size();
+    log.info("Cache {} contains {} entries.", cacheName, size);
+    return size;
+  }
+
+  /**
+   * Retrieves the statistics of a specified cache.
+   * Only Caffeine caches record statistics; other caches report their size only.
+   *
+   * @param cacheName The name of the cache to inspect.
+   * @return The cache statistics, or an empty map if the cache does not exist.
+   */
+  public Map<String, Object> getCacheStats(String cacheName) {
     Cache cache = cacheManager.getCache(cacheName);
-    if (cache != null) {
-      Object nativeCache = cache.getNativeCache();
-      if (nativeCache instanceof ConcurrentMap) {
-        ConcurrentMap<Object, Object> cacheMap = (ConcurrentMap<Object, Object>) nativeCache;
-        int size = cacheMap.size();
-        log.info("Cache {} contains {} entries.", cacheName, size);
-        return size;
-      } else {
-        log.warn("Cache {} is not a ConcurrentMap. Unable to determine size.", cacheName);
-        return 0;
-      }
+    if (cache == null) {
+      log.warn("Cache {} does not exist.", cacheName);
+      return Collections.emptyMap();
+    }
+
+    Map<String, Object> stats = new LinkedHashMap<>();
+    if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+      CacheStats cacheStats = caffeineCache.stats();
+      stats.put("estimatedSize", caffeineCache.estimatedSize());
+      stats.put("hitCount", cacheStats.hitCount());
+      stats.put("missCount", cacheStats.missCount());
+      stats.put("hitRate", cacheStats.hitRate());
+      stats.put("evictionCount", cacheStats.evictionCount());
+      stats.put("evictionWeight", cacheStats.evictionWeight());
+      caffeineCache.policy().eviction().ifPresent(eviction -> {
+        stats.put("maximum", eviction.getMaximum());
+        eviction.weightedSize().ifPresent(weightedSize -> stats.put("weightedSize", weightedSize));
+      });
     } else {
+      stats.put("estimatedSize", getCacheSize(cacheName));
+    }
+    return stats;
+  }
+
+  /**
+   * Returns the map view of a cache, or null if the cache does not exist or cannot be inspected.
+   */
+  @SuppressWarnings("unchecked")
+  private ConcurrentMap<Object, Object> asMap(String cacheName) {
+    Cache cache = cacheManager.getCache(cacheName);
+    if (cache == null) {
       log.warn("Cache {} does not exist.", cacheName);
-      return 0;
+      return null;
+    }
+    Object nativeCache = cache.getNativeCache();
+    if (nativeCache instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+      return (ConcurrentMap<Object, Object>) caffeineCache.asMap();
+    }
+    if (nativeCache instanceof ConcurrentMap) {
+      return (ConcurrentMap<Object, Object>) nativeCache;
     }
+    log.warn("Cache {} cannot be inspected.", cacheName);
+    return null;
   }
 }
@@ -0,0 +1,198 @@
+package com.tadaah.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.mongodb.client.MongoCollection;
+import com.tadaah.models.DocumentStatCounter;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.response.IndexReportDto;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.Users;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single source of truth for the MongoDB indexes of this service.
+ *
+ * <p>The declared indexes are created when the application is ready, and {@link #report()}
+ * compares them with the indexes that actually exist: declared indexes that are missing or exist
+ * with other keys or options, existing indexes that are not declared, and indexes that served no
+ * operation according to {@code $indexStats}. Existing indexes are never dropped; the report is
+ * meant to tell operators what to clean up.
+ *
+ * <p>Users are keyed by their username, so lookups are served by {@code _id}; their only declared
+ * index serves the case-insensitive prefix search.
+ */
+@Slf4j
+@Component
+public class MongoIndexManager {
+
+  private static final String ID_INDEX = "_id_";
+
+  private final MongoTemplate mongoTemplate;
+  private final boolean ensureOnStartup;
+
+  public MongoIndexManager(MongoTemplate mongoTemplate,
+      @Value("${mongodb.indexes.ensure-on-startup:true}") boolean ensureOnStartup) {
+    this.mongoTemplate = mongoTemplate;
+    this.ensureOnStartup = ensureOnStartup;
+  }
+
+  /**
+   * Returns the declared indexes of every managed collection.
+   *
+   * @return The declared indexes by entity class.
+   */
+  public static Map<Class<?>, List<Index>> declaredIndexes() {
+    Map<Class<?>, List<Index>> indexes = new LinkedHashMap<>();
+    indexes.put(Documents.class, List.of(
+        // Filter queries AND their predicates; each combination is served by one of these
+        new Index().named("user_type_verified").on("userName", Direction.ASC)
+            .on("documentType", Direction.ASC).on("verified", Direction.ASC),
+        // Cursor pages of an owner's documents walk this index in ID order
+        new Index().named("user_id").on("userName", Direction.ASC).on("_id", Direction.ASC),
+        new Index().named("type_verified").on("documentType", Direction.ASC)
+            .on("verified", Direction.ASC),
+        new Index().named("verified").on("verified", Direction.ASC),
+        // Only flagged documents carry the field, so the index stays as small as the backlog
+        new Index().named("notification_error_partial").on("notificationError", Direction.ASC)
+            .partial(PartialIndexFilter.of(where("notificationError").exists(true))),
+        // The expiry scanner reads expiryDate windows and skips marked documents on the index keys
+        new Index().named("expiry_date_status").on("expiryDate", Direction.ASC)
+            .on("expiryStatus", Direction.ASC)));
+    indexes.put(Users.class, List.of(
+        // Prefix search and autocomplete: a range on the lower-case username, covered with _id
+        new Index().named("user_name_lower_id").on("userNameLower", Direction.ASC)
+            .on("_id", Direction.ASC)));
+    indexes.put(NotificationOutbox.class, List.of(
+        // Relay claims: equality on status, then the createdDate, _id sort of the batch
+        new Index().named("status_created_id").on("status", Direction.ASC)
+            .on("createdDate", Direction.ASC).on("_id", Direction.ASC),
+        new Index().named("claim_token").on("claimToken", Direction.ASC),
+        new Index().named("document_id").on("documentId", Direction.ASC)));
+    indexes.put(DocumentStatCounter.class, List.of(
+        // Global statistics are reloaded without reading every owner's counter
+        new Index().named("dimension").on("dimension", Direction.ASC)));
+    return indexes;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (ensureOnStartup) {
+      ensureIndexes();
+    }
+  }
+
+  /**
+   * Creates the declared indexes that do not exist yet. An index that exists with other keys or
+   * options is left as it is and logged.
+   */
+  public void ensureIndexes() {
+    declaredIndexes().forEach((entityClass, indexes) -> {
+      for (Index index : indexes) {
+        try {
+          mongoTemplate.indexOps(entityClass).ensureIndex(index);
+        } catch (DataAccessException e) {
+          log.error("Failed to ensure index {} on {}: {}", indexName(index),
+              mongoTemplate.getCollectionName(entityClass), e.getMessage());
+        }
+      }
+    });
+    report().forEach(report -> {
+      if (!report.getMissing().isEmpty() || !report.getMismatched().isEmpty()) {
+        log.warn("Collection {} has missing indexes {} and mismatched indexes {}",
+            report.getCollection(), report.getMissing(), report.getMismatched());
+      }
+      if (!report.getUndeclared().isEmpty()) {
+        log.info("Collection {} has undeclared indexes {}", report.getCollection(),
+            report.getUndeclared());
+      }
+    });
+  }
+
+  /**
+   * Compares the existing indexes of every managed collection with the declared ones.
+   *
+   * @return One report per managed collection.
+   */
+  public List<IndexReportDto> report() {
+    List<IndexReportDto> reports = new ArrayList<>();
+    declaredIndexes().forEach((entityClass, indexes) -> {
+      String collectionName = mongoTemplate.getCollectionName(entityClass);
+      MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+
+      Map<String, Document> existing = new LinkedHashMap<>();
+      collection.listIndexes().forEach(index -> existing.put(index.getString("name"), index));
+
+      IndexReportDto report = new IndexReportDto();
+      report.setCollection(collectionName);
+      for (Index index : indexes) {
+        String name = indexName(index);
+        report.getDeclared().add(name);
+        Document actual = existing.get(name);
+        if (actual == null) {
+          report.getMissing().add(name);
+        } else if (!matches(index, actual)) {
+          report.getMismatched().add(name);
+        }
+      }
+      existing.keySet().stream()
+          .filter(name -> !ID_INDEX.equals(name) && !report.getDeclared().contains(name))
+          .forEach(report.getUndeclared()::add);
+
+      if (!existing.isEmpty()) {
+        collection.aggregate(List.of(new Document("$indexStats", new Document())))
+            .forEach(stats -> {
+              String name = stats.getString("name");
+              Number ops = stats.get("accesses", Document.class).get("ops", Number.class);
+              report.getAccesses().put(name, ops.longValue());
+              if (ops.longValue() == 0 && !ID_INDEX.equals(name)) {
+                report.getUnused().add(name);
+              }
+            });
+      }
+      reports.add(report);
+    });
+    return reports;
+  }
+
+  private static String indexName(Index index) {
+    return index.getIndexOptions().getString("name");
+  }
+
+  /**
+   * Checks whether an existing index has the keys, uniqueness and partial filter of the declared
+   * one.
+   */
+  private static boolean matches(Index declared, Document actual) {
+    Document options = declared.getIndexOptions();
+    return normalize(declared.getIndexKeys()).equals(normalize(actual.get("key", Document.class)))
+        && options.getBoolean("unique", false) == actual.getBoolean("unique", false)
+        && Objects.equals(options.get("partialFilterExpression"),
+            actual.get("partialFilterExpression"));
+  }
+
+  /**
+   * Maps index directions to ints, since the server may return them as doubles or longs.
+   */
+  private static Document normalize(Document keys) {
+    Document normalized = new Document();
+    keys.forEach((field, direction) -> normalized.put(field,
+        direction instanceof Number number ? number.intValue() : direction));
+    return normalized;
+  }
+}
@@ -1,10 +1,23 @@
 package com.tadaah.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -15,9 +28,64 @@ public class RestTemplateConfig {
   @Value("${notification.service.url:#{null}}")
   private String notificationServiceUrl;
 
+  @Value("${notification.client.max-connections:50}")
+  private int maxConnections;
+
+  @Value("${notification.client.max-connections-per-route:50}")
+  private int maxConnectionsPerRoute;
+
+  @Value("${notification.client.connect-timeout-ms:1000}")
+  private long connectTimeoutMs;
+
+  @Value("${notification.client.read-timeout-ms:3000}")
+  private long readTimeoutMs;
+
+  @Value("${notification.client.connection-request-timeout-ms:500}")
+  private long connectionRequestTimeoutMs;
+
+  @Value("${notification.client.connection-time-to-live-ms:300000}")
+  private long connectionTimeToLiveMs;
+
+  @Value("${notification.client.idle-eviction-ms:30000}")
+  private long idleEvictionMs;
+
+  /**
+   * HTTP client for the notification service with a pooled keep-alive connection manager.
+   * Every phase of a call is time-bounded so a stalled notification service cannot pin threads.
+   */
+  @Bean
+  public CloseableHttpClient notificationHttpClient(MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerRoute)
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+            .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+            .setTimeToLive(TimeValue.ofMilliseconds(connectionTimeToLiveMs))
+            .build())
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "notificationService")
+        .bindTo(meterRegistry);
+
+    logger.info("Notification HTTP client pool: {} connections, connect timeout {} ms, read timeout {} ms",
+        maxConnections, connectTimeoutMs, readTimeoutMs);
+    return HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+            .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+            .build())
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+        .build();
+  }
+
   @Bean
-  public RestTemplate restTemplate() {
-    return new RestTemplate();
+  public RestTemplate notificationRestTemplate(RestTemplateBuilder restTemplateBuilder,
+      @Qualifier("notificationHttpClient") CloseableHttpClient notificationHttpClient) {
+    return restTemplateBuilder
+        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(notificationHttpClient))
+        .build();
   }
 
   @Bean
@@ -0,0 +1,73 @@
+package com.tadaah.config;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.tadaah.models.Users;
+import java.util.List;
+import java.util.Locale;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills in the lower-case username of users saved before prefix search existed, so the prefix
+ * index covers every user.
+ *
+ * <p>The key is computed in Java with the same {@link Locale#ROOT} lower-casing as
+ * {@link Users#setUserName(String)}; the server's {@code $toLower} only handles ASCII reliably.
+ * Updated users no longer match the query, so each batch picks up where the previous one ended.
+ */
+@Slf4j
+@Component
+public class UserSearchKeyBackfill {
+
+  private final MongoTemplate mongoTemplate;
+  private final int batchSize;
+
+  public UserSearchKeyBackfill(MongoTemplate mongoTemplate,
+      @Value("${users.search-key-backfill.batch-size:1000}") int batchSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.batchSize = batchSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    try {
+      long updated = backfill();
+      if (updated > 0) {
+        log.info("Filled in the lower-case username of {} users", updated);
+      }
+    } catch (DataAccessException e) {
+      log.error("Failed to fill in lower-case usernames: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Sets the lower-case username of every user that has none.
+   *
+   * @return The number of updated users.
+   */
+  public long backfill() {
+    long updated = 0;
+    while (true) {
+      Query query = new Query(where("userNameLower").exists(false)).limit(batchSize);
+      query.fields().include("userName");
+      List<Users> users = mongoTemplate.find(query, Users.class);
+      if (users.isEmpty()) {
+        return updated;
+      }
+      BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Users.class);
+      users.forEach(user -> bulk.updateOne(new Query(where("userName").is(user.getUserName())),
+          Update.update("userNameLower", user.getUserName().toLowerCase(Locale.ROOT))));
+      updated += bulk.execute().getModifiedCount();
+    }
+  }
+}
@@ -153,4 +153,30 @@ public class CacheController {
     log.info(message);
     return ResponseDto.success(message);
   }
+
+  @GetMapping("/stats/{cacheName}")
+  @Operation(
+      summary = "Get Cache Statistics",
+      description = "Retrieves the hit, miss and eviction statistics and the size bound of the specified cache.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved cache statistics",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"estimatedSize\": 3, \"hitCount\": 42, \"missCount\": 5, \"hitRate\": 0.8936, \"evictionCount\": 0, \"evictionWeight\": 0, \"maximum\": 10000 }, \"error\": null }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<Map<String, Object>> getCacheStats(
+      @Parameter(description = "The name of the cache to inspect", required = true)
+      @PathVariable String cacheName) {
+    log.info("getCacheStats API called for cacheName: {}", cacheName);
+    return ResponseDto.success(cacheInspector.getCacheStats(cacheName));
+  }
 }
@@ -1,12 +1,18 @@
 package com.tadaah.controllers;
 
 import com.tadaah.models.ApiError;
+import com.tadaah.models.DocumentType;
 import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.request.BulkDocumentRequestDto;
 import com.tadaah.models.Dto.request.DocumentDto;
 import com.tadaah.models.Dto.request.DocumentFilterRequestDto;
+import com.tadaah.models.Dto.response.BulkDocumentResponseDto;
+import com.tadaah.models.Dto.response.DocumentStatsDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
 import com.tadaah.models.Dto.response.ResponseDto;
 import com.tadaah.services.DocumentService;
+import com.tadaah.utils.ETagUtil;
+import com.tadaah.utils.FieldProjection;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,18 +21,28 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/v1/api/documents")
@@ -35,6 +51,8 @@ public class DocumentController {
 
   private static final Logger logger = LoggerFactory.getLogger(DocumentController.class);
 
+  private static final int EXPORT_GZIP_BUFFER_SIZE = 65536;
+
   @Autowired
   private DocumentService documentService;
 
@@ -80,6 +98,49 @@ public class DocumentController {
     return ResponseDto.success(createdDocument);
   }
 
+  @PostMapping("/bulk")
+  @Operation(
+      summary = "Create documents in bulk",
+      description = "Creates a batch of documents with one owner lookup and one bulk insert. Every item is validated on its own and reported in the per-item results.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully processed the batch",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = BulkDocumentResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"total\": 2, \"succeeded\": 1, \"failed\": 1, \"results\": [{ \"index\": 0, \"success\": true, \"id\": \"12345\", \"error\": null }, { \"index\": 1, \"success\": false, \"id\": null, \"error\": \"User not found: jane_doe\" }] }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "400",
+              description = "Invalid input",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"BAD_REQUEST\", \"message\": \"Bulk request exceeds the maximum of 10000 documents\", \"errors\": [\"Bulk request exceeds the maximum of 10000 documents\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<BulkDocumentResponseDto> createDocuments(
+      @Parameter(
+          description = "The documents to be created",
+          required = true
+      )
+      @RequestBody @Valid BulkDocumentRequestDto bulkRequest) {
+    logger.info("createDocuments API called with {} documents", bulkRequest.getDocuments().size());
+    BulkDocumentResponseDto response = documentService.createDocuments(bulkRequest.getDocuments());
+    logger.info("Bulk request processed - succeeded: {}, failed: {}", response.getSucceeded(), response.getFailed());
+    return ResponseDto.success(response);
+  }
+
   @PutMapping("/{id}")
   @Operation(
       summary = "Update an existing document",
@@ -108,6 +169,30 @@ public class DocumentController {
                       value = "{ \"status\": \"BAD_REQUEST\", \"message\": \"Invalid input\", \"errors\": [\"Invalid document ID\"] }"
                   )
               )
+          ),
+          @ApiResponse(
+              responseCode = "409",
+              description = "The document was modified since the version in the request",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Conflict Example",
+                      value = "{ \"status\": \"CONFLICT\", \"message\": \"Document with ID: 12345 was modified concurrently; current version is 4\", \"errors\": [\"Document with ID: 12345 was modified concurrently; current version is 4\"] }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "428",
+              description = "The request does not carry the version the update is based on",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Precondition Required Example",
+                      value = "{ \"status\": \"PRECONDITION_REQUIRED\", \"message\": \"The version the update is based on is required.\", \"errors\": [\"The version the update is based on is required.\"] }"
+                  )
+              )
           )
       }
   )
@@ -169,10 +254,136 @@ public class DocumentController {
     return ResponseDto.success("Document deleted successfully");
   }
 
+  @GetMapping("/{id}")
+  @Operation(
+      summary = "Retrieve a document",
+      description = "Retrieves the document with the specified ID. The response carries an ETag derived from the document version; "
+          + "a request with a matching If-None-Match header is answered with 304 Not Modified.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the document",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"version\": 3 }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(responseCode = "304", description = "The document has not changed since the ETag in If-None-Match"),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Document not found",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"NOT_FOUND\", \"message\": \"Document not found with ID: 12345\", \"errors\": [\"Document not found with ID: 12345\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseEntity<ResponseDto<Documents>> getDocument(
+      @Parameter(
+          description = "ID of the document to be retrieved",
+          required = true
+      )
+      @PathVariable String id) {
+    logger.info("getDocument API called with ID: {}", id);
+    Documents document = documentService.getDocument(id);
+    return ResponseEntity.ok()
+        .eTag(ETagUtil.documentETag(document))
+        .cacheControl(CacheControl.noCache())
+        .body(ResponseDto.success(document));
+  }
+
+  @GetMapping("/users/{userName}")
+  @Operation(
+      summary = "Retrieve the documents of a user",
+      description = "Retrieves all documents owned by the specified user, ordered by ID. The response carries an ETag derived from the "
+          + "IDs and versions of the documents; a request with a matching If-None-Match header is answered with 304 Not Modified.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the documents",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": [{ \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"version\": 3 }], \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(responseCode = "304", description = "The documents have not changed since the ETag in If-None-Match")
+      }
+  )
+  public ResponseEntity<ResponseDto<List<Documents>>> getDocumentsByUser(
+      @Parameter(
+          description = "Username of the document owner",
+          required = true
+      )
+      @PathVariable String userName) {
+    logger.info("getDocumentsByUser API called for user: {}", userName);
+    List<Documents> documents = documentService.getDocumentsByUser(userName);
+    return ResponseEntity.ok()
+        .eTag(ETagUtil.documentsETag(documents))
+        .cacheControl(CacheControl.noCache())
+        .body(ResponseDto.success(documents));
+  }
+
+  @GetMapping("/export")
+  @Operation(
+      summary = "Export documents as NDJSON",
+      description = "Streams all documents matching the provided filters as newline-delimited JSON, one document per line in ID order. "
+          + "Criteria that are not set are ignored. With gzip=true the stream is gzip-compressed and served as documents.ndjson.gz.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "The export stream",
+              content = @Content(
+                  mediaType = "application/x-ndjson",
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{\"id\":\"12345\",\"name\":\"john_doe_Passport\",\"documentType\":\"ID_VERIFICATION\",\"userName\":\"john_doe\",\"fileUrl\":\"http://example.com/document.pdf\",\"expiryDate\":\"2024-12-31\",\"verified\":true,\"version\":3}\n"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseEntity<StreamingResponseBody> exportDocuments(
+      @Parameter(description = "The username of the document owner") @RequestParam(required = false) String user,
+      @Parameter(description = "The type of the document") @RequestParam(required = false) DocumentType documentType,
+      @Parameter(description = "The verification status of the document") @RequestParam(required = false) Boolean verified,
+      @Parameter(description = "Whether to gzip the export") @RequestParam(defaultValue = "false") boolean gzip) {
+    logger.info("exportDocuments API called with filters - documentType: {}, user: {}, verified: {}, gzip: {}", documentType, user, verified, gzip);
+
+    // The body is written on an async thread after the headers are sent, straight from the cursor
+    StreamingResponseBody body = out -> {
+      if (gzip) {
+        GZIPOutputStream gzipOut = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER_SIZE);
+        documentService.exportDocuments(documentType, user, verified, gzipOut);
+        gzipOut.finish();
+      } else {
+        documentService.exportDocuments(documentType, user, verified, out);
+      }
+    };
+    String filename = gzip ? "documents.ndjson.gz" : "documents.ndjson";
+    return ResponseEntity.ok()
+        .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_NDJSON)
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString())
+        .body(body);
+  }
+
   @PostMapping("/filter")
   @Operation(
       summary = "Retrieve documents based on filters",
-      description = "Retrieves a list of documents based on the provided filter criteria.",
+      description = "Retrieves a list of documents matching all of the provided filter criteria. Criteria that are not set are ignored. fields restricts the returned fields. countMode NONE leaves the totals out and APPROXIMATE serves background-refreshed totals. With useCursor or a cursor, pages are read in ID order after the cursor and carry hasNext and nextCursor instead of totals.",
       responses = {
           @ApiResponse(
               responseCode = "200",
@@ -200,7 +411,7 @@ public class DocumentController {
           )
       }
   )
-  public ResponseDto<PaginatedResponseDto<Documents>> getDocuments(
+  public ResponseDto<PaginatedResponseDto<?>> getDocuments(
       @Parameter(
           description = "Filter criteria for retrieving documents",
           required = true
@@ -208,6 +419,19 @@ public class DocumentController {
       @RequestBody DocumentFilterRequestDto filter) {
     logger.info("getDocuments API called with filters - documentType: {}, user: {}, verified: {}", filter.getDocumentType(), filter.getUser(), filter.getVerified());
 
+    if (filter.isUseCursor() || filter.getCursor() != null) {
+      PaginatedResponseDto<Documents> response = documentService.getDocumentsByCursor(
+          filter.getDocumentType(),
+          filter.getUser(),
+          filter.getVerified(),
+          filter.getIsNotificationFailed(),
+          filter.getCursor(),
+          filter.getSize(),
+          filter.getFields()
+      );
+      return ResponseDto.success(FieldProjection.trim(response, filter.getFields(), "id"));
+    }
+
     Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize());
 
     PaginatedResponseDto<Documents> response = documentService.getDocuments(
@@ -215,9 +439,71 @@ public class DocumentController {
         filter.getUser(),
         filter.getVerified(),
         filter.getIsNotificationFailed(),
-        pageable
+        pageable,
+        filter.getCountMode(),
+        filter.getFields()
     );
 
-    return ResponseDto.success(response);
+    // Only the requested fields were read, so only they are returned
+    return ResponseDto.success(FieldProjection.trim(response, filter.getFields(), "id"));
+  }
+
+  @PostMapping("/count")
+  @Operation(
+      summary = "Count documents based on filters",
+      description = "Returns the exact number of documents matching all of the provided filter criteria. Paging fields of the request are ignored.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully counted the documents",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": 42, \"error\": null }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<Long> countDocuments(
+      @Parameter(
+          description = "Filter criteria for counting documents",
+          required = true
+      )
+      @RequestBody DocumentFilterRequestDto filter) {
+    logger.info("countDocuments API called with filters - documentType: {}, user: {}, verified: {}", filter.getDocumentType(), filter.getUser(), filter.getVerified());
+    return ResponseDto.success(documentService.countDocuments(
+        filter.getDocumentType(),
+        filter.getUser(),
+        filter.getVerified(),
+        filter.getIsNotificationFailed()
+    ));
+  }
+
+  @GetMapping("/stats")
+  @Operation(
+      summary = "Get document statistics",
+      description = "Returns document counts by type, verification status and notification failure, and the count of one owner if requested. The counts are maintained incrementally and may lag behind recent writes on other instances by a few seconds.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the document statistics",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"total\": 1200, \"byType\": { \"FINANCIAL_DOCUMENT\": 200, \"ID_VERIFICATION\": 400, \"LEGAL_DOCUMENT\": 300, \"OTHER\": 300 }, \"verified\": 1000, \"unverified\": 200, \"notificationFailed\": 3, \"userName\": \"john_doe\", \"userDocuments\": 12 }, \"error\": null }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<DocumentStatsDto> getDocumentStats(
+      @Parameter(description = "The username of the owner to count documents for") @RequestParam(required = false) String user) {
+    logger.info("getDocumentStats API called with user: {}", user);
+    return ResponseDto.success(documentService.getDocumentStats(user));
   }
 }
@@ -0,0 +1,51 @@
+package com.tadaah.controllers;
+
+import com.tadaah.config.MongoIndexManager;
+import com.tadaah.models.Dto.response.IndexReportDto;
+import com.tadaah.models.Dto.response.ResponseDto;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/v1/api/indexes")
+@Tag(name = "Index Management", description = "Operations related to MongoDB index inspection")
+public class IndexController {
+
+  @Autowired
+  private MongoIndexManager mongoIndexManager;
+
+  @GetMapping("/report")
+  @Operation(
+      summary = "Get Index Report",
+      description = "Compares the existing indexes of every managed collection with the declared ones and lists missing, mismatched, undeclared and unused indexes.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the index report",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": [ { \"collection\": \"documents\", \"declared\": [\"user_type_verified\", \"type_verified\", \"verified\", \"notification_error_partial\", \"expiry_date_status\"], \"missing\": [], \"mismatched\": [], \"undeclared\": [\"notification_error\"], \"unused\": [\"notification_error\"], \"accesses\": { \"_id_\": 120, \"user_type_verified\": 5400, \"notification_error\": 0 } } ], \"error\": null }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<List<IndexReportDto>> getIndexReport() {
+    log.info("getIndexReport API called");
+    return ResponseDto.success(mongoIndexManager.report());
+  }
+}
@@ -0,0 +1,340 @@
+package com.tadaah.controllers;
+
+import com.tadaah.models.ApiError;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.request.DocumentFilterRequestDto;
+import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import com.tadaah.models.Dto.response.ResponseDto;
+import com.tadaah.services.ReactiveDocumentService;
+import com.tadaah.utils.FieldProjection;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the document API. The handlers return publishers, so the request thread
+ * is released while MongoDB works and the response is written once the publisher completes.
+ *
+ * <p>The /v2 surface covers create, read, update, delete, the owner listing and filtered
+ * listings. Filtered pages are read from MongoDB on every request rather than from the page cache
+ * of /api/documents; exports and bulk writes stay on /api/documents.
+ */
+@RestController
+@RequestMapping("/v2/api/documents")
+@Tag(name = "Documents (reactive)", description = "Non-blocking operations related to documents")
+public class ReactiveDocumentController {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReactiveDocumentController.class);
+
+  @Autowired
+  private ReactiveDocumentService reactiveDocumentService;
+
+  @PostMapping
+  @Operation(
+      summary = "Create a new document",
+      description = "Creates a new document without blocking a request thread and returns the created document.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully created the document",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"version\": 0 }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "400",
+              description = "Invalid input",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"BAD_REQUEST\", \"message\": \"User not found: john_doe\", \"errors\": [\"User not found: john_doe\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<Documents>> createDocument(
+      @Parameter(
+          description = "Details of the document to be created",
+          required = true
+      )
+      @RequestBody @Valid DocumentDto documentDto) {
+    logger.info("Reactive createDocument API called with document: {}", documentDto);
+    return reactiveDocumentService.createDocument(documentDto).map(ResponseDto::success);
+  }
+
+  @GetMapping("/{id}")
+  @Operation(
+      summary = "Retrieve a document",
+      description = "Retrieves the document with the specified ID without blocking a request thread.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the document",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"version\": 3 }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Document not found",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"NOT_FOUND\", \"message\": \"Document not found with ID: 12345\", \"errors\": [\"Document not found with ID: 12345\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<Documents>> getDocument(
+      @Parameter(
+          description = "ID of the document to be retrieved",
+          required = true
+      )
+      @PathVariable String id) {
+    logger.info("Reactive getDocument API called with ID: {}", id);
+    return reactiveDocumentService.getDocument(id).map(ResponseDto::success);
+  }
+
+  @GetMapping(value = "/users/{userName}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(
+      summary = "Retrieve the documents of a user",
+      description = "Retrieves all documents owned by the specified user, ordered by ID. Request application/x-ndjson to receive "
+          + "the documents as a stream, one JSON document per line, as they are read.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the documents",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": [{ \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"version\": 3 }], \"error\": null }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<List<Documents>>> getDocumentsByUser(
+      @Parameter(
+          description = "Username of the document owner",
+          required = true
+      )
+      @PathVariable String userName) {
+    logger.info("Reactive getDocumentsByUser API called for user: {}", userName);
+    return reactiveDocumentService.getDocumentsByUser(userName).collectList()
+        .map(ResponseDto::success);
+  }
+
+  @GetMapping(value = "/users/{userName}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(hidden = true)
+  public Flux<Documents> streamDocumentsByUser(@PathVariable String userName) {
+    logger.info("Reactive streamDocumentsByUser API called for user: {}", userName);
+    return reactiveDocumentService.getDocumentsByUser(userName);
+  }
+
+  @PutMapping("/{id}")
+  @Operation(
+      summary = "Update an existing document",
+      description = "Updates the fields set in the request without blocking a request thread and returns the updated document. The request must carry the version it is based on.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully updated the document",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Documents.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/updated_document.pdf\", \"expiryDate\": \"2025-12-31\", \"verified\": true, \"version\": 4 }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "409",
+              description = "The document was modified since the version in the request",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Conflict Example",
+                      value = "{ \"status\": \"CONFLICT\", \"message\": \"Document with ID: 12345 was modified concurrently; current version is 4\", \"errors\": [\"Document with ID: 12345 was modified concurrently; current version is 4\"] }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "428",
+              description = "The request does not carry the version the update is based on",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Precondition Required Example",
+                      value = "{ \"status\": \"PRECONDITION_REQUIRED\", \"message\": \"The version the update is based on is required.\", \"errors\": [\"The version the update is based on is required.\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<Documents>> updateDocument(
+      @Parameter(
+          description = "ID of the document to be updated",
+          required = true
+      )
+      @PathVariable String id,
+      @Parameter(
+          description = "Updated details of the document",
+          required = true
+      )
+      @RequestBody @Valid DocumentDto documentDto) {
+    logger.info("Reactive updateDocument API called with ID: {} and document: {}", id, documentDto);
+    return reactiveDocumentService.updateDocument(id, documentDto).map(ResponseDto::success);
+  }
+
+  @PostMapping("/filter")
+  @Operation(
+      summary = "Retrieve documents based on filters",
+      description = "Retrieves a page of documents matching all of the provided filter criteria without blocking a request thread. Criteria that are not set are ignored. fields restricts the returned fields. countMode NONE leaves the totals out and APPROXIMATE serves background-refreshed totals. With useCursor or a cursor, pages are read in ID order after the cursor and carry hasNext and nextCursor instead of totals.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully retrieved the documents",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = PaginatedResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"items\": [{ \"id\": \"12345\", \"name\": \"john_doe_Passport\", \"documentType\": \"ID_VERIFICATION\", \"userName\": \"john_doe\", \"fileUrl\": \"http://example.com/document.pdf\", \"expiryDate\": \"2024-12-31\", \"verified\": true, \"notificationError\": null }], \"totalElements\": 1 }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "400",
+              description = "Invalid filter criteria",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"BAD_REQUEST\", \"message\": \"Unknown fields: size\", \"errors\": [\"Unknown fields: size\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<PaginatedResponseDto<?>>> getDocuments(
+      @Parameter(
+          description = "Filter criteria for retrieving documents",
+          required = true
+      )
+      @RequestBody DocumentFilterRequestDto filter) {
+    logger.info("Reactive getDocuments API called with filters - documentType: {}, user: {}, verified: {}", filter.getDocumentType(), filter.getUser(), filter.getVerified());
+
+    Mono<PaginatedResponseDto<Documents>> page;
+    if (filter.isUseCursor() || filter.getCursor() != null) {
+      page = reactiveDocumentService.getDocumentsByCursor(
+          filter.getDocumentType(),
+          filter.getUser(),
+          filter.getVerified(),
+          filter.getIsNotificationFailed(),
+          filter.getCursor(),
+          filter.getSize(),
+          filter.getFields()
+      );
+    } else {
+      page = reactiveDocumentService.getDocuments(
+          filter.getDocumentType(),
+          filter.getUser(),
+          filter.getVerified(),
+          filter.getIsNotificationFailed(),
+          PageRequest.of(filter.getPage(), filter.getSize()),
+          filter.getCountMode(),
+          filter.getFields()
+      );
+    }
+
+    // Only the requested fields were read, so only they are returned
+    return page.map(response -> ResponseDto.<PaginatedResponseDto<?>>success(
+        FieldProjection.trim(response, filter.getFields(), "id")));
+  }
+
+  @DeleteMapping("/{id}")
+  @Operation(
+      summary = "Delete a document",
+      description = "Deletes the document with the specified ID without blocking a request thread.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully deleted the document",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": \"Document deleted successfully\", \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "Document not found",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ApiError.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"NOT_FOUND\", \"message\": \"Document not found with ID: 12345\", \"errors\": [\"Document not found with ID: 12345\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<String>> deleteDocument(
+      @Parameter(
+          description = "ID of the document to be deleted",
+          required = true
+      )
+      @PathVariable String id) {
+    logger.info("Reactive deleteDocument API called with ID: {}", id);
+    return reactiveDocumentService.deleteDocument(id)
+        .thenReturn(ResponseDto.success("Document deleted successfully"));
+  }
+}
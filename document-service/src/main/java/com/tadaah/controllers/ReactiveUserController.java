@@ -0,0 +1,110 @@
+package com.tadaah.controllers;
+
+import com.tadaah.models.Dto.request.UserDto;
+import com.tadaah.models.Dto.response.ResponseDto;
+import com.tadaah.models.Users;
+import com.tadaah.services.ReactiveUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@RestController
+@RequestMapping("/v2/api/users")
+@Tag(name = "User Management (reactive)", description = "Non-blocking operations related to user management")
+public class ReactiveUserController {
+
+  @Autowired
+  private ReactiveUserService reactiveUserService;
+
+  @PostMapping
+  @Operation(
+      summary = "Create User",
+      description = "Creates a new user with the provided details without blocking a request thread.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "User created successfully",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = Users.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": { \"userName\": \"john_doe\", \"firstName\": \"John\", \"lastName\": \"Doe\", \"createdDate\": null, \"lastModifiedDate\": \"2024-08-09T18:06:44.679263\" }, \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "409",
+              description = "User already exists",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"CONFLICT\", \"message\": \"User already exists with username: john_doe\", \"errors\": [\"User already exists with username: john_doe\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<Users>> createUser(
+      @Parameter(description = "The user details to be created", required = true)
+      @RequestBody @Valid UserDto userDto) {
+    log.info("Reactive createUser API called with parameters: {}", userDto);
+    return reactiveUserService.createUser(userDto).map(ResponseDto::success);
+  }
+
+  @DeleteMapping("/{username}")
+  @Operation(
+      summary = "Delete User",
+      description = "Deletes a user with the specified username without blocking a request thread.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "User deleted successfully",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": \"User deleted successfully\", \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "404",
+              description = "User not found",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"status\": \"NOT_FOUND\", \"message\": \"User not found with username: john_doe\", \"errors\": [\"User not found with username: john_doe\"] }"
+                  )
+              )
+          )
+      }
+  )
+  public Mono<ResponseDto<String>> deleteUser(
+      @Parameter(description = "The username of the user to be deleted", required = true)
+      @PathVariable String username) {
+    log.info("Reactive deleteUser API called with username: {}", username);
+    return reactiveUserService.deleteUser(username)
+        .thenReturn(ResponseDto.success("User deleted successfully"));
+  }
+}
@@ -6,6 +6,7 @@ import com.tadaah.models.Dto.response.PaginatedResponseDto;
 import com.tadaah.models.Dto.response.ResponseDto;
 import com.tadaah.models.Users;
 import com.tadaah.services.UserService;
+import com.tadaah.utils.FieldProjection;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,15 +15,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
@@ -124,7 +128,7 @@ public class UserController {
   @PostMapping("/filter")
   @Operation(
       summary = "Get All Users",
-      description = "Retrieves a paginated list of users based on optional filters.",
+      description = "Retrieves a paginated list of users based on optional filters. searchMode PREFIX matches usernames starting with userName from an index; CONTAINS matches them anywhere and scans all users. fields restricts the returned fields. With useCursor or a cursor, pages are read in username order after the cursor and carry hasNext and nextCursor instead of totals.",
       responses = {
           @ApiResponse(
               responseCode = "200",
@@ -152,13 +156,60 @@ public class UserController {
           )
       }
   )
-  public ResponseDto<PaginatedResponseDto<Users>> getAllUsers(
+  public ResponseDto<PaginatedResponseDto<?>> getAllUsers(
       @Parameter(description = "Filter criteria for retrieving users", required = true)
       @RequestBody UserFilterRequestDto filterDto) {
     log.info("getAllUsers API called with filters - username: {}", filterDto.getUserName());
+    if (filterDto.isUseCursor() || filterDto.getCursor() != null) {
+      PaginatedResponseDto<Users> users = userService.getUsersByCursor(filterDto.getUserName(),
+          filterDto.getSearchMode(), filterDto.getCursor(), filterDto.getSize(), filterDto.getFields());
+      log.info("Fetched {} users by cursor", users.getContent().size());
+      return ResponseDto.success(FieldProjection.trim(users, filterDto.getFields(), "userName"));
+    }
     Pageable pageable = PageRequest.of(filterDto.getPage(), filterDto.getSize());
-    PaginatedResponseDto<Users> users = userService.getAllUsers(filterDto.getUserName(), pageable);
-    log.info("Fetched {} users", users.getTotalElements());
-    return ResponseDto.success(users);
+    PaginatedResponseDto<Users> users = userService.getAllUsers(filterDto.getUserName(),
+        filterDto.getSearchMode(), pageable, filterDto.getCountMode(), filterDto.getFields());
+    log.info("Fetched {} users", users.getContent().size());
+    return ResponseDto.success(FieldProjection.trim(users, filterDto.getFields(), "userName"));
+  }
+
+  @GetMapping("/autocomplete")
+  @Operation(
+      summary = "Autocomplete Usernames",
+      description = "Returns the usernames starting with the prefix, ignoring case, in case-insensitive order. The lookup reads the lower-case username index only.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Successfully completed the prefix",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Success Example",
+                      value = "{ \"success\": true, \"data\": [\"john_doe\", \"John_Smith\"], \"error\": null }"
+                  )
+              )
+          ),
+          @ApiResponse(
+              responseCode = "400",
+              description = "Invalid limit",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(
+                      name = "Error Example",
+                      value = "{ \"success\": false, \"data\": null, \"error\": { \"status\": \"BAD_REQUEST\", \"message\": \"Limit must be positive\", \"errors\": [] } }"
+                  )
+              )
+          )
+      }
+  )
+  public ResponseDto<List<String>> autocompleteUsers(
+      @Parameter(description = "The start of the username", required = true)
+      @RequestParam String prefix,
+      @Parameter(description = "The maximum number of usernames to return")
+      @RequestParam(defaultValue = "10") int limit) {
+    log.info("autocompleteUsers API called with prefix: {}", prefix);
+    return ResponseDto.success(userService.autocompleteUsers(prefix, limit));
   }
 }
@@ -0,0 +1,15 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "How the totals of a paginated response are computed")
+public enum CountMode {
+  @Schema(description = "Count the matching elements for every page")
+  EXACT,
+
+  @Schema(description = "Leave the totals out; only tell whether there is a next page")
+  NONE,
+
+  @Schema(description = "Serve cached or estimated totals that are refreshed in the background")
+  APPROXIMATE
+}
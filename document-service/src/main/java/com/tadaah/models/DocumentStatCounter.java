@@ -0,0 +1,31 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The checkpointed number of documents with one property value, such as one document type or one
+ * owner. Instances add their pending changes with $inc and the stats reconciler overwrites the
+ * counts with exact ones.
+ */
+@Data
+@Document(collection = "documentStats")
+@Schema(description = "Represents the checkpointed document count of one statistic.")
+public class DocumentStatCounter {
+
+  @Id
+  @Schema(description = "The statistic, as dimension and value", example = "type:LEGAL_DOCUMENT")
+  private String key;
+
+  @Schema(description = "The dimension of the statistic", example = "type")
+  private String dimension;
+
+  @Schema(description = "The number of documents", example = "42")
+  private long count;
+
+  @Schema(description = "The time the count was last changed", example = "2024-08-09T10:15:30")
+  private LocalDateTime updatedAt;
+}
@@ -38,10 +38,16 @@ public class Documents {
   @Schema(description = "Indicates whether the document is verified", example = "true")
   private boolean verified;
 
+  @Schema(description = "Whether the document expires soon or has expired; not set while it is valid", example = "EXPIRING")
+  private ExpiryStatus expiryStatus;
+
   @Schema(description = "Error message related to notifications", example = "Failed to send notification")
   @JsonIgnore
   private String notificationError;
 
+  @Schema(description = "The version of the document, incremented on every update", example = "3")
+  private Long version;
+
   // Setter for ObjectId, converts to string
   public void setId(ObjectId id) {
     this.id = id.toHexString();
@@ -57,7 +63,9 @@ public class Documents {
         ", fileUrl='" + fileUrl + '\'' +
         ", expiryDate=" + expiryDate +
         ", verified=" + verified +
+        ", expiryStatus=" + expiryStatus +
         ", notificationError='" + notificationError + '\'' +
+        ", version=" + version +
         '}';
   }
 }
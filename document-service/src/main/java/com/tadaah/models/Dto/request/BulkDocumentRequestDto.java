@@ -0,0 +1,15 @@
+package com.tadaah.models.Dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Data;
+
+@Data
+@Schema(description = "A batch of documents to be created in one request")
+public class BulkDocumentRequestDto {
+
+  @Schema(description = "The documents to be created. Each item is validated on its own and reported in the per-item results.")
+  @NotEmpty(message = "At least one document is required")
+  private List<DocumentDto> documents;
+}
@@ -34,5 +34,8 @@ public class DocumentDto {
   @Schema(description = "The expiry date of the document", example = "2024-12-31")
   @NotNull(message = "Expiry date is required")
   private LocalDate expiryDate;
+
+  @Schema(description = "The version the update is based on, required for updates; the update is rejected if the document has changed since", example = "3")
+  private Long version;
 }
 
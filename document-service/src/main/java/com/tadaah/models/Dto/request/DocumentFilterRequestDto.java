@@ -1,7 +1,9 @@
 package com.tadaah.models.Dto.request;
 
+import com.tadaah.models.CountMode;
 import com.tadaah.models.DocumentType;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -25,4 +27,16 @@ public class DocumentFilterRequestDto {
 
   @Schema(description = "The size of each page for pagination", example = "10")
   private int size = 10;
+
+  @Schema(description = "The fields to return besides the id; all fields when not set", example = "[\"name\", \"verified\"]")
+  private List<String> fields;
+
+  @Schema(description = "How the totals are computed; ignored for cursor pages", example = "EXACT")
+  private CountMode countMode = CountMode.EXACT;
+
+  @Schema(description = "Read pages by cursor instead of page number. The first page is requested without a cursor", example = "false")
+  private boolean useCursor;
+
+  @Schema(description = "The nextCursor of the previous page; implies cursor pagination", example = "NjZiNjA0NDJhM2FjNDU2YzJjMGQ4MzYy")
+  private String cursor;
 }
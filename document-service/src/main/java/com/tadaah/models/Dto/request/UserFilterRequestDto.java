@@ -1,6 +1,9 @@
 package com.tadaah.models.Dto.request;
 
+import com.tadaah.models.CountMode;
+import com.tadaah.models.UserSearchMode;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
 import lombok.Data;
 
 @Data
@@ -10,9 +13,24 @@ public class UserFilterRequestDto {
   @Schema(description = "The username of the user", example = "john_doe")
   private String userName;
 
+  @Schema(description = "How the username is matched. PREFIX is served by an index, CONTAINS scans all users", example = "PREFIX")
+  private UserSearchMode searchMode = UserSearchMode.CONTAINS;
+
   @Schema(description = "The page number for pagination", example = "0")
   private int page = 0;
 
   @Schema(description = "The size of each page for pagination", example = "10")
   private int size = 10;
+
+  @Schema(description = "The fields to return besides the userName; all fields when not set", example = "[\"firstName\", \"lastName\"]")
+  private List<String> fields;
+
+  @Schema(description = "How the totals are computed; ignored for cursor pages. Approximate totals are only available without a username filter", example = "EXACT")
+  private CountMode countMode = CountMode.EXACT;
+
+  @Schema(description = "Read pages by cursor instead of page number. The first page is requested without a cursor", example = "false")
+  private boolean useCursor;
+
+  @Schema(description = "The nextCursor of the previous page; implies cursor pagination", example = "am9obl9kb2U")
+  private String cursor;
 }
@@ -0,0 +1,32 @@
+package com.tadaah.models.Dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * Data Transfer Object summarising a bulk document request.
+ */
+@Data
+@Schema(description = "Summary and per-item results of a bulk document request")
+public class BulkDocumentResponseDto {
+
+  @Schema(description = "Number of documents in the request", example = "3")
+  private int total;
+
+  @Schema(description = "Number of documents created", example = "2")
+  private int succeeded;
+
+  @Schema(description = "Number of documents rejected", example = "1")
+  private int failed;
+
+  @Schema(description = "Per-item results in request order")
+  private List<BulkDocumentResultDto> results;
+
+  public BulkDocumentResponseDto(List<BulkDocumentResultDto> results) {
+    this.total = results.size();
+    this.succeeded = (int) results.stream().filter(BulkDocumentResultDto::isSuccess).count();
+    this.failed = this.total - this.succeeded;
+    this.results = results;
+  }
+}
@@ -0,0 +1,34 @@
+package com.tadaah.models.Dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a single item of a bulk document request.
+ */
+@Data
+@AllArgsConstructor
+@Schema(description = "Result of a single document in a bulk request")
+public class BulkDocumentResultDto {
+
+  @Schema(description = "Position of the document in the request", example = "0")
+  private int index;
+
+  @Schema(description = "Indicates whether the document was created", example = "true")
+  private boolean success;
+
+  @Schema(description = "The identifier of the created document", example = "60b6a78d2f2d4a3c0f3aef12")
+  private String id;
+
+  @Schema(description = "The reason the document was rejected", example = "User not found: john_doe")
+  private String error;
+
+  public static BulkDocumentResultDto created(int index, String id) {
+    return new BulkDocumentResultDto(index, true, id, null);
+  }
+
+  public static BulkDocumentResultDto rejected(int index, String error) {
+    return new BulkDocumentResultDto(index, false, null, error);
+  }
+}
@@ -0,0 +1,39 @@
+package com.tadaah.models.Dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tadaah.models.DocumentType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Data Transfer Object with document counts by type, verification status, notification failure
+ * and owner.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Document counts served from incrementally maintained counters")
+public class DocumentStatsDto {
+
+  @Schema(description = "The number of documents", example = "1200")
+  private long total;
+
+  @Schema(description = "The number of documents of each type", example = "{ \"LEGAL_DOCUMENT\": 300, \"OTHER\": 900 }")
+  private Map<DocumentType, Long> byType = new EnumMap<>(DocumentType.class);
+
+  @Schema(description = "The number of verified documents", example = "1000")
+  private long verified;
+
+  @Schema(description = "The number of unverified documents", example = "200")
+  private long unverified;
+
+  @Schema(description = "The number of documents flagged with a notification error", example = "3")
+  private long notificationFailed;
+
+  @Schema(description = "The owner the owner count was requested for", example = "john_doe")
+  private String userName;
+
+  @Schema(description = "The number of documents of the owner, if one was requested", example = "12")
+  private Long userDocuments;
+}
@@ -0,0 +1,37 @@
+package com.tadaah.models.Dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Data Transfer Object comparing the indexes of a collection with the declared ones.
+ */
+@Data
+@Schema(description = "Declared, missing and unused indexes of a collection")
+public class IndexReportDto {
+
+  @Schema(description = "The name of the collection", example = "documents")
+  private String collection;
+
+  @Schema(description = "Names of the indexes declared for the collection", example = "[\"user_type_verified\", \"expiry_date\"]")
+  private List<String> declared = new ArrayList<>();
+
+  @Schema(description = "Declared indexes that do not exist", example = "[\"expiry_date\"]")
+  private List<String> missing = new ArrayList<>();
+
+  @Schema(description = "Declared indexes that exist with different keys or options", example = "[]")
+  private List<String> mismatched = new ArrayList<>();
+
+  @Schema(description = "Existing indexes that are not declared", example = "[\"notification_error\"]")
+  private List<String> undeclared = new ArrayList<>();
+
+  @Schema(description = "Existing indexes that served no operation since the server started", example = "[\"verified\"]")
+  private List<String> unused = new ArrayList<>();
+
+  @Schema(description = "Operations served by each existing index since the server started", example = "{ \"_id_\": 120, \"user_type_verified\": 5400 }")
+  private Map<String, Long> accesses = new LinkedHashMap<>();
+}
@@ -1,7 +1,9 @@
 package com.tadaah.models.Dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import lombok.Data;
 
 import java.util.List;
@@ -9,17 +11,22 @@ import java.util.List;
 /**
  * Data Transfer Object for paginated filtering response.
  *
+ * <p>Pages read by number carry the totals of the filter, unless the request asked for no count or
+ * for an approximate one. Pages read by cursor carry the cursor of the next page instead and leave
+ * the totals out, since counting would cost as much as the skip it avoids.
+ *
  * @param <T> The type of the content being returned in the response.
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Paginated response for filtering results")
 public class PaginatedResponseDto<T> {
 
-  @Schema(description = "Total number of elements available", example = "100")
-  private long totalElements;
+  @Schema(description = "Total number of elements available, omitted for cursor pages", example = "100")
+  private Long totalElements;
 
-  @Schema(description = "Total number of pages", example = "10")
-  private int totalPages;
+  @Schema(description = "Total number of pages, omitted for cursor pages", example = "10")
+  private Integer totalPages;
 
   @Schema(description = "Size of the current page", example = "20")
   private int size;
@@ -36,6 +43,15 @@ public class PaginatedResponseDto<T> {
   @Schema(description = "Indicates if the content list is empty", example = "false")
   private boolean empty;
 
+  @Schema(description = "Indicates if there are more elements after this page", example = "true")
+  private boolean hasNext;
+
+  @Schema(description = "Opaque cursor of the next page, only set for cursor pages that have a next page", example = "NjZiNjA0NDJhM2FjNDU2YzJjMGQ4MzYy")
+  private String nextCursor;
+
+  @Schema(description = "Indicates that the totals are approximate, only set for approximate counts", example = "true")
+  private Boolean totalsApproximate;
+
   public PaginatedResponseDto(Page<T> page) {
     this.totalElements = page.getTotalElements();
     this.totalPages = page.getTotalPages();
@@ -44,5 +60,74 @@ public class PaginatedResponseDto<T> {
     this.first = page.isFirst();
     this.last = page.isLast();
     this.empty = page.isEmpty();
+    this.hasNext = page.hasNext();
+  }
+
+  /**
+   * Creates a page without totals.
+   *
+   * @param slice The page, read without a count.
+   */
+  public PaginatedResponseDto(Slice<T> slice) {
+    this.size = slice.getSize();
+    this.content = slice.getContent();
+    this.first = slice.isFirst();
+    this.last = slice.isLast();
+    this.empty = slice.isEmpty();
+    this.hasNext = slice.hasNext();
+  }
+
+  /**
+   * Creates a page with approximate totals. The totals are exact on the last page, where the page
+   * itself shows them.
+   *
+   * @param slice            The page, read without a count.
+   * @param approximateTotal The approximate number of elements matching the filter.
+   */
+  public PaginatedResponseDto(Slice<T> slice, long approximateTotal) {
+    this(slice);
+    long offset = (long) slice.getNumber() * slice.getSize();
+    long total = slice.hasNext()
+        ? Math.max(approximateTotal, offset + slice.getNumberOfElements() + 1)
+        : offset + slice.getNumberOfElements();
+    this.totalElements = total;
+    this.totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize());
+    this.totalsApproximate = slice.hasNext();
+  }
+
+  /**
+   * Creates a cursor page.
+   *
+   * @param content    The elements of the page.
+   * @param size       The requested page size.
+   * @param first      Whether the page was read without a cursor.
+   * @param nextCursor The cursor of the next page, or null if this is the last page.
+   */
+  public PaginatedResponseDto(List<T> content, int size, boolean first, String nextCursor) {
+    this.size = size;
+    this.content = content;
+    this.first = first;
+    this.last = nextCursor == null;
+    this.empty = content.isEmpty();
+    this.hasNext = nextCursor != null;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Creates a copy of this page with other content, such as the trimmed elements of a projection.
+   *
+   * @param content The content of the copy.
+   * @param <R>     The type of the content of the copy.
+   * @return The copy.
+   */
+  public <R> PaginatedResponseDto<R> withContent(List<R> content) {
+    PaginatedResponseDto<R> copy = new PaginatedResponseDto<>(content, size, first, nextCursor);
+    copy.totalElements = totalElements;
+    copy.totalPages = totalPages;
+    copy.last = last;
+    copy.empty = empty;
+    copy.hasNext = hasNext;
+    copy.totalsApproximate = totalsApproximate;
+    return copy;
   }
 }
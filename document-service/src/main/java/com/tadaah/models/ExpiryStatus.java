@@ -0,0 +1,12 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Expiry states of a document, set by the expiry scanner")
+public enum ExpiryStatus {
+  @Schema(description = "The document expires within the reminder window")
+  EXPIRING,
+
+  @Schema(description = "The expiry date of the document has passed")
+  EXPIRED
+}
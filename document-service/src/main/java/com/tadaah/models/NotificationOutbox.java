@@ -0,0 +1,63 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.Data;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A notification waiting to be delivered to the notification service.
+ * Entries are written right after the document change they describe and drained in batches by
+ * the outbox relay, so document writes never wait on the notification service.
+ */
+@Data
+@Document(collection = "notificationOutbox")
+@Schema(description = "Represents a pending document notification stored in the outbox.")
+public class NotificationOutbox {
+
+  @Id
+  @Schema(description = "The unique identifier of the outbox entry", example = "66b60442a3ac456c2c0d8362")
+  private String id;
+
+  @Schema(description = "The identifier of the document the notification refers to", example = "60b6a78d2f2d4a3c0f3aef12")
+  private String documentId;
+
+  @Schema(description = "The receiver of the notification", example = "john_doe")
+  private String receiver;
+
+  @Schema(description = "The name of the document", example = "john_doe_Passport")
+  private String documentName;
+
+  @Schema(description = "The type of the notification event", example = "CREATE")
+  private NotificationType eventType;
+
+  @Schema(description = "The rendered notification message", example = "john_doe has added a new document named john_doe_Passport.")
+  private String message;
+
+  @Schema(description = "The time the document change happened", example = "2024-08-09T10:15:30")
+  private LocalDateTime timestamp;
+
+  @Schema(description = "The delivery status of the entry", example = "PENDING")
+  private OutboxStatus status;
+
+  @Schema(description = "Number of failed delivery attempts", example = "0")
+  private int attempts;
+
+  @Schema(description = "The error of the last failed delivery attempt")
+  private String lastError;
+
+  @Schema(description = "Earliest time the relay may attempt delivery", example = "2024-08-09T10:15:30")
+  private LocalDateTime nextAttemptAt;
+
+  @Schema(description = "Token of the relay batch currently holding the entry")
+  private String claimToken;
+
+  @Schema(description = "Time until which the entry is claimed by a relay batch", example = "2024-08-09T10:16:30")
+  private LocalDateTime claimedUntil;
+
+  @CreatedDate
+  @Schema(description = "The date and time when the entry was created", example = "2024-08-09T10:15:30")
+  private LocalDateTime createdDate;
+}
@@ -12,7 +12,13 @@ public enum NotificationType {
   UPDATE("{{userName}} has updated the document named {{documentName}}."),
 
   @Schema(description = "Notification for document deletion")
-  DELETE("{{userName}} has deleted the document named {{documentName}}.");
+  DELETE("{{userName}} has deleted the document named {{documentName}}."),
+
+  @Schema(description = "Reminder that a document expires soon")
+  EXPIRING("The document named {{documentName}} of {{userName}} expires soon."),
+
+  @Schema(description = "Notification that a document has expired")
+  EXPIRED("The document named {{documentName}} of {{userName}} has expired.");
 
   private final String messageTemplate;
 
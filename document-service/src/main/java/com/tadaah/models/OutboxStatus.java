@@ -0,0 +1,12 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Delivery states of a notification outbox entry")
+public enum OutboxStatus {
+  @Schema(description = "Waiting to be relayed to the notification service")
+  PENDING,
+
+  @Schema(description = "Delivery attempts exhausted; the document is flagged with a notification error")
+  FAILED
+}
@@ -0,0 +1,27 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A lease that lets one instance at a time run a scheduled job.
+ * The holder extends the lease while it works; once it lapses, any instance may take it over.
+ */
+@Data
+@Document(collection = "schedulerLeases")
+@Schema(description = "Represents the lease of a scheduled job held by one instance.")
+public class SchedulerLease {
+
+  @Id
+  @Schema(description = "The name of the scheduled job", example = "document-expiry-scanner")
+  private String name;
+
+  @Schema(description = "The instance holding the lease", example = "document-service-7d9f:3f2a6c1e")
+  private String owner;
+
+  @Schema(description = "Time until which the lease is held", example = "2024-08-09T10:25:30Z")
+  private Instant leasedUntil;
+}
@@ -0,0 +1,12 @@
+package com.tadaah.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "How a username filter is matched")
+public enum UserSearchMode {
+  @Schema(description = "Usernames containing the input, ignoring case. Scans all users")
+  CONTAINS,
+
+  @Schema(description = "Usernames starting with the input, ignoring case. Answered from the lower-case username index")
+  PREFIX
+}
@@ -1,5 +1,6 @@
 package com.tadaah.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import org.springframework.data.annotation.CreatedDate;
@@ -8,6 +9,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Data
 @Document(collection = "users")
@@ -18,6 +20,10 @@ public class Users {
   @Schema(description = "The unique username for the user", example = "john_doe")
   private String userName;
 
+  @JsonIgnore
+  @Schema(description = "The username in lower case, for case-insensitive prefix search", example = "john_doe")
+  private String userNameLower;
+
   @Schema(description = "The first name of the user", example = "John")
   private String firstName;
 
@@ -32,6 +38,12 @@ public class Users {
   @Schema(description = "The date and time when the user was last modified", example = "2024-08-09T10:15:30")
   private LocalDateTime lastModifiedDate;
 
+  // Setter for the username, keeps the lower-case search key in step
+  public void setUserName(String userName) {
+    this.userName = userName;
+    this.userNameLower = userName != null ? userName.toLowerCase(Locale.ROOT) : null;
+  }
+
   @Override
   public String toString() {
     return "Users{" +
@@ -2,21 +2,30 @@ package com.tadaah.repositories;
 
 import com.tadaah.models.DocumentType;
 import com.tadaah.models.Documents;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface DocumentRepository extends MongoRepository<Documents, String> {
+public interface DocumentRepository extends MongoRepository<Documents, String>,
+    DocumentRepositoryCustom {
 
   List<Documents> findByUserName(String userName);
 
-  List<Documents> findByDocumentTypeAndUserNameAndVerified(DocumentType documentType, String userName, boolean verified);
+  /**
+   * Reads only the version and notification error of a document, which tell whether a cached copy
+   * of it is still current.
+   */
+  @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'notificationError': 1 }")
+  Optional<Documents> findVersionById(String id);
+
+  /**
+   * Reads only the IDs, versions and notification errors of an owner's documents, which tell
+   * whether the cached documents of the owner are still current.
+   */
+  @Query(value = "{ 'userName': ?0 }", fields = "{ 'version': 1, 'notificationError': 1 }")
+  List<Documents> findVersionsByUserName(String userName);
 
-  @Query("{ $and: [ "
-      + "{ $or: [ { 'documentType': ?0 }, { 'userName': ?1 }, { 'verified': ?2 } ] }, "
-      + "{ $expr: { $cond: [ { $eq: [?3, true] }, { $ne: ['$notificationError', null] }, {} ] } } ] }")
-  Page<Documents> findByFilter(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable);
+  List<Documents> findByDocumentTypeAndUserNameAndVerified(DocumentType documentType, String userName, boolean verified);
 }
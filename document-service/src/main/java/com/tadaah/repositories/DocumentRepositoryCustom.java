@@ -0,0 +1,81 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+public interface DocumentRepositoryCustom {
+
+  /**
+   * Atomically applies a partial update to a document and increments its version.
+   *
+   * @param id              The ID of the document to be updated.
+   * @param expectedVersion The version the update is based on; other versions are not updated.
+   * @param precondition    Additional criteria the stored document must match, or null.
+   * @param update          The fields to be changed.
+   * @return The document as it is after the update, or empty if no document matched.
+   */
+  Optional<Documents> updateFields(String id, long expectedVersion, Criteria precondition,
+      Update update);
+
+  /**
+   * Finds documents matching all of the given filters; null filters are ignored.
+   *
+   * @param documentType         The document type, or null.
+   * @param user                 The owner's username, or null.
+   * @param verified             The verification status, or null.
+   * @param isNotificationFailed Whether to only match documents with a notification error.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @param pageable             The pagination information.
+   * @return The requested page of matching documents.
+   */
+  Page<Documents> findByFilter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed, List<String> fields, Pageable pageable);
+
+  /**
+   * Finds documents matching all of the given filters without counting them.
+   *
+   * @param documentType         The document type, or null.
+   * @param user                 The owner's username, or null.
+   * @param verified             The verification status, or null.
+   * @param isNotificationFailed Whether to only match documents with a notification error.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @param pageable             The pagination information.
+   * @return The requested page of matching documents and whether there is a next page.
+   */
+  Slice<Documents> findSliceByFilter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed, List<String> fields, Pageable pageable);
+
+  /**
+   * Counts the documents matching all of the given filters; null filters are ignored.
+   *
+   * @param documentType         The document type, or null.
+   * @param user                 The owner's username, or null.
+   * @param verified             The verification status, or null.
+   * @param isNotificationFailed Whether to only count documents with a notification error.
+   * @return The number of matching documents.
+   */
+  long countByFilter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed);
+
+  /**
+   * Finds documents matching all of the given filters in ID order, starting after the given ID.
+   *
+   * @param documentType         The document type, or null.
+   * @param user                 The owner's username, or null.
+   * @param verified             The verification status, or null.
+   * @param isNotificationFailed Whether to only match documents with a notification error.
+   * @param afterId              The ID to start after, or null to start from the first document.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @param limit                The maximum number of documents to return.
+   * @return The matching documents, sorted by ID.
+   */
+  List<Documents> findByFilterAfter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed, String afterId, List<String> fields, int limit);
+}
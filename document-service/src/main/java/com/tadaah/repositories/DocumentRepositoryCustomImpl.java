@@ -0,0 +1,103 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.utils.DocumentQueryBuilder;
+import com.tadaah.utils.DocumentUpdateUtil;
+import com.tadaah.utils.FieldProjection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Override
+  public Optional<Documents> updateFields(String id, long expectedVersion, Criteria precondition,
+      Update update) {
+    Query query = DocumentUpdateUtil.guardedQuery(id, expectedVersion, precondition);
+    return Optional.ofNullable(mongoTemplate.findAndModify(query, update.inc("version", 1),
+        FindAndModifyOptions.options().returnNew(true), Documents.class));
+  }
+
+  @Override
+  public Page<Documents> findByFilter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed, List<String> fields, Pageable pageable) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(isNotificationFailed)
+        .build();
+
+    Query pageQuery = FieldProjection.apply(Query.of(query).with(pageable), fields, "id");
+    List<Documents> content = mongoTemplate.find(pageQuery, Documents.class);
+    // The count is skipped when the page itself shows the total
+    return PageableExecutionUtils.getPage(content, pageable,
+        () -> mongoTemplate.count(query, Documents.class));
+  }
+
+  @Override
+  public Slice<Documents> findSliceByFilter(DocumentType documentType, String user,
+      Boolean verified, Boolean isNotificationFailed, List<String> fields, Pageable pageable) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(isNotificationFailed)
+        .build()
+        .with(pageable);
+    FieldProjection.apply(query, fields, "id");
+    // One extra document tells whether there is a next page, so no count is needed
+    query.limit(pageable.getPageSize() + 1);
+    List<Documents> content = mongoTemplate.find(query, Documents.class);
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content,
+        pageable, hasNext);
+  }
+
+  @Override
+  public long countByFilter(DocumentType documentType, String user, Boolean verified,
+      Boolean isNotificationFailed) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(isNotificationFailed)
+        .build();
+    // Exact even without filters: the metadata count can be off after an unclean shutdown or
+    // on a sharded cluster, so estimates are left to CountMode.APPROXIMATE
+    return mongoTemplate.count(query, Documents.class);
+  }
+
+  @Override
+  public List<Documents> findByFilterAfter(DocumentType documentType, String user,
+      Boolean verified, Boolean isNotificationFailed, String afterId, List<String> fields,
+      int limit) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(isNotificationFailed)
+        .idAfter(afterId)
+        .build()
+        .with(Sort.by("id"))
+        .limit(limit);
+    FieldProjection.apply(query, fields, "id");
+    // No skip and no count: each page is an index range read after the previous page's last ID
+    return mongoTemplate.find(query, Documents.class);
+  }
+}
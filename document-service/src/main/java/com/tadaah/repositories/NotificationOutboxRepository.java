@@ -0,0 +1,10 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.OutboxStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface NotificationOutboxRepository extends MongoRepository<NotificationOutbox, String> {
+
+  long countByStatus(OutboxStatus status);
+}
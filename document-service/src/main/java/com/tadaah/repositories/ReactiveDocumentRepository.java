@@ -0,0 +1,26 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.Documents;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveDocumentRepository extends ReactiveMongoRepository<Documents, String> {
+
+  Flux<Documents> findByUserNameOrderByIdAsc(String userName);
+
+  /**
+   * Reads only the version and notification error of a document, which tell whether a cached copy
+   * of it is still current.
+   */
+  @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'notificationError': 1 }")
+  Mono<Documents> findVersionById(String id);
+
+  /**
+   * Reads only the IDs, versions and notification errors of an owner's documents, which tell
+   * whether the cached documents of the owner are still current.
+   */
+  @Query(value = "{ 'userName': ?0 }", fields = "{ 'version': 1, 'notificationError': 1 }")
+  Flux<Documents> findVersionsByUserName(String userName);
+}
@@ -0,0 +1,8 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.Users;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<Users, String> {
+
+}
@@ -0,0 +1,60 @@
+package com.tadaah.repositories;
+
+import com.tadaah.models.UserSearchMode;
+import com.tadaah.models.Users;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface UserRepositoryCustom {
+
+  /**
+   * Finds users whose username matches the given input, ignoring case.
+   *
+   * @param username   The username input, or null or empty for all users.
+   * @param searchMode How the input is matched; contains when null.
+   * @param fields     The fields to read besides the username, or null for all fields.
+   * @param pageable   The pagination information.
+   * @return The requested page of matching users.
+   */
+  Page<Users> findByUsername(String username, UserSearchMode searchMode, List<String> fields,
+      Pageable pageable);
+
+  /**
+   * Finds users whose username matches the given input without counting them.
+   *
+   * @param username   The username input, or null or empty for all users.
+   * @param searchMode How the input is matched; contains when null.
+   * @param fields     The fields to read besides the username, or null for all fields.
+   * @param pageable   The pagination information.
+   * @return The requested page of matching users and whether there is a next page.
+   */
+  Slice<Users> findSliceByUsername(String username, UserSearchMode searchMode, List<String> fields,
+      Pageable pageable);
+
+  /**
+   * Finds users whose username matches the given input and sorts after the given one, for cursor
+   * pagination. Usernames are the ID, so pages are read from the ID index without a skip.
+   *
+   * @param username      The username input, or null or empty for all users.
+   * @param searchMode    How the input is matched; contains when null.
+   * @param afterUserName The username to start after, or null to start from the first user.
+   * @param fields        The fields to read besides the username, or null for all fields.
+   * @param limit         The maximum number of users to return.
+   * @return The matching users, sorted by username; a prefix search is sorted by the lower-case
+   *         username, then the username.
+   */
+  List<Users> findByUsernameAfter(String username, UserSearchMode searchMode, String afterUserName,
+      List<String> fields, int limit);
+
+  /**
+   * Finds the usernames starting with the given prefix, ignoring case. The query reads the
+   * lower-case username index only and never touches the user documents.
+   *
+   * @param prefix The prefix to complete.
+   * @param limit  The maximum number of usernames to return.
+   * @return The matching usernames, in case-insensitive order.
+   */
+  List<String> autocomplete(String prefix, int limit);
+}
@@ -0,0 +1,157 @@
+package com.tadaah.repositories;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.tadaah.models.UserSearchMode;
+import com.tadaah.models.Users;
+import com.tadaah.utils.FieldProjection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+  private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Override
+  public Page<Users> findByUsername(String username, UserSearchMode searchMode,
+      List<String> fields, Pageable pageable) {
+    Query query = usernameQuery(username, searchMode, null);
+    Query pageQuery = FieldProjection.apply(Query.of(query).with(pageable), fields, "userName");
+    List<Users> content = mongoTemplate.find(pageQuery, Users.class);
+    return PageableExecutionUtils.getPage(content, pageable,
+        () -> mongoTemplate.count(query, Users.class));
+  }
+
+  @Override
+  public Slice<Users> findSliceByUsername(String username, UserSearchMode searchMode,
+      List<String> fields, Pageable pageable) {
+    Query query = FieldProjection.apply(usernameQuery(username, searchMode, null).with(pageable),
+        fields, "userName");
+    // One extra user tells whether there is a next page, so no count is needed
+    query.limit(pageable.getPageSize() + 1);
+    List<Users> content = mongoTemplate.find(query, Users.class);
+    boolean hasNext = content.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content,
+        pageable, hasNext);
+  }
+
+  @Override
+  public List<Users> findByUsernameAfter(String username, UserSearchMode searchMode,
+      String afterUserName, List<String> fields, int limit) {
+    Query query;
+    if (searchMode == UserSearchMode.PREFIX && username != null && !username.isEmpty()) {
+      // The prefix range is read from the (userNameLower, _id) index, so pages follow its order
+      query = usernameQuery(username, searchMode,
+          afterUserName != null ? afterInLowerCaseOrder(afterUserName) : null)
+          .with(Sort.by("userNameLower", "userName"));
+    } else {
+      query = usernameQuery(username, searchMode,
+          afterUserName != null ? where("userName").gt(afterUserName) : null)
+          .with(Sort.by("userName"));
+    }
+    query.limit(limit);
+    return mongoTemplate.find(FieldProjection.apply(query, fields, "userName"), Users.class);
+  }
+
+  @Override
+  public List<String> autocomplete(String prefix, int limit) {
+    Query query = new Query(prefixCriteria(prefix))
+        .with(Sort.by("userNameLower")).limit(limit);
+    // Only the ID is projected, so the query is covered by the (userNameLower, _id) index
+    query.fields().include("userName");
+    return mongoTemplate.find(query, Users.class).stream().map(Users::getUserName).toList();
+  }
+
+  /**
+   * Builds the query of a username search. The predicates are joined with $and, since a contains
+   * search and the cursor both constrain the username.
+   */
+  private Query usernameQuery(String username, UserSearchMode searchMode, Criteria after) {
+    List<Criteria> criteria = new ArrayList<>();
+    if (username != null && !username.isEmpty()) {
+      criteria.add(searchMode == UserSearchMode.PREFIX ? prefixCriteria(username)
+          : where("userName").regex(escapeRegex(username), "i"));
+    }
+    if (after != null) {
+      criteria.add(after);
+    }
+    return criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria));
+  }
+
+  /**
+   * Matches the users after the given one in (userNameLower, _id) order. The cursor position is
+   * the username's lower-case form followed by the username itself, which breaks ties between
+   * usernames differing only in case. The lower bound keeps the index scan starting at the cursor.
+   */
+  private static Criteria afterInLowerCaseOrder(String afterUserName) {
+    String lower = afterUserName.toLowerCase(Locale.ROOT);
+    return new Criteria().andOperator(
+        where("userNameLower").gte(lower),
+        new Criteria().orOperator(
+            where("userNameLower").gt(lower),
+            where("userName").gt(afterUserName)));
+  }
+
+  /**
+   * Matches usernames starting with the given prefix, ignoring case, as a range on the lower-case
+   * username. Unlike a regex, a range is bounded tightly by the index and needs no escaping.
+   */
+  private static Criteria prefixCriteria(String prefix) {
+    String lower = prefix.toLowerCase(Locale.ROOT);
+    Criteria criteria = where("userNameLower").gte(lower);
+    String upperBound = prefixUpperBound(lower);
+    return upperBound != null ? criteria.lt(upperBound) : criteria;
+  }
+
+  /**
+   * Returns the least string greater than every string starting with the prefix, by incrementing
+   * its last code point. MongoDB compares strings by their UTF-8 bytes, which is code point order,
+   * so appending a character would miss usernames continuing with a supplementary character.
+   * Trailing maximal code points are dropped first; surrogates are skipped, since they cannot be
+   * encoded.
+   *
+   * @param prefix The prefix.
+   * @return The exclusive upper bound, or null if no string is greater than every match.
+   */
+  private static String prefixUpperBound(String prefix) {
+    int end = prefix.length();
+    while (end > 0) {
+      int last = prefix.codePointBefore(end);
+      int start = end - Character.charCount(last);
+      if (last < Character.MAX_CODE_POINT) {
+        int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+        return prefix.substring(0, start) + Character.toString(next);
+      }
+      end = start;
+    }
+    return null;
+  }
+
+  /**
+   * Escapes the regex metacharacters of the input, so it is matched literally.
+   */
+  private static String escapeRegex(String input) {
+    StringBuilder escaped = new StringBuilder(input.length() + 8);
+    for (char c : input.toCharArray()) {
+      if (REGEX_SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+        escaped.append('\\');
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+}
@@ -0,0 +1,176 @@
+package com.tadaah.schedulers;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.models.Documents;
+import com.tadaah.models.ExpiryStatus;
+import com.tadaah.models.NotificationType;
+import com.tadaah.services.NotificationOutboxService;
+import com.tadaah.services.SchedulerLeaseService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that marks documents as expiring or expired and queues reminder notifications.
+ *
+ * <p>Each run reads two {@code expiryDate} windows from the {@code (expiryDate, expiryStatus)}
+ * index: documents that expired before today and are not marked as expired yet, and documents
+ * that expire within the reminder window and are not marked at all. Each batch is queued in the
+ * notification outbox with a single insert, which the outbox relay delivers in batches, and then
+ * marked with a single update. Marked documents leave their window, so every batch reads the head
+ * of the window again and an interrupted run resumes where it stopped.
+ *
+ * <p>Only the instance holding the scanner's lease runs; the lease is extended after each batch,
+ * so a run that stalls for longer than the lease is handed over instead of running twice.
+ */
+@Slf4j
+@Component
+public class DocumentExpiryScanner {
+
+  static final String LEASE_NAME = "document-expiry-scanner";
+
+  private final MongoTemplate mongoTemplate;
+  private final SchedulerLeaseService leaseService;
+  private final NotificationOutboxService notificationOutboxService;
+  private final DocumentCache documentCache;
+  private final DocumentFilterGenerations filterGenerations;
+  private final int reminderDays;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final Duration leaseDuration;
+
+  private final Counter expiringCounter;
+  private final Counter expiredCounter;
+  private final Timer runTimer;
+
+  public DocumentExpiryScanner(MongoTemplate mongoTemplate,
+      SchedulerLeaseService leaseService,
+      NotificationOutboxService notificationOutboxService,
+      DocumentCache documentCache,
+      DocumentFilterGenerations filterGenerations,
+      MeterRegistry meterRegistry,
+      @Value("${documents.expiry.reminder-days:14}") int reminderDays,
+      @Value("${documents.expiry.batch-size:1000}") int batchSize,
+      @Value("${documents.expiry.max-batches-per-run:1000}") int maxBatchesPerRun,
+      @Value("${documents.expiry.lease-ms:600000}") long leaseMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.leaseService = leaseService;
+    this.notificationOutboxService = notificationOutboxService;
+    this.documentCache = documentCache;
+    this.filterGenerations = filterGenerations;
+    this.reminderDays = reminderDays;
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.leaseDuration = Duration.ofMillis(leaseMs);
+
+    this.expiringCounter = Counter.builder("documents.expiry.marked")
+        .description("Documents marked by the expiry scanner")
+        .tag("status", "expiring")
+        .register(meterRegistry);
+    this.expiredCounter = Counter.builder("documents.expiry.marked")
+        .description("Documents marked by the expiry scanner")
+        .tag("status", "expired")
+        .register(meterRegistry);
+    this.runTimer = Timer.builder("documents.expiry.run")
+        .description("Duration of expiry scanner runs")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${documents.expiry.poll-interval-ms:3600000}")
+  public void scan() {
+    if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+      return;
+    }
+    try {
+      runTimer.record(() -> scan(LocalDate.now()));
+    } catch (RuntimeException e) {
+      log.error("Document expiry scanner run failed", e);
+    } finally {
+      leaseService.release(LEASE_NAME);
+    }
+  }
+
+  /**
+   * Runs one scan as of the given day. The caller must hold the scanner's lease.
+   *
+   * @param today The day documents are checked against.
+   * @return The number of marked documents.
+   */
+  public long scan(LocalDate today) {
+    long startNanos = System.nanoTime();
+    long expired = markWindow(
+        where("expiryDate").lt(today).and("expiryStatus").ne(ExpiryStatus.EXPIRED),
+        ExpiryStatus.EXPIRED, NotificationType.EXPIRED, expiredCounter);
+    if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+      return expired;
+    }
+    long expiring = markWindow(
+        where("expiryDate").gte(today).lt(today.plusDays(reminderDays)).and("expiryStatus").is(null),
+        ExpiryStatus.EXPIRING, NotificationType.EXPIRING, expiringCounter);
+
+    long marked = expired + expiring;
+    if (marked > 0) {
+      double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+      log.info("Marked {} documents as expired and {} as expiring ({} documents/s)", expired,
+          expiring, Math.round(marked / seconds));
+    }
+    return marked;
+  }
+
+  /**
+   * Marks the documents of one window in batches and queues their notifications.
+   *
+   * @return The number of marked documents, or fewer if the lease was lost.
+   */
+  private long markWindow(Criteria window, ExpiryStatus status,
+      NotificationType notificationType, Counter counter) {
+    long marked = 0;
+    for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+      // Sorted by the index prefix alone, so the scan stops after one batch instead of sorting
+      Query batchQuery = query(window).with(Sort.by("expiryDate")).limit(batchSize);
+      batchQuery.fields().include("id", "name", "userName", "documentType", "expiryDate");
+      List<Documents> batch = mongoTemplate.find(batchQuery, Documents.class);
+      if (batch.isEmpty()) {
+        break;
+      }
+
+      // Queue first: a run that stops between the two steps repeats a reminder rather than lose it
+      notificationOutboxService.enqueueAll(batch, notificationType);
+      List<String> ids = batch.stream().map(Documents::getId).toList();
+      mongoTemplate.updateMulti(query(window).addCriteria(where("id").in(ids)),
+          // The status is part of the representation, so the version moves on like on any update
+          Update.update("expiryStatus", status).inc("version", 1), Documents.class);
+
+      filterGenerations.documentsChanged(batch);
+      batch.stream().map(Documents::getUserName).distinct().forEach(documentCache::invalidateUser);
+      counter.increment(batch.size());
+      marked += batch.size();
+
+      if (batch.size() < batchSize) {
+        break;
+      }
+      if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+        log.warn("Document expiry scanner lost its lease after marking {} documents as {}", marked,
+            status);
+        break;
+      }
+    }
+    return marked;
+  }
+}
@@ -0,0 +1,133 @@
+package com.tadaah.schedulers;
+
+import com.mongodb.client.MongoCollection;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.models.Documents;
+import com.tadaah.services.SchedulerLeaseService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background jobs that keep the document statistics in step with the documents collection.
+ *
+ * <p>Every instance checkpoints its pending changes frequently. Far less often, the instance
+ * holding the reconciler's lease recounts all statistics with two {@code $group} aggregations and
+ * replaces the checkpointed counts, which corrects changes the counters did not see. Changes other
+ * instances checkpoint while the aggregation runs may be counted twice until the next
+ * reconciliation.
+ */
+@Slf4j
+@Component
+public class DocumentStatsReconciler {
+
+  static final String LEASE_NAME = "document-stats-reconciler";
+
+  private final MongoTemplate mongoTemplate;
+  private final DocumentStatistics documentStatistics;
+  private final SchedulerLeaseService leaseService;
+  private final Duration leaseDuration;
+
+  public DocumentStatsReconciler(MongoTemplate mongoTemplate,
+      DocumentStatistics documentStatistics,
+      SchedulerLeaseService leaseService,
+      @Value("${documents.stats.lease-ms:600000}") long leaseMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.documentStatistics = documentStatistics;
+    this.leaseService = leaseService;
+    this.leaseDuration = Duration.ofMillis(leaseMs);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    try {
+      documentStatistics.reload();
+    } catch (RuntimeException e) {
+      log.error("Failed to load document statistics: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${documents.stats.checkpoint-interval-ms:5000}")
+  public void checkpoint() {
+    try {
+      documentStatistics.checkpoint();
+    } catch (RuntimeException e) {
+      log.error("Document statistics checkpoint failed", e);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${documents.stats.reconcile-interval-ms:3600000}",
+      initialDelayString = "${documents.stats.reconcile-initial-delay-ms:60000}")
+  public void reconcile() {
+    if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+      return;
+    }
+    try {
+      // Changes counted by the aggregation must not be added again by a later checkpoint
+      documentStatistics.checkpoint();
+      LocalDateTime countedAt = LocalDateTime.now();
+      Map<String, Long> counts = count();
+      documentStatistics.reconcile(counts, countedAt);
+      log.info("Reconciled {} document statistics", counts.size());
+    } catch (RuntimeException e) {
+      log.error("Document statistics reconciliation failed", e);
+    } finally {
+      leaseService.release(LEASE_NAME);
+    }
+  }
+
+  /**
+   * Counts every statistic: the global ones by type, verification status and notification failure
+   * in one group, and the owners in another, read in owner order from the owner index.
+   */
+  Map<String, Long> count() {
+    MongoCollection<Document> documents = mongoTemplate.getCollection(
+        mongoTemplate.getCollectionName(Documents.class));
+    Map<String, Long> counts = new HashMap<>();
+
+    Document failed = new Document("$ne", List.of(
+        new Document("$ifNull", List.of("$notificationError", null)), null));
+    documents.aggregate(List.of(new Document("$group", new Document("_id",
+                new Document("documentType", "$documentType")
+                    .append("verified", "$verified")
+                    .append("notificationFailed", failed))
+                .append("count", new Document("$sum", 1)))))
+        .allowDiskUse(true)
+        .forEach(group -> {
+          Document id = group.get("_id", Document.class);
+          long count = group.get("count", Number.class).longValue();
+          counts.merge(DocumentStatistics.TOTAL, count, Long::sum);
+          if (id.get("documentType") != null) {
+            counts.merge(DocumentStatistics.key(DocumentStatistics.TYPE, id.get("documentType")),
+                count, Long::sum);
+          }
+          counts.merge(DocumentStatistics.key(DocumentStatistics.VERIFIED,
+              Boolean.TRUE.equals(id.get("verified"))), count, Long::sum);
+          counts.merge(DocumentStatistics.key(DocumentStatistics.NOTIFICATION_FAILED,
+              id.get("notificationFailed")), count, Long::sum);
+        });
+
+    documents.aggregate(List.of(
+            new Document("$sort", new Document("userName", 1)),
+            new Document("$group", new Document("_id", "$userName")
+                .append("count", new Document("$sum", 1)))))
+        .allowDiskUse(true)
+        .forEach(group -> {
+          if (group.get("_id") != null) {
+            counts.put(DocumentStatistics.key(DocumentStatistics.USER, group.get("_id")),
+                group.get("count", Number.class).longValue());
+          }
+        });
+    return counts;
+  }
+}
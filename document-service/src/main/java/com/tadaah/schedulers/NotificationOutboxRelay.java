@@ -0,0 +1,40 @@
+package com.tadaah.schedulers;
+
+import com.tadaah.services.NotificationOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background relay that drains the notification outbox to the notification service.
+ * Each run keeps claiming batches until the outbox has no more due entries or the per-run batch
+ * limit is reached, so a backlog built up during an outage drains quickly.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxRelay {
+
+  @Autowired
+  private NotificationOutboxService notificationOutboxService;
+
+  @Value("${notification.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${notification.outbox.max-batches-per-run:50}")
+  private int maxBatchesPerRun;
+
+  @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+  public void relay() {
+    try {
+      for (int batches = 0; batches < maxBatchesPerRun; batches++) {
+        if (notificationOutboxService.relayPending() < batchSize) {
+          return;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Notification outbox relay run failed", e);
+    }
+  }
+}
@@ -0,0 +1,296 @@
+package com.tadaah.schedulers;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.clients.NotificationClient;
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.OutboxStatus;
+import com.tadaah.services.SchedulerLeaseService;
+import com.tadaah.utils.NotificationUtil;
+import com.tadaah.utils.NotificationUtil.NotificationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that re-sends notifications for documents flagged with a notification error.
+ *
+ * <p>Flagged documents are read in id order, one batch at a time. Documents that still have a
+ * pending outbox entry are left to the outbox relay. The rest are re-sent in chunks, with a bounded
+ * number of chunks in flight, using the event type of their dead-lettered outbox entry (UPDATE if
+ * there is none). Delivered documents have their error cleared and their dead-lettered entries
+ * removed. When a run sees failures, the next runs back off exponentially.
+ *
+ * <p>Only the instance holding the reconciler's lease runs, so replicas do not re-send the same
+ * notifications; the lease is extended after each batch and released at the end of the run.
+ */
+@Slf4j
+@Component
+public class NotificationReconciler {
+
+  static final String LEASE_NAME = "notification-reconciler";
+
+  private final MongoTemplate mongoTemplate;
+  private final NotificationClient notificationClient;
+  private final SchedulerLeaseService leaseService;
+  private final DocumentFilterGenerations filterGenerations;
+  private final DocumentStatistics documentStatistics;
+  private final int batchSize;
+  private final int chunkSize;
+  private final int maxBatchesPerRun;
+  private final long baseBackoffMs;
+  private final long maxBackoffMs;
+  private final Duration leaseDuration;
+  private final ExecutorService executor;
+
+  private final Counter resentCounter;
+  private final Counter failedCounter;
+  private final Timer runTimer;
+  private final AtomicLong backlog = new AtomicLong();
+
+  private int consecutiveFailedRuns;
+  private long nextRunAt;
+
+  public NotificationReconciler(MongoTemplate mongoTemplate,
+      NotificationClient notificationClient,
+      SchedulerLeaseService leaseService,
+      DocumentFilterGenerations filterGenerations,
+      DocumentStatistics documentStatistics,
+      MeterRegistry meterRegistry,
+      @Value("${notification.reconciler.batch-size:500}") int batchSize,
+      @Value("${notification.reconciler.chunk-size:100}") int chunkSize,
+      @Value("${notification.reconciler.parallelism:4}") int parallelism,
+      @Value("${notification.reconciler.max-batches-per-run:20}") int maxBatchesPerRun,
+      @Value("${notification.reconciler.base-backoff-ms:30000}") long baseBackoffMs,
+      @Value("${notification.reconciler.max-backoff-ms:600000}") long maxBackoffMs,
+      @Value("${notification.reconciler.lease-ms:300000}") long leaseMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.notificationClient = notificationClient;
+    this.leaseService = leaseService;
+    this.filterGenerations = filterGenerations;
+    this.documentStatistics = documentStatistics;
+    this.batchSize = batchSize;
+    this.chunkSize = chunkSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.baseBackoffMs = baseBackoffMs;
+    this.maxBackoffMs = maxBackoffMs;
+    this.leaseDuration = Duration.ofMillis(leaseMs);
+    this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "notification-reconciler");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    this.resentCounter = Counter.builder("notification.reconciler.documents")
+        .description("Flagged documents processed by the notification reconciler")
+        .tag("result", "resent")
+        .register(meterRegistry);
+    this.failedCounter = Counter.builder("notification.reconciler.documents")
+        .description("Flagged documents processed by the notification reconciler")
+        .tag("result", "failed")
+        .register(meterRegistry);
+    this.runTimer = Timer.builder("notification.reconciler.run")
+        .description("Duration of notification reconciler runs")
+        .register(meterRegistry);
+    Gauge.builder("notification.reconciler.backlog", backlog, AtomicLong::get)
+        .description("Documents flagged with a notification error at the start of the last run")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${notification.reconciler.poll-interval-ms:30000}")
+  public void reconcile() {
+    if (System.currentTimeMillis() < nextRunAt || !notificationClient.isCallPermitted()) {
+      return;
+    }
+    if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+      return;
+    }
+    try {
+      runTimer.record(this::runOnce);
+    } finally {
+      leaseService.release(LEASE_NAME);
+    }
+  }
+
+  private void runOnce() {
+    int resent = 0;
+    int failed = 0;
+    try {
+      backlog.set(mongoTemplate.count(query(where("notificationError").exists(true).ne(null)),
+          Documents.class));
+
+      String lastId = null;
+      for (int batches = 0; batches < maxBatchesPerRun && failed == 0; batches++) {
+        List<Documents> batch = nextBatch(lastId);
+        if (batch.isEmpty()) {
+          break;
+        }
+        lastId = batch.get(batch.size() - 1).getId();
+
+        int[] result = reconcileBatch(batch);
+        resent += result[0];
+        failed += result[1];
+        if (batch.size() < batchSize) {
+          break;
+        }
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+          log.warn("Notification reconciler lost its lease after re-sending {} notifications", resent);
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      log.error("Notification reconciler run failed", e);
+      failed++;
+    }
+
+    if (resent > 0) {
+      filterGenerations.notificationErrorsChanged();
+      log.info("Reconciled notifications for {} documents, {} still failing", resent, failed);
+    }
+    scheduleNextRun(failed > 0);
+  }
+
+  /**
+   * Reads the next batch of flagged documents after the given id.
+   */
+  private List<Documents> nextBatch(String lastId) {
+    Query batchQuery = query(where("notificationError").exists(true).ne(null));
+    if (lastId != null) {
+      batchQuery.addCriteria(where("id").gt(lastId));
+    }
+    batchQuery.with(Sort.by("id")).limit(batchSize);
+    batchQuery.fields().include("id", "name", "userName", "notificationError");
+    return mongoTemplate.find(batchQuery, Documents.class);
+  }
+
+  /**
+   * Re-sends the notifications of one batch and clears the error of the delivered documents.
+   *
+   * @return The number of resent and failed documents.
+   */
+  private int[] reconcileBatch(List<Documents> batch) {
+    List<String> documentIds = batch.stream().map(Documents::getId).toList();
+    List<NotificationOutbox> outboxEntries = mongoTemplate.find(
+        query(where("documentId").in(documentIds)), NotificationOutbox.class);
+
+    // Documents with a pending outbox entry are still being retried by the outbox relay
+    Set<String> pending = outboxEntries.stream()
+        .filter(entry -> entry.getStatus() == OutboxStatus.PENDING)
+        .map(NotificationOutbox::getDocumentId)
+        .collect(Collectors.toSet());
+    Map<String, NotificationType> failedEventTypes = outboxEntries.stream()
+        .filter(entry -> entry.getStatus() == OutboxStatus.FAILED)
+        .sorted(Comparator.comparing(NotificationOutbox::getTimestamp))
+        .collect(Collectors.toMap(NotificationOutbox::getDocumentId,
+            NotificationOutbox::getEventType, (older, newer) -> newer));
+
+    List<Documents> toResend = batch.stream()
+        .filter(document -> !pending.contains(document.getId()))
+        .toList();
+
+    List<CompletableFuture<List<Documents>>> sends = new ArrayList<>();
+    for (int from = 0; from < toResend.size(); from += chunkSize) {
+      List<Documents> chunk = toResend.subList(from, Math.min(from + chunkSize,
+          toResend.size()));
+      sends.add(CompletableFuture.supplyAsync(() -> send(chunk, failedEventTypes), executor));
+    }
+
+    List<Documents> delivered = new ArrayList<>();
+    sends.forEach(send -> delivered.addAll(send.join()));
+    clearErrors(delivered);
+
+    int failed = toResend.size() - delivered.size();
+    resentCounter.increment(delivered.size());
+    failedCounter.increment(failed);
+    return new int[]{delivered.size(), failed};
+  }
+
+  /**
+   * Sends one chunk of notifications.
+   *
+   * @return The documents of the chunk if it was delivered, otherwise an empty list.
+   */
+  private List<Documents> send(List<Documents> chunk,
+      Map<String, NotificationType> failedEventTypes) {
+    List<NotificationRequest> requests = chunk.stream()
+        .map(document -> NotificationUtil.buildNotificationRequest(document,
+            failedEventTypes.getOrDefault(document.getId(), NotificationType.UPDATE)))
+        .toList();
+    try {
+      notificationClient.sendBatch(requests);
+      return chunk;
+    } catch (NotificationServiceException e) {
+      log.warn("Failed to re-send {} notifications: {}", chunk.size(), e.getMessage());
+      return List.of();
+    }
+  }
+
+  /**
+   * Clears the notification error of delivered documents, unless a newer failure replaced it, and
+   * removes their dead-lettered outbox entries.
+   */
+  private void clearErrors(List<Documents> delivered) {
+    if (delivered.isEmpty()) {
+      return;
+    }
+    BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+        Documents.class);
+    for (Documents document : delivered) {
+      updates.updateOne(query(where("id").is(document.getId())
+              .and("notificationError").is(document.getNotificationError())),
+          new Update().unset("notificationError"));
+    }
+    documentStatistics.notificationErrorsCleared(updates.execute().getModifiedCount());
+
+    List<String> documentIds = delivered.stream().map(Documents::getId).toList();
+    mongoTemplate.remove(query(where("documentId").in(documentIds)
+        .and("status").is(OutboxStatus.FAILED)), NotificationOutbox.class);
+  }
+
+  private void scheduleNextRun(boolean failed) {
+    if (!failed) {
+      consecutiveFailedRuns = 0;
+      nextRunAt = 0;
+      return;
+    }
+    consecutiveFailedRuns++;
+    long delayMs = Math.min(baseBackoffMs << Math.min(consecutiveFailedRuns - 1, 20),
+        maxBackoffMs);
+    nextRunAt = System.currentTimeMillis() + delayMs;
+    log.warn("Notification reconciler backing off for {} ms after {} failed runs", delayMs,
+        consecutiveFailedRuns);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
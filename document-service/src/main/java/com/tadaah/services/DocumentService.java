@@ -1,14 +1,28 @@
 package com.tadaah.services;
 
+import com.tadaah.models.CountMode;
 import com.tadaah.models.DocumentType;
 import com.tadaah.models.Documents;
 import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.response.BulkDocumentResponseDto;
+import com.tadaah.models.Dto.response.DocumentStatsDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 
 public interface DocumentService {
   Documents createDocument(DocumentDto documentDto);
+  BulkDocumentResponseDto createDocuments(List<DocumentDto> documentDtos);
   Documents updateDocument(String id, DocumentDto documentDto);
   void deleteDocument(String id);
+  Documents getDocument(String id);
+  List<Documents> getDocumentsByUser(String userName);
   PaginatedResponseDto<Documents> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable);
+  PaginatedResponseDto<Documents> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable, CountMode countMode, List<String> fields);
+  long countDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed);
+  DocumentStatsDto getDocumentStats(String user);
+  long exportDocuments(DocumentType documentType, String user, Boolean verified, OutputStream out) throws IOException;
+  PaginatedResponseDto<Documents> getDocumentsByCursor(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, String cursor, int size, List<String> fields);
 }
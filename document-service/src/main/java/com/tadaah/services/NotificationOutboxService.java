@@ -0,0 +1,11 @@
+package com.tadaah.services;
+
+import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationType;
+import java.util.List;
+
+public interface NotificationOutboxService {
+  void enqueue(Documents document, NotificationType notificationType);
+  void enqueueAll(List<Documents> documents, NotificationType notificationType);
+  int relayPending();
+}
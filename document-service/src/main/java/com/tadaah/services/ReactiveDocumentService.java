@@ -0,0 +1,21 @@
+package com.tadaah.services;
+
+import com.tadaah.models.CountMode;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveDocumentService {
+  Mono<Documents> createDocument(DocumentDto documentDto);
+  Mono<Documents> updateDocument(String id, DocumentDto documentDto);
+  Mono<Void> deleteDocument(String id);
+  Mono<Documents> getDocument(String id);
+  Flux<Documents> getDocumentsByUser(String userName);
+  Mono<PaginatedResponseDto<Documents>> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable, CountMode countMode, List<String> fields);
+  Mono<PaginatedResponseDto<Documents>> getDocumentsByCursor(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, String cursor, int size, List<String> fields);
+}
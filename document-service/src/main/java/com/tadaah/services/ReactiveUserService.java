@@ -0,0 +1,10 @@
+package com.tadaah.services;
+
+import com.tadaah.models.Dto.request.UserDto;
+import com.tadaah.models.Users;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+  Mono<Users> createUser(UserDto user);
+  Mono<Void> deleteUser(String username);
+}
@@ -0,0 +1,8 @@
+package com.tadaah.services;
+
+import java.time.Duration;
+
+public interface SchedulerLeaseService {
+  boolean tryAcquire(String name, Duration duration);
+  void release(String name);
+}
@@ -1,12 +1,18 @@
 package com.tadaah.services;
 
+import com.tadaah.models.CountMode;
 import com.tadaah.models.Dto.request.UserDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import com.tadaah.models.UserSearchMode;
 import com.tadaah.models.Users;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 
 public interface UserService {
   Users createUser(UserDto user);
   void deleteUser(String username);
   PaginatedResponseDto<Users> getAllUsers(String username, Pageable pageable);
+  PaginatedResponseDto<Users> getAllUsers(String username, UserSearchMode searchMode, Pageable pageable, CountMode countMode, List<String> fields);
+  PaginatedResponseDto<Users> getUsersByCursor(String username, UserSearchMode searchMode, String cursor, int size, List<String> fields);
+  List<String> autocompleteUsers(String prefix, int limit);
 }
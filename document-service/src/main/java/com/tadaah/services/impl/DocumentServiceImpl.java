@@ -1,31 +1,66 @@
 package com.tadaah.services.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.tadaah.cache.CacheWeight;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentCountCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.cache.UserLookupCache;
 import com.tadaah.exceptions.DocumentServiceException;
-import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.models.CountMode;
 import com.tadaah.models.DocumentType;
 import com.tadaah.models.Documents;
 import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.response.BulkDocumentResponseDto;
+import com.tadaah.models.Dto.response.DocumentStatsDto;
+import com.tadaah.models.Dto.response.BulkDocumentResultDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
 import com.tadaah.models.NotificationType;
+import com.tadaah.models.Users;
 import com.tadaah.repositories.DocumentRepository;
-import com.tadaah.repositories.UserRepository;
 import com.tadaah.services.DocumentService;
+import com.tadaah.services.NotificationOutboxService;
+import com.tadaah.utils.CursorUtil;
+import com.tadaah.utils.DocumentQueryBuilder;
+import com.tadaah.utils.DocumentUpdateUtil;
 import com.tadaah.utils.DocumentValidationUtil;
+import com.tadaah.utils.FieldProjection;
 import com.tadaah.utils.GenericUtils;
-import com.tadaah.utils.NotificationUtil;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 @Slf4j
 @Service
@@ -36,16 +71,43 @@ public class DocumentServiceImpl implements DocumentService {
   private DocumentRepository documentRepository;
 
   @Autowired
-  private UserRepository userRepository;
+  private UserLookupCache userLookupCache;
 
   @Autowired
-  private RestTemplate restTemplate;
+  private NotificationOutboxService notificationOutboxService;
 
   @Autowired
   private CacheManager cacheManager;
 
-  @Value("${notification.service.url}")
-  private String notificationServiceUrl;
+  @Autowired
+  private DocumentFilterGenerations filterGenerations;
+
+  @Autowired
+  private DocumentCache documentCache;
+
+  @Autowired
+  private DocumentCountCache documentCountCache;
+
+  @Autowired
+  private DocumentStatistics documentStatistics;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private Validator validator;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${documents.bulk.max-batch-size:10000}")
+  private int maxBulkSize;
+
+  @Value("${documents.export.cursor-batch-size:500}")
+  private int exportBatchSize;
+
+  @Value("${documents.export.buffer-size:65536}")
+  private int exportBufferSize;
 
   /**
    * Creates a new document.
@@ -55,34 +117,25 @@ public class DocumentServiceImpl implements DocumentService {
    * @throws DocumentServiceException if validation or unexpected errors occur during creation.
    */
   @Override
-  @CacheEvict(value = "filteredDocumentsCache", allEntries = true)
   public Documents createDocument(DocumentDto documentDto) {
     try {
-      // Validate the document using custom validation utility
-      DocumentValidationUtil.validateDocument(documentDto, userRepository);
+      // Validate and verify the document based on business rules; the owner lookup is cached
+      boolean isVerified = DocumentValidationUtil.verifyDocument(documentDto, userLookupCache);
 
       // Convert DocumentDto to Documents entity using a generic utility method
       Documents document = new Documents();
       GenericUtils.mergeObjects(document, documentDto);
-
-      // Verify the document based on business rules
-      document.setVerified(DocumentValidationUtil.verifyDocument(documentDto, userRepository));
+      document.setVerified(isVerified);
+      document.setVersion(0L);
       Documents savedDocument = documentRepository.save(document);
+      filterGenerations.documentChanged(null, savedDocument);
+      documentStatistics.documentChanged(null, savedDocument);
 
-      // Manually cache the document under multiple keys
-      cacheDocument(savedDocument);
+      // Cache the document by id, name and owner
+      documentCache.put(savedDocument);
 
-      // Send a notification regarding the creation of the document
-      try {
-        NotificationUtil.sendNotification(restTemplate, notificationServiceUrl, savedDocument,
-            NotificationType.CREATE);
-      } catch (NotificationServiceException e) {
-        // If notification fails, log the error
-        log.error("Notification error while creating document for user: {}",
-            savedDocument.getUserName(), e);
-        savedDocument.setNotificationError("Notification failed: " + e.getMessage());
-        documentRepository.save(savedDocument);  // Update the document with the notification error
-      }
+      // Queue a notification regarding the creation of the document
+      queueNotification(savedDocument, NotificationType.CREATE);
 
       return savedDocument;
 
@@ -101,77 +154,207 @@ public class DocumentServiceImpl implements DocumentService {
   }
 
   /**
-   * Updates an existing document.
+   * Creates a batch of documents.
    *
-   * @param id          The ID of the document to be updated.
-   * @param documentDto The document details to be updated.
-   * @return The updated document with verification and possible notification error.
-   * @throws DocumentServiceException if validation or unexpected errors occur during updating.
+   * <p>All referenced owners are fetched with a single query, every item is validated on its own,
+   * and the valid documents are written with one unordered bulk insert. Their notifications are
+   * queued with one outbox insert and only the filter pages of the affected owners and types are
+   * invalidated.
+   *
+   * @param documentDtos The documents to be created.
+   * @return The per-item results in request order.
+   * @throws DocumentServiceException if the batch is too large or unexpected errors occur.
    */
   @Override
-  @CacheEvict(value = "filteredDocumentsCache", allEntries = true)
-  // Clears filtered cache since filtering criteria may change
-  public Documents updateDocument(String id, DocumentDto documentDto) {
-    try {
-      // Retrieve existing document by ID or throw an exception if not found
-      Documents existingDocument = documentRepository.findById(id)
-          .orElseThrow(() -> new DocumentServiceException("Document not found with ID: " + id,
-              HttpStatus.NOT_FOUND));
-
-      // Create a new DocumentDto that merges data from both the existing document and the incoming DTO
-      DocumentDto verificationDto = new DocumentDto();
-
-      // Manually copy fields from existingDocument to verificationDto
-      verificationDto.setName(existingDocument.getName());
-      verificationDto.setDocumentType(existingDocument.getDocumentType());
-      verificationDto.setUserName(existingDocument.getUserName());
-      verificationDto.setFileUrl(existingDocument.getFileUrl());
-      verificationDto.setExpiryDate(existingDocument.getExpiryDate());
+  public BulkDocumentResponseDto createDocuments(List<DocumentDto> documentDtos) {
+    if (documentDtos.size() > maxBulkSize) {
+      throw new DocumentServiceException(
+          "Bulk request exceeds the maximum of " + maxBulkSize + " documents",
+          HttpStatus.BAD_REQUEST);
+    }
 
-      // Overlay the incoming documentDto fields (only non-null values will overwrite)
-      if (documentDto.getName() != null) {
-        verificationDto.setName(documentDto.getName());
+    try {
+      // Prefetch all referenced owners; cache misses are resolved in one round trip
+      Set<String> userNames = documentDtos.stream()
+          .filter(Objects::nonNull)
+          .map(DocumentDto::getUserName)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toSet());
+      Map<String, Users> users = userLookupCache.findUsers(userNames);
+
+      BulkDocumentResultDto[] results = new BulkDocumentResultDto[documentDtos.size()];
+      List<Documents> documents = new ArrayList<>();
+      List<Integer> documentIndexes = new ArrayList<>();
+
+      for (int i = 0; i < documentDtos.size(); i++) {
+        DocumentDto documentDto = documentDtos.get(i);
+        String violation = validateBulkItem(documentDto, users);
+        if (violation != null) {
+          results[i] = BulkDocumentResultDto.rejected(i, violation);
+          continue;
+        }
+
+        Documents document = new Documents();
+        GenericUtils.mergeObjects(document, documentDto);
+        document.setId(new ObjectId());  // Assign ids up front so failed inserts can be reported
+        document.setVerified(true);
+        document.setVersion(0L);
+        documents.add(document);
+        documentIndexes.add(i);
       }
-      if (documentDto.getDocumentType() != null) {
-        verificationDto.setDocumentType(documentDto.getDocumentType());
+
+      List<Documents> insertedDocuments = insertUnordered(documents, documentIndexes, results);
+      filterGenerations.documentsCreated(insertedDocuments);
+      documentStatistics.documentsCreated(insertedDocuments);
+      insertedDocuments.stream().map(Documents::getUserName).distinct()
+          .forEach(documentCache::invalidateUser);  // Bulk created documents are not cached
+      for (int i = 0; i < documents.size(); i++) {
+        int index = documentIndexes.get(i);
+        if (results[index] == null) {
+          results[index] = BulkDocumentResultDto.created(index, documents.get(i).getId());
+        }
       }
-      if (documentDto.getUserName() != null) {
-        verificationDto.setUserName(documentDto.getUserName());
+
+      // Queue all creation notifications with a single outbox insert
+      try {
+        notificationOutboxService.enqueueAll(insertedDocuments, NotificationType.CREATE);
+      } catch (RuntimeException e) {
+        log.error("Failed to queue notifications for {} bulk created documents",
+            insertedDocuments.size(), e);
+        flagNotificationError(insertedDocuments, e);
       }
-      if (documentDto.getFileUrl() != null) {
-        verificationDto.setFileUrl(documentDto.getFileUrl());
+
+      log.info("Bulk created {} of {} documents", insertedDocuments.size(), documentDtos.size());
+      return new BulkDocumentResponseDto(Arrays.asList(results));
+
+    } catch (DocumentServiceException e) {
+      log.error("Error while bulk creating {} documents", documentDtos.size(), e);
+      throw e;
+    } catch (RuntimeException e) {
+      log.error("Unexpected error while bulk creating {} documents", documentDtos.size(), e);
+      throw new DocumentServiceException("Unexpected error while bulk creating documents",
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Applies the field constraints and business rules to one item of a bulk request.
+   *
+   * @return The violation message, or null if the item is valid.
+   */
+  private String validateBulkItem(DocumentDto documentDto, Map<String, Users> users) {
+    if (documentDto == null) {
+      return "Document is required";
+    }
+    Set<ConstraintViolation<DocumentDto>> violations = validator.validate(documentDto);
+    if (!violations.isEmpty()) {
+      return violations.stream()
+          .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+          .sorted()
+          .collect(Collectors.joining(", "));
+    }
+    try {
+      DocumentValidationUtil.validateDocument(documentDto, users.get(documentDto.getUserName()));
+      return null;
+    } catch (DocumentServiceException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Inserts the documents with one unordered bulk write. Items rejected by MongoDB are recorded in
+   * the results and left out of the returned list.
+   */
+  private List<Documents> insertUnordered(List<Documents> documents, List<Integer> documentIndexes,
+      BulkDocumentResultDto[] results) {
+    if (documents.isEmpty()) {
+      return documents;
+    }
+    try {
+      mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Documents.class)
+          .insert(documents)
+          .execute();
+      return documents;
+    } catch (BulkOperationException e) {
+      Set<Integer> failedPositions = new HashSet<>();
+      for (BulkWriteError error : e.getErrors()) {
+        int index = documentIndexes.get(error.getIndex());
+        results[index] = BulkDocumentResultDto.rejected(index, error.getMessage());
+        failedPositions.add(error.getIndex());
       }
-      if (documentDto.getExpiryDate() != null) {
-        verificationDto.setExpiryDate(documentDto.getExpiryDate());
+      List<Documents> insertedDocuments = new ArrayList<>();
+      for (int i = 0; i < documents.size(); i++) {
+        if (!failedPositions.contains(i)) {
+          insertedDocuments.add(documents.get(i));
+        }
       }
+      return insertedDocuments;
+    }
+  }
 
-      // Verify the combined data using the verification DTO
-      boolean isVerified = DocumentValidationUtil.verifyDocument(verificationDto, userRepository);
-      if (!isVerified) {
-        throw new DocumentServiceException("Document verification failed", HttpStatus.BAD_REQUEST);
+  /**
+   * Flags documents whose notifications could not be queued with a single update.
+   */
+  private void flagNotificationError(List<Documents> documents, RuntimeException e) {
+    List<String> ids = documents.stream().map(Documents::getId).toList();
+    mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(ids)),
+        Update.update("notificationError", "Notification failed: " + e.getMessage()),
+        Documents.class);
+    filterGenerations.notificationErrorsChanged();
+    documentStatistics.notificationErrorsFlagged(documents);
+  }
+
+  /**
+   * Updates an existing document.
+   *
+   * <p>The update must carry the version it is based on. Only the non-null fields are written,
+   * with a single findAndModify that only applies to that version of the document and increments
+   * it, so concurrent writers cannot overwrite each other's changes. The updated document is the
+   * one MongoDB returns; the document read at the expected version is its previous state, which
+   * every write except notification errors moves to a new version.
+   *
+   * @param id          The ID of the document to be updated.
+   * @param documentDto The document details to be updated.
+   * @return The updated document with verification and possible notification error.
+   * @throws DocumentServiceException if the version is missing (428), the document is not found,
+   *                                  the version does not match (409), or validation or
+   *                                  unexpected errors occur during updating.
+   */
+  @Override
+  public Documents updateDocument(String id, DocumentDto documentDto) {
+    try {
+      Long expectedVersion = documentDto.getVersion();
+      if (expectedVersion == null) {
+        throw new DocumentServiceException("The version the update is based on is required.",
+            HttpStatus.PRECONDITION_REQUIRED);
       }
 
-      // Merge fields from the validated documentDto into the existing document
-      GenericUtils.mergeObjects(existingDocument, verificationDto);
+      // Validate the changed fields; rules involving unchanged stored fields become preconditions
+      DocumentValidationUtil.validateDocumentChanges(documentDto, userLookupCache);
 
-      // Save the updated document
-      Documents updatedDocument = documentRepository.save(existingDocument);
+      // The previous state is needed to invalidate the filter pages and statistics it counted in
+      Documents previousDocument = documentRepository.findById(id)
+          .orElseThrow(() -> new DocumentServiceException("Document not found with ID: " + id,
+              HttpStatus.NOT_FOUND));
+      if (!expectedVersion.equals(previousDocument.getVersion())) {
+        throw versionConflict(id, previousDocument.getVersion());
+      }
 
-      // Manually cache the document under multiple keys
-      cacheDocument(updatedDocument);
+      // Apply only the changed fields in one atomic round trip, guarded by the expected version
+      Documents updatedDocument = documentRepository.updateFields(id, expectedVersion,
+              DocumentUpdateUtil.ownerPrecondition(documentDto),
+              DocumentUpdateUtil.toPartialUpdate(documentDto))
+          .orElseThrow(() -> updateRejected(id, expectedVersion));
+      // Notification errors are written without a new version, so take the current one
+      previousDocument.setNotificationError(updatedDocument.getNotificationError());
+      filterGenerations.documentChanged(previousDocument, updatedDocument);
+      documentStatistics.documentChanged(previousDocument, updatedDocument);
 
-      // Send a notification regarding the update of the document
-      try {
-        NotificationUtil.sendNotification(restTemplate, notificationServiceUrl, updatedDocument,
-            NotificationType.UPDATE);
-      } catch (NotificationServiceException e) {
-        // If notification fails, log the error
-        log.error("Notification error while updating document for user: {}",
-            updatedDocument.getUserName(), e);
-        updatedDocument.setNotificationError("Notification failed: " + e.getMessage());
-        documentRepository.save(
-            updatedDocument);  // Update the document with the notification error
-      }
+      // Cache the document by id, name and owner
+      documentCache.put(updatedDocument);
+
+      // Queue a notification regarding the update of the document
+      queueNotification(updatedDocument, NotificationType.UPDATE);
 
       return updatedDocument;
 
@@ -185,25 +368,50 @@ public class DocumentServiceImpl implements DocumentService {
     }
   }
 
-
   /**
-   * Manually cache a document under multiple keys.
+   * Explains why a guarded update matched no document. Only runs on the failure path.
    */
-  private void cacheDocument(Documents document) {
-    Cache cache = cacheManager.getCache("documentsCache");
-    if (cache != null) {
-      // Cache by document ID
-      cache.put(document.getId(), document);
+  private DocumentServiceException updateRejected(String id, Long expectedVersion) {
+    Documents current = documentRepository.findById(id).orElse(null);
+    if (current == null) {
+      return new DocumentServiceException("Document not found with ID: " + id,
+          HttpStatus.NOT_FOUND);
+    }
+    if (!expectedVersion.equals(current.getVersion())) {
+      return versionConflict(id, current.getVersion());
+    }
+    return new DocumentServiceException("Document name must start with the owner's username.",
+        HttpStatus.BAD_REQUEST);
+  }
 
-      // Cache by document name
-      cache.put(document.getName(), document);
+  private DocumentServiceException versionConflict(String id, Long currentVersion) {
+    return new DocumentServiceException("Document with ID: " + id
+        + " was modified concurrently; current version is " + currentVersion,
+        HttpStatus.CONFLICT);
+  }
 
-      // Cache by username
-      cache.put(document.getUserName(), document);
+  /**
+   * Writes the notification for a document change to the outbox. The outbox relay delivers it to
+   * the notification service, so the write request never waits on that service. If the outbox
+   * write itself fails, the document is flagged with a notification error instead.
+   */
+  private void queueNotification(Documents document, NotificationType notificationType) {
+    try {
+      notificationOutboxService.enqueue(document, notificationType);
+    } catch (RuntimeException e) {
+      log.error("Failed to queue {} notification for document: {}", notificationType,
+          document.getId(), e);
+      boolean flagged = document.getNotificationError() != null;
+      document.setNotificationError("Notification failed: " + e.getMessage());
+      mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(document.getId())),
+          Update.update("notificationError", document.getNotificationError()), Documents.class);
+      filterGenerations.notificationErrorsChanged();
+      if (!flagged) {
+        documentStatistics.notificationErrorsFlagged(List.of(document));
+      }
     }
   }
 
-
   /**
    * Deletes a document.
    *
@@ -212,7 +420,6 @@ public class DocumentServiceImpl implements DocumentService {
    *                                  deletion.
    */
   @Override
-  @CacheEvict(value = {"documentsCache", "filteredDocumentsCache"}, allEntries = true)
   public void deleteDocument(String id) {
     try {
       // Check if the document exists by ID
@@ -222,14 +429,16 @@ public class DocumentServiceImpl implements DocumentService {
 
       // Delete the document from the database
       documentRepository.deleteById(id);
+      documentCache.evict(id);
+      filterGenerations.documentChanged(document, null);
+      documentStatistics.documentChanged(document, null);
 
-      // Send a notification regarding the deletion of the document
+      // Queue a notification regarding the deletion of the document
       try {
-        NotificationUtil.sendNotification(restTemplate, notificationServiceUrl, document,
-            NotificationType.DELETE);
-      } catch (NotificationServiceException e) {
-        // If notification fails, log the error
-        log.error("Notification error while deleting document with ID: {}", id, e);
+        notificationOutboxService.enqueue(document, NotificationType.DELETE);
+      } catch (RuntimeException e) {
+        // The document is gone, so there is nothing left to flag; log the lost notification
+        log.error("Failed to queue notification while deleting document with ID: {}", id, e);
       }
 
     } catch (DocumentServiceException e) {
@@ -242,38 +451,351 @@ public class DocumentServiceImpl implements DocumentService {
     }
   }
 
+  /**
+   * Retrieves a document by ID, served from the document cache when possible. Other instances
+   * write to the same document, so a cached copy is only served after a projected read confirms
+   * its version and notification error. A document read while another write was stored is not
+   * kept in the cache, so a concurrent delete cannot leave it behind.
+   *
+   * @param id The ID of the document.
+   * @return The document.
+   * @throws DocumentServiceException if the document is not found or unexpected errors occur.
+   */
+  @Override
+  public Documents getDocument(String id) {
+    try {
+      Optional<Documents> cached = documentCache.get(id);
+      if (cached.isPresent()) {
+        Optional<Documents> current = documentRepository.findVersionById(id);
+        if (current.isPresent() && DocumentCache.isCurrent(cached.get(), current.get())) {
+          return cached.get();
+        }
+        documentCache.evictIfUnchanged(cached.get());  // Changed or deleted by another instance
+      }
+
+      long generation = filterGenerations.globalGeneration();
+      Documents document = documentRepository.findById(id)
+          .orElseThrow(() -> new DocumentServiceException("Document not found with ID: " + id,
+              HttpStatus.NOT_FOUND));
+      documentCache.put(document);
+      if (filterGenerations.globalGeneration() != generation) {
+        documentCache.evictIfUnchanged(document);  // A write may have overtaken this read
+      }
+      return document;
+    } catch (DocumentServiceException e) {
+      log.error("Error fetching document with ID: {}", id, e);
+      throw e;
+    } catch (RuntimeException e) {
+      log.error("Unexpected error while fetching document with ID: {}", id, e);
+      throw new DocumentServiceException("Unexpected error while fetching document with ID: " + id,
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Retrieves all documents of an owner, ordered by ID. They are served from the document cache
+   * once the owner's documents were loaded and a projected read of the owner index confirms that
+   * no other instance has added, removed or changed any of them; a load that raced with a write
+   * for the owner is dropped from the cache again.
+   *
+   * @param userName The owner's username.
+   * @return The owner's documents.
+   * @throws DocumentServiceException if unexpected errors occur during retrieval.
+   */
+  @Override
+  public List<Documents> getDocumentsByUser(String userName) {
+    try {
+      Optional<List<Documents>> cached = documentCache.getByUser(userName);
+      if (cached.isPresent()) {
+        if (DocumentCache.isCurrent(cached.get(),
+            documentRepository.findVersionsByUserName(userName))) {
+          return sortById(cached.get());
+        }
+        documentCache.invalidateUser(userName);  // Changed by another instance
+      }
+
+      long generation = filterGenerations.userGeneration(userName);
+      List<Documents> documents = documentRepository.findByUserName(userName);
+      documentCache.putAllForUser(userName, documents);
+      if (filterGenerations.userGeneration(userName) != generation) {
+        documentCache.invalidateUser(userName);  // A write for the owner may have overtaken this read
+      }
+      return sortById(documents);
+    } catch (RuntimeException e) {
+      log.error("Error fetching documents for user: {}", userName, e);
+      throw new DocumentServiceException("Error fetching documents for user: " + userName,
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  private List<Documents> sortById(List<Documents> documents) {
+    return documents.stream().sorted(Comparator.comparing(Documents::getId)).toList();
+  }
+
+  /**
+   * Retrieves documents with optional filtering and sorting, with exact totals.
+   *
+   * @see #getDocuments(DocumentType, String, Boolean, Boolean, Pageable, CountMode, List)
+   */
+  @Override
+  public PaginatedResponseDto<Documents> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable) {
+    return getDocuments(documentType, user, verified, isNotificationFailed, pageable, CountMode.EXACT, null);
+  }
+
   /**
    * Retrieves documents with optional filtering and sorting.
    *
+   * <p>Pages are cached per filter together with the stamp of the generations the filter depends
+   * on, and served only while no write has touched those generations since.
+   *
+   * <p>With {@link CountMode#NONE} the page is read without a count and only tells whether there is
+   * a next page. With {@link CountMode#APPROXIMATE} the totals come from {@link DocumentCountCache},
+   * which refreshes them in the background.
+   *
    * @param documentType         The type of the document to filter by.
    * @param user                 The user to filter by.
    * @param verified             The verification status to filter by.
    * @param isNotificationFailed Whether to filter documents with a notification error.
    * @param pageable             The pagination information.
+   * @param countMode            How the totals are computed.
+   * @param fields               The fields to read besides the ID, or null for all fields.
    * @return A paginated response DTO containing documents that match the filter criteria.
-   * @throws DocumentServiceException if unexpected errors occur during retrieval.
+   * @throws DocumentServiceException if a field is unknown or unexpected errors occur during retrieval.
    */
   @Override
-  @Cacheable(value = "filteredDocumentsCache", key = "{#documentType != null ? #documentType.name() : 'all', #user != null ? #user : 'all', #verified != null ? #verified : 'all', #isNotificationFailed != null ? #isNotificationFailed : 'all', #pageable.pageNumber, #pageable.pageSize}")
-  public PaginatedResponseDto<Documents> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable) {
+  public PaginatedResponseDto<Documents> getDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable, CountMode countMode, List<String> fields) {
+    validateFields(fields);
+    boolean notificationFailed = isNotificationFailed != null && isNotificationFailed;
+    CountMode mode = countMode != null ? countMode : CountMode.EXACT;
+    List<Object> key = List.of(
+        documentType != null ? documentType.name() : "all",
+        user != null ? user : "all",
+        verified != null ? verified : "all",
+        isNotificationFailed != null ? isNotificationFailed : "all",
+        pageable.getPageNumber(),
+        pageable.getPageSize(),
+        mode.name(),
+        fields != null && !fields.isEmpty() ? List.copyOf(fields) : "all");
+
+    // Read the stamp before querying, so a write that lands during the query invalidates the page
+    long stamp = filterGenerations.stamp(documentType, user, verified, notificationFailed);
+    Cache cache = cacheManager.getCache("filteredDocumentsCache");
+    StampedPage cached = cache != null ? cache.get(key, StampedPage.class) : null;
+    if (cached != null && cached.stamp() == stamp) {
+      return cached.page();
+    }
+
+    try {
+      log.info("Fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}, countMode: {}", documentType, user, verified, isNotificationFailed, mode);
+
+      // Retrieve filtered documents from the repository and wrap them in a response DTO
+      Boolean failedFilter = notificationFailed ? Boolean.TRUE : null;
+      PaginatedResponseDto<Documents> response = switch (mode) {
+        case EXACT -> new PaginatedResponseDto<>(documentRepository.findByFilter(
+            documentType, user, verified, failedFilter, fields, pageable));
+        case NONE -> new PaginatedResponseDto<>(documentRepository.findSliceByFilter(
+            documentType, user, verified, failedFilter, fields, pageable));
+        case APPROXIMATE -> new PaginatedResponseDto<>(
+            documentRepository.findSliceByFilter(documentType, user, verified, failedFilter, fields, pageable),
+            documentCountCache.approximateCount(documentType, user, verified, notificationFailed));
+      };
+
+      // Cache the response; a stale page is overwritten in place
+      if (cache != null) {
+        cache.put(key, new StampedPage(stamp, response));
+      }
+      return response;
+    } catch (RuntimeException e) {
+      log.error("Error fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
+      throw new DocumentServiceException("Error fetching documents with filters", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Writes all documents matching the given filters to a stream as NDJSON, one document per line
+   * in ID order.
+   *
+   * <p>Documents are read from a MongoDB cursor and written one at a time, so memory use does not
+   * depend on the number of exported documents. The cursor only fetches its next batch once the
+   * previous one is written, and writes block while the client is not reading, so a slow client
+   * slows the export down instead of making it buffer.
+   *
+   * @param documentType The type of the document to filter by.
+   * @param user         The user to filter by.
+   * @param verified     The verification status to filter by.
+   * @param out          The stream to write to; it is flushed but not closed.
+   * @return The number of exported documents.
+   * @throws IOException if writing to the stream fails, for example because the client went away.
+   */
+  @Override
+  public long exportDocuments(DocumentType documentType, String user, Boolean verified, OutputStream out) throws IOException {
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .build()
+        .with(Sort.by("id"))
+        .cursorBatchSize(exportBatchSize);
+
+    log.info("Exporting documents with filters - documentType: {}, user: {}, verified: {}", documentType, user, verified);
+    long exported = 0;
+    OutputStream buffered = new BufferedOutputStream(out, exportBufferSize);
+    try (Stream<Documents> documents = mongoTemplate.stream(query, Documents.class)) {
+      Iterator<Documents> iterator = documents.iterator();
+      while (iterator.hasNext()) {
+        buffered.write(objectMapper.writeValueAsBytes(iterator.next()));
+        buffered.write('\n');
+        exported++;
+      }
+    }
+    buffered.flush();
+    log.info("Exported {} documents with filters - documentType: {}, user: {}, verified: {}", exported, documentType, user, verified);
+    return exported;
+  }
+
+  /**
+   * Counts the documents matching all of the given filters.
+   *
+   * <p>Counts are cached like filter pages, with the stamp of the generations the filter depends
+   * on, so a count is only taken again after a write that may have changed it.
+   *
+   * @param documentType         The type of the document to filter by.
+   * @param user                 The user to filter by.
+   * @param verified             The verification status to filter by.
+   * @param isNotificationFailed Whether to count documents with a notification error.
+   * @return The number of matching documents.
+   * @throws DocumentServiceException if unexpected errors occur during counting.
+   */
+  @Override
+  public long countDocuments(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed) {
+    boolean notificationFailed = isNotificationFailed != null && isNotificationFailed;
+    List<Object> key = List.of(
+        "count",
+        documentType != null ? documentType.name() : "all",
+        user != null ? user : "all",
+        verified != null ? verified : "all",
+        notificationFailed);
+
+    long stamp = filterGenerations.stamp(documentType, user, verified, notificationFailed);
+    Cache cache = cacheManager.getCache("filteredDocumentsCache");
+    StampedCount cached = cache != null ? cache.get(key, StampedCount.class) : null;
+    if (cached != null && cached.stamp() == stamp) {
+      return cached.count();
+    }
+
     try {
-      log.info("Fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed);
+      long count = documentRepository.countByFilter(documentType, user, verified,
+          notificationFailed ? Boolean.TRUE : null);
+      if (cache != null) {
+        cache.put(key, new StampedCount(stamp, count));
+      }
+      return count;
+    } catch (RuntimeException e) {
+      log.error("Error counting documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
+      throw new DocumentServiceException("Error counting documents with filters", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
 
-      // Retrieve filtered documents from the repository
-      Page<Documents> documentsPage = documentRepository.findByFilter(
+  /**
+   * Retrieves document counts by type, verification status and notification failure, and
+   * optionally the count of one owner.
+   *
+   * <p>The counts are maintained incrementally by every write and reconciled periodically, so they
+   * are read without aggregating the documents collection. They may lag behind other instances by
+   * one checkpoint interval.
+   *
+   * @param user The owner to count documents for (optional).
+   * @return The document counts.
+   * @throws DocumentServiceException if unexpected errors occur while reading the counts.
+   */
+  @Override
+  public DocumentStatsDto getDocumentStats(String user) {
+    try {
+      return documentStatistics.stats(user);
+    } catch (RuntimeException e) {
+      log.error("Error fetching document statistics for user: {}", user, e);
+      throw new DocumentServiceException("Error fetching document statistics", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Retrieves one page of filtered documents in ID order, continuing after the given cursor.
+   *
+   * <p>Each page is read as an index range after the last ID of the previous page, without a
+   * skip or a count, so reading a deep page costs the same as reading the first one. Cursor pages
+   * are not cached, since a cursor is rarely requested twice.
+   *
+   * @param documentType         The type of the document to filter by.
+   * @param user                 The user to filter by.
+   * @param verified             The verification status to filter by.
+   * @param isNotificationFailed Whether to filter documents with a notification error.
+   * @param cursor               The nextCursor of the previous page, or null for the first page.
+   * @param size                 The page size.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @return A page of documents with the cursor of the next page, if there is one.
+   * @throws DocumentServiceException if the cursor is malformed, a field is unknown or unexpected errors occur.
+   */
+  @Override
+  public PaginatedResponseDto<Documents> getDocumentsByCursor(DocumentType documentType, String user, Boolean verified, Boolean isNotificationFailed, String cursor, int size, List<String> fields) {
+    validateFields(fields);
+    String afterId;
+    try {
+      afterId = CursorUtil.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new DocumentServiceException("Invalid cursor", HttpStatus.BAD_REQUEST, e);
+    }
+    if (afterId != null && !ObjectId.isValid(afterId)) {
+      throw new DocumentServiceException("Invalid cursor", HttpStatus.BAD_REQUEST);
+    }
+    if (size < 1) {
+      throw new DocumentServiceException("Page size must be positive", HttpStatus.BAD_REQUEST);
+    }
+
+    try {
+      log.info("Fetching documents by cursor with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed);
+
+      // One extra document tells whether there is a next page
+      List<Documents> documents = documentRepository.findByFilterAfter(
           documentType,
           user,
           verified,
-          isNotificationFailed != null && isNotificationFailed ? Boolean.TRUE : null,
-          pageable
+          Boolean.TRUE.equals(isNotificationFailed) ? Boolean.TRUE : null,
+          afterId,
+          fields,
+          size + 1
       );
-
-      // Wrap the result in a response DTO and return
-      return new PaginatedResponseDto<>(documentsPage);
+      boolean hasNext = documents.size() > size;
+      List<Documents> content = hasNext ? documents.subList(0, size) : documents;
+      String nextCursor = hasNext ? CursorUtil.encode(content.get(size - 1).getId()) : null;
+      return new PaginatedResponseDto<>(content, size, afterId == null, nextCursor);
     } catch (RuntimeException e) {
-      log.error("Error fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
+      log.error("Error fetching documents by cursor with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
       throw new DocumentServiceException("Error fetching documents with filters", HttpStatus.INTERNAL_SERVER_ERROR, e);
     }
   }
-}
 
+  private void validateFields(List<String> fields) {
+    List<String> unknown = FieldProjection.unknownFields(fields, FieldProjection.DOCUMENT_FIELDS);
+    if (!unknown.isEmpty()) {
+      throw new DocumentServiceException("Unknown fields: " + String.join(", ", unknown),
+          HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * A cached page of filtered documents with the generation stamp it was read at.
+   */
+  private record StampedPage(long stamp, PaginatedResponseDto<Documents> page)
+      implements CacheWeight {
+
+    @Override
+    public int weight() {
+      return page.getContent().size() + 1;
+    }
+  }
+
+  /**
+   * A cached count of filtered documents with the generation stamp it was taken at.
+   */
+  private record StampedCount(long stamp, long count) {}
+}
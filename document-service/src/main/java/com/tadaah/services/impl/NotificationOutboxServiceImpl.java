@@ -0,0 +1,264 @@
+package com.tadaah.services.impl;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.clients.NotificationClient;
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.OutboxStatus;
+import com.tadaah.repositories.NotificationOutboxRepository;
+import com.tadaah.services.NotificationOutboxService;
+import com.tadaah.utils.NotificationUtil;
+import com.tadaah.utils.NotificationUtil.NotificationRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+  @Autowired
+  private NotificationOutboxRepository notificationOutboxRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private NotificationClient notificationClient;
+
+  @Autowired
+  private DocumentFilterGenerations filterGenerations;
+
+  @Autowired
+  private DocumentStatistics documentStatistics;
+
+  @Value("${notification.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${notification.outbox.max-attempts:10}")
+  private int maxAttempts;
+
+  @Value("${notification.outbox.claim-timeout-ms:60000}")
+  private long claimTimeoutMs;
+
+  @Value("${notification.outbox.max-backoff-ms:300000}")
+  private long maxBackoffMs;
+
+  /**
+   * Records a notification for a document change in the outbox.
+   *
+   * @param document         The document the notification refers to.
+   * @param notificationType The type of notification (CREATE, UPDATE, DELETE).
+   */
+  @Override
+  public void enqueue(Documents document, NotificationType notificationType) {
+    notificationOutboxRepository.insert(
+        NotificationUtil.buildOutboxEntry(document, notificationType));
+    log.debug("Queued {} notification for document: {}", notificationType, document.getId());
+  }
+
+  /**
+   * Records notifications for a batch of document changes in the outbox with a single insert.
+   *
+   * @param documents        The documents the notifications refer to.
+   * @param notificationType The type of notification (CREATE, UPDATE, DELETE).
+   */
+  @Override
+  public void enqueueAll(List<Documents> documents, NotificationType notificationType) {
+    if (documents.isEmpty()) {
+      return;
+    }
+    notificationOutboxRepository.insert(documents.stream()
+        .map(document -> NotificationUtil.buildOutboxEntry(document, notificationType))
+        .toList());
+    log.debug("Queued {} {} notifications", documents.size(), notificationType);
+  }
+
+  /**
+   * Claims one batch of due outbox entries and delivers it to the notification service.
+   * Delivered entries are removed and clear the notification error of documents flagged by an
+   * earlier failure, once no other pending or dead-lettered entry is left for the document. Failed entries flag their document with a notification error and are
+   * rescheduled with exponential backoff until all attempts are exhausted. Nothing is claimed
+   * while the notification client's circuit breaker is open, and short-circuited batches do not
+   * use up attempts.
+   *
+   * @return The number of entries delivered in this run.
+   */
+  @Override
+  public int relayPending() {
+    if (!notificationClient.isCallPermitted()) {
+      log.debug("Notification service circuit is open; skipping outbox relay");
+      return 0;
+    }
+    List<NotificationOutbox> batch = claimBatch();
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    List<NotificationRequest> requests = batch.stream().map(this::toNotificationRequest).toList();
+    List<String> ids = batch.stream().map(NotificationOutbox::getId).toList();
+
+    try {
+      notificationClient.sendBatch(requests);
+    } catch (NotificationServiceException e) {
+      log.error("Failed to relay {} outbox notifications", batch.size(), e);
+      markFailedAttempt(batch, e.getMessage(), e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE);
+      return 0;
+    }
+
+    mongoTemplate.remove(query(where("id").in(ids)), NotificationOutbox.class);
+    List<String> recoveredDocumentIds = recoveredDocumentIds(batch);
+    if (!recoveredDocumentIds.isEmpty()) {
+      long cleared = mongoTemplate.updateMulti(
+          query(where("id").in(recoveredDocumentIds).and("notificationError").ne(null)),
+          new Update().unset("notificationError"), Documents.class).getModifiedCount();
+      if (cleared > 0) {
+        filterGenerations.notificationErrorsChanged();
+        documentStatistics.notificationErrorsCleared(cleared);
+      }
+    }
+    log.info("Relayed {} outbox notifications", batch.size());
+    return batch.size();
+  }
+
+  /**
+   * Returns the documents of a delivered batch that were flagged by an earlier failure and have no
+   * other pending or dead-lettered notification left, so their flag can be cleared.
+   */
+  private List<String> recoveredDocumentIds(List<NotificationOutbox> delivered) {
+    Set<String> documentIds = delivered.stream()
+        .filter(entry -> entry.getAttempts() > 0)
+        .map(NotificationOutbox::getDocumentId)
+        .collect(Collectors.toSet());
+    if (documentIds.isEmpty()) {
+      return List.of();
+    }
+
+    Query remainingQuery = query(where("documentId").in(documentIds)
+        .and("status").in(OutboxStatus.PENDING, OutboxStatus.FAILED));
+    remainingQuery.fields().include("documentId");
+    mongoTemplate.find(remainingQuery, NotificationOutbox.class)
+        .forEach(entry -> documentIds.remove(entry.getDocumentId()));
+    return List.copyOf(documentIds);
+  }
+
+  /**
+   * Claims up to one batch of due entries with a unique token so concurrent relays on other
+   * instances never deliver the same entry twice while the claim is held.
+   */
+  private List<NotificationOutbox> claimBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    Criteria claimable = new Criteria().orOperator(
+        where("claimedUntil").is(null),
+        where("claimedUntil").lt(now));
+
+    Query dueQuery = new Query(new Criteria().andOperator(
+        where("status").is(OutboxStatus.PENDING),
+        where("nextAttemptAt").lte(now),
+        claimable))
+        .with(Sort.by("createdDate", "id"))
+        .limit(batchSize);
+    dueQuery.fields().include("id");
+
+    List<String> dueIds = mongoTemplate.find(dueQuery, NotificationOutbox.class).stream()
+        .map(NotificationOutbox::getId)
+        .toList();
+    if (dueIds.isEmpty()) {
+      return List.of();
+    }
+
+    String claimToken = UUID.randomUUID().toString();
+    mongoTemplate.updateMulti(
+        new Query(new Criteria().andOperator(where("id").in(dueIds), claimable)),
+        new Update().set("claimToken", claimToken)
+            .set("claimedUntil", now.plus(Duration.ofMillis(claimTimeoutMs))),
+        NotificationOutbox.class);
+
+    return mongoTemplate.find(
+        query(where("claimToken").is(claimToken)).with(Sort.by("createdDate", "id")),
+        NotificationOutbox.class);
+  }
+
+  /**
+   * Releases the claim on a failed batch, flags the affected documents that are not flagged yet
+   * with a notification error (the latest error is kept on the outbox entry), schedules the next attempt and dead-letters entries that have exhausted their attempts.
+   * Batches rejected without reaching the notification service are retried after the backoff
+   * without counting as an attempt.
+   */
+  private void markFailedAttempt(List<NotificationOutbox> batch, String error,
+      boolean countAttempt) {
+    LocalDateTime now = LocalDateTime.now();
+    BulkOperations outboxUpdates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED,
+        NotificationOutbox.class);
+
+    for (NotificationOutbox entry : batch) {
+      int attempts = countAttempt ? entry.getAttempts() + 1 : entry.getAttempts();
+      Update update = new Update()
+          .set("attempts", attempts)
+          .set("lastError", error)
+          .unset("claimToken")
+          .unset("claimedUntil");
+      if (attempts >= maxAttempts) {
+        update.set("status", OutboxStatus.FAILED);
+      } else {
+        update.set("nextAttemptAt", now.plus(backoff(Math.max(attempts, 1))));
+      }
+      outboxUpdates.updateOne(query(where("id").is(entry.getId())), update);
+    }
+    outboxUpdates.execute();
+
+    // Only documents not flagged yet are written, so the statistics count each flag once
+    List<String> documentIds = batch.stream().map(NotificationOutbox::getDocumentId).toList();
+    long flagged = mongoTemplate.updateMulti(
+        query(where("id").in(documentIds).and("notificationError").is(null)),
+        Update.update("notificationError", "Notification failed: " + error), Documents.class)
+        .getModifiedCount();
+    if (flagged > 0) {
+      filterGenerations.notificationErrorsChanged();
+      documentStatistics.notificationErrorsFlagged(flagged);
+    }
+
+    long exhausted = batch.stream()
+        .filter(entry -> countAttempt && entry.getAttempts() + 1 >= maxAttempts)
+        .count();
+    if (exhausted > 0) {
+      log.warn("Notification delivery exhausted for {} documents", exhausted);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    long delayMs = 1000L << Math.min(attempts, 20);
+    return Duration.ofMillis(Math.min(delayMs, maxBackoffMs));
+  }
+
+  private NotificationRequest toNotificationRequest(NotificationOutbox entry) {
+    return new NotificationRequest(
+        entry.getReceiver(),
+        entry.getDocumentName(),
+        entry.getTimestamp(),
+        entry.getEventType().name(),
+        entry.getMessage(),
+        entry.getDocumentId()
+    );
+  }
+}
@@ -0,0 +1,484 @@
+package com.tadaah.services.impl;
+
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentCountCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.cache.UserLookupCache;
+import com.tadaah.exceptions.DocumentServiceException;
+import com.tadaah.models.CountMode;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.ReactiveDocumentRepository;
+import com.tadaah.repositories.ReactiveUserRepository;
+import com.tadaah.services.ReactiveDocumentService;
+import com.tadaah.utils.CursorUtil;
+import com.tadaah.utils.DocumentQueryBuilder;
+import com.tadaah.utils.DocumentUpdateUtil;
+import com.tadaah.utils.DocumentValidationUtil;
+import com.tadaah.utils.FieldProjection;
+import com.tadaah.utils.GenericUtils;
+import com.tadaah.utils.NotificationUtil;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link DocumentServiceImpl} for the /v2 endpoints.
+ *
+ * <p>Documents, owners and outbox entries are read and written with the reactive MongoDB driver,
+ * so no thread waits on MongoDB. Notifications are queued in the outbox like the blocking service
+ * does, so a request never calls the notification service. Writes update the same in-memory
+ * caches, filter generations and statistics as the blocking service, so both APIs stay coherent.
+ */
+@Slf4j
+@Service
+public class ReactiveDocumentServiceImpl implements ReactiveDocumentService {
+
+  @Autowired
+  private ReactiveDocumentRepository documentRepository;
+
+  @Autowired
+  private ReactiveUserRepository userRepository;
+
+  @Autowired
+  private ReactiveMongoTemplate reactiveMongoTemplate;
+
+  @Autowired
+  private UserLookupCache userLookupCache;
+
+  @Autowired
+  private DocumentFilterGenerations filterGenerations;
+
+  @Autowired
+  private DocumentCache documentCache;
+
+  @Autowired
+  private DocumentStatistics documentStatistics;
+
+  @Autowired
+  private DocumentCountCache documentCountCache;
+
+  /**
+   * Creates a new document.
+   *
+   * @param documentDto The document to be created.
+   * @return The created document with verification and possible notification error.
+   * @throws DocumentServiceException if validation or unexpected errors occur during creation.
+   */
+  @Override
+  public Mono<Documents> createDocument(DocumentDto documentDto) {
+    return userLookupCache.findUser(documentDto.getUserName(), userRepository::findById)
+        .map(user -> {
+          // Validate the document against its owner, resolved from the cache or without blocking
+          DocumentValidationUtil.validateDocument(documentDto, user.orElse(null));
+          Documents document = new Documents();
+          GenericUtils.mergeObjects(document, documentDto);
+          document.setVerified(true);
+          document.setVersion(0L);
+          return document;
+        })
+        .flatMap(documentRepository::save)
+        .flatMap(savedDocument -> {
+          filterGenerations.documentChanged(null, savedDocument);
+          documentStatistics.documentChanged(null, savedDocument);
+          documentCache.put(savedDocument);
+          return queueNotification(savedDocument, NotificationType.CREATE);
+        })
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Unexpected error while creating document: {}", documentDto.getName(), e);
+          return new DocumentServiceException("Unexpected error while creating document",
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Updates an existing document.
+   *
+   * <p>Works like {@link DocumentServiceImpl#updateDocument}: the update must carry the version it
+   * is based on, and only the non-null fields are written with a single findAndModify that only
+   * applies to that version and increments it. The updated document is the one MongoDB returns.
+   *
+   * @param id          The ID of the document to be updated.
+   * @param documentDto The document details to be updated.
+   * @return The updated document with verification and possible notification error.
+   * @throws DocumentServiceException if the version is missing (428), the document is not found,
+   *                                  the version does not match (409), or validation or
+   *                                  unexpected errors occur during updating.
+   */
+  @Override
+  public Mono<Documents> updateDocument(String id, DocumentDto documentDto) {
+    Long expectedVersion = documentDto.getVersion();
+    if (expectedVersion == null) {
+      return Mono.error(new DocumentServiceException(
+          "The version the update is based on is required.", HttpStatus.PRECONDITION_REQUIRED));
+    }
+
+    Mono<Optional<Users>> newOwner = documentDto.getUserName() != null
+        ? userLookupCache.findUser(documentDto.getUserName(), userRepository::findById)
+        : Mono.just(Optional.empty());
+    return newOwner
+        .doOnNext(user -> DocumentValidationUtil.validateDocumentChanges(documentDto,
+            user.orElse(null)))
+        // The previous state is needed to invalidate the filter pages and statistics it counted in
+        .then(Mono.defer(() -> documentRepository.findById(id)))
+        .switchIfEmpty(Mono.error(() -> new DocumentServiceException(
+            "Document not found with ID: " + id, HttpStatus.NOT_FOUND)))
+        .flatMap(previousDocument -> {
+          if (!expectedVersion.equals(previousDocument.getVersion())) {
+            return Mono.error(versionConflict(id, previousDocument.getVersion()));
+          }
+          Query query = DocumentUpdateUtil.guardedQuery(id, expectedVersion,
+              DocumentUpdateUtil.ownerPrecondition(documentDto));
+          Update update = DocumentUpdateUtil.toPartialUpdate(documentDto).inc("version", 1);
+          return reactiveMongoTemplate.findAndModify(query, update,
+                  FindAndModifyOptions.options().returnNew(true), Documents.class)
+              .switchIfEmpty(Mono.defer(() -> updateRejected(id, expectedVersion)))
+              .flatMap(updatedDocument -> {
+                // Notification errors are written without a new version, so take the current one
+                previousDocument.setNotificationError(updatedDocument.getNotificationError());
+                filterGenerations.documentChanged(previousDocument, updatedDocument);
+                documentStatistics.documentChanged(previousDocument, updatedDocument);
+                documentCache.put(updatedDocument);
+                return queueNotification(updatedDocument, NotificationType.UPDATE);
+              });
+        })
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Unexpected error while updating document with ID: {}", id, e);
+          return new DocumentServiceException(
+              "Unexpected error while updating document with ID: " + id,
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Deletes a document.
+   *
+   * @param id The ID of the document to be deleted.
+   * @return Completes once the document is deleted.
+   * @throws DocumentServiceException if the document is not found or unexpected errors occur during
+   *                                  deletion.
+   */
+  @Override
+  public Mono<Void> deleteDocument(String id) {
+    return documentRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new DocumentServiceException(
+            "Document not found with ID: " + id, HttpStatus.NOT_FOUND)))
+        .flatMap(document -> documentRepository.deleteById(id).thenReturn(document))
+        .flatMap(document -> {
+          documentCache.evict(id);
+          filterGenerations.documentChanged(document, null);
+          documentStatistics.documentChanged(document, null);
+          // The document is gone, so there is nothing left to flag; log the lost notification
+          return reactiveMongoTemplate.insert(
+                  NotificationUtil.buildOutboxEntry(document, NotificationType.DELETE))
+              .doOnError(e -> log.error(
+                  "Failed to queue notification while deleting document with ID: {}", id, e))
+              .onErrorComplete()
+              .then();
+        })
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Unexpected error while deleting document with ID: {}", id, e);
+          return new DocumentServiceException(
+              "Unexpected error while deleting document with ID: " + id,
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Retrieves a document by its ID, from the document cache when a projected read confirms that
+   * the cached copy is current.
+   *
+   * @param id The ID of the document.
+   * @return The document.
+   * @throws DocumentServiceException if the document is not found or unexpected errors occur.
+   */
+  @Override
+  public Mono<Documents> getDocument(String id) {
+    return Mono.justOrEmpty(documentCache.get(id))
+        .filterWhen(cached -> documentRepository.findVersionById(id)
+            .map(current -> DocumentCache.isCurrent(cached, current))
+            .defaultIfEmpty(false)
+            .doOnNext(current -> {
+              if (!current) {
+                documentCache.evictIfUnchanged(cached);  // Changed or deleted by another instance
+              }
+            }))
+        .switchIfEmpty(Mono.defer(() -> {
+          long generation = filterGenerations.globalGeneration();
+          return documentRepository.findById(id)
+              .doOnNext(document -> {
+                documentCache.put(document);
+                if (filterGenerations.globalGeneration() != generation) {
+                  documentCache.evictIfUnchanged(document);  // A write may have overtaken this read
+                }
+              });
+        }))
+        .switchIfEmpty(Mono.error(() -> new DocumentServiceException(
+            "Document not found with ID: " + id, HttpStatus.NOT_FOUND)))
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Unexpected error while fetching document with ID: {}", id, e);
+          return new DocumentServiceException(
+              "Unexpected error while fetching document with ID: " + id,
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Retrieves all documents of an owner, ordered by ID. Owners whose documents are all cached are
+   * served from the document cache once a projected read of the owner index confirms them;
+   * otherwise the documents are streamed from the owner index as they arrive, without collecting
+   * them first.
+   *
+   * @param userName The owner's username.
+   * @return The owner's documents.
+   * @throws DocumentServiceException if unexpected errors occur during retrieval.
+   */
+  @Override
+  public Flux<Documents> getDocumentsByUser(String userName) {
+    return Mono.justOrEmpty(documentCache.getByUser(userName))
+        .filterWhen(documents -> documentRepository.findVersionsByUserName(userName)
+            .collectList()
+            .map(current -> DocumentCache.isCurrent(documents, current))
+            .doOnNext(current -> {
+              if (!current) {
+                documentCache.invalidateUser(userName);  // Changed by another instance
+              }
+            }))
+        .map(documents -> Flux.fromStream(
+            documents.stream().sorted(Comparator.comparing(Documents::getId))))
+        .defaultIfEmpty(Flux.defer(() -> documentRepository.findByUserNameOrderByIdAsc(userName)))
+        .flatMapMany(documents -> documents)
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Error fetching documents for user: {}", userName, e);
+          return new DocumentServiceException("Error fetching documents for user: " + userName,
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Retrieves one page of documents matching all of the given filters.
+   *
+   * <p>Pages are read like {@link DocumentServiceImpl#getDocuments}, without blocking: with
+   * {@link CountMode#EXACT} the total is counted unless the page itself shows it, with
+   * {@link CountMode#NONE} one extra document tells whether there is a next page, and with
+   * {@link CountMode#APPROXIMATE} the totals come from {@link DocumentCountCache}, whose refreshes
+   * run on a scheduler meant for blocking work. Pages are not cached.
+   *
+   * @param documentType         The type of the document to filter by.
+   * @param user                 The user to filter by.
+   * @param verified             The verification status to filter by.
+   * @param isNotificationFailed Whether to filter documents with a notification error.
+   * @param pageable             The pagination information.
+   * @param countMode            How the totals are computed.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @return A paginated response DTO containing documents that match the filter criteria.
+   * @throws DocumentServiceException if a field is unknown or unexpected errors occur during
+   *                                  retrieval.
+   */
+  @Override
+  public Mono<PaginatedResponseDto<Documents>> getDocuments(DocumentType documentType,
+      String user, Boolean verified, Boolean isNotificationFailed, Pageable pageable,
+      CountMode countMode, List<String> fields) {
+    DocumentServiceException invalid = invalidFields(fields);
+    if (invalid != null) {
+      return Mono.error(invalid);
+    }
+    boolean notificationFailed = Boolean.TRUE.equals(isNotificationFailed);
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(notificationFailed ? Boolean.TRUE : null)
+        .build();
+    CountMode mode = countMode != null ? countMode : CountMode.EXACT;
+
+    Mono<PaginatedResponseDto<Documents>> page;
+    if (mode == CountMode.EXACT) {
+      Query pageQuery = FieldProjection.apply(Query.of(query).with(pageable), fields, "id");
+      page = reactiveMongoTemplate.find(pageQuery, Documents.class).collectList()
+          .flatMap(content -> total(query, pageable, content)
+              .map(total -> new PaginatedResponseDto<Documents>(
+                  new PageImpl<>(content, pageable, total))));
+    } else {
+      // One extra document tells whether there is a next page, so no count is needed
+      Query sliceQuery = FieldProjection.apply(Query.of(query).with(pageable), fields, "id")
+          .limit(pageable.getPageSize() + 1);
+      Mono<Slice<Documents>> slice = reactiveMongoTemplate.find(sliceQuery, Documents.class)
+          .collectList()
+          .map(content -> {
+            boolean hasNext = content.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize())
+                : content, pageable, hasNext);
+          });
+      if (mode == CountMode.NONE) {
+        page = slice.map(content -> new PaginatedResponseDto<Documents>(content));
+      } else {
+        Mono<Long> approximateTotal = Mono.fromCallable(() -> documentCountCache.approximateCount(
+                documentType, user, verified, notificationFailed))
+            .subscribeOn(Schedulers.boundedElastic());
+        page = slice.zipWith(approximateTotal,
+            (content, total) -> new PaginatedResponseDto<Documents>(content, total));
+      }
+    }
+
+    log.info("Fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}, countMode: {}", documentType, user, verified, isNotificationFailed, mode);
+    return page.onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+      log.error("Error fetching documents with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
+      return new DocumentServiceException("Error fetching documents with filters",
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    });
+  }
+
+  /**
+   * Retrieves one page of filtered documents in ID order, continuing after the given cursor.
+   *
+   * <p>Each page is an index range read after the last ID of the previous page, without a skip or
+   * a count, like {@link DocumentServiceImpl#getDocumentsByCursor}.
+   *
+   * @param documentType         The type of the document to filter by.
+   * @param user                 The user to filter by.
+   * @param verified             The verification status to filter by.
+   * @param isNotificationFailed Whether to filter documents with a notification error.
+   * @param cursor               The nextCursor of the previous page, or null for the first page.
+   * @param size                 The page size.
+   * @param fields               The fields to read besides the ID, or null for all fields.
+   * @return A page of documents with the cursor of the next page, if there is one.
+   * @throws DocumentServiceException if the cursor is malformed, a field is unknown or unexpected
+   *                                  errors occur.
+   */
+  @Override
+  public Mono<PaginatedResponseDto<Documents>> getDocumentsByCursor(DocumentType documentType,
+      String user, Boolean verified, Boolean isNotificationFailed, String cursor, int size,
+      List<String> fields) {
+    DocumentServiceException invalid = invalidFields(fields);
+    if (invalid != null) {
+      return Mono.error(invalid);
+    }
+    String afterId;
+    try {
+      afterId = CursorUtil.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      return Mono.error(new DocumentServiceException("Invalid cursor", HttpStatus.BAD_REQUEST, e));
+    }
+    if (afterId != null && !ObjectId.isValid(afterId)) {
+      return Mono.error(new DocumentServiceException("Invalid cursor", HttpStatus.BAD_REQUEST));
+    }
+    if (size < 1) {
+      return Mono.error(new DocumentServiceException("Page size must be positive",
+          HttpStatus.BAD_REQUEST));
+    }
+
+    Query query = DocumentQueryBuilder.create()
+        .userName(user)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(Boolean.TRUE.equals(isNotificationFailed) ? Boolean.TRUE : null)
+        .idAfter(afterId)
+        .build()
+        .with(Sort.by("id"))
+        .limit(size + 1);  // One extra document tells whether there is a next page
+    FieldProjection.apply(query, fields, "id");
+
+    log.info("Fetching documents by cursor with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed);
+    return reactiveMongoTemplate.find(query, Documents.class).collectList()
+        .map(documents -> {
+          boolean hasNext = documents.size() > size;
+          List<Documents> content = hasNext ? documents.subList(0, size) : documents;
+          String nextCursor = hasNext ? CursorUtil.encode(content.get(size - 1).getId()) : null;
+          return new PaginatedResponseDto<>(content, size, afterId == null, nextCursor);
+        })
+        .onErrorMap(e -> !(e instanceof DocumentServiceException), e -> {
+          log.error("Error fetching documents by cursor with filters - documentType: {}, user: {}, verified: {}, isNotificationFailed: {}", documentType, user, verified, isNotificationFailed, e);
+          return new DocumentServiceException("Error fetching documents with filters",
+              HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Returns the total of a filter; the count is skipped when the page itself shows it.
+   */
+  private Mono<Long> total(Query query, Pageable pageable, List<Documents> content) {
+    long offset = pageable.getOffset();
+    if ((offset == 0 || !content.isEmpty()) && content.size() < pageable.getPageSize()) {
+      return Mono.just(offset + content.size());
+    }
+    return reactiveMongoTemplate.count(query, Documents.class);
+  }
+
+  private DocumentServiceException invalidFields(List<String> fields) {
+    List<String> unknown = FieldProjection.unknownFields(fields, FieldProjection.DOCUMENT_FIELDS);
+    return unknown.isEmpty() ? null : new DocumentServiceException(
+        "Unknown fields: " + String.join(", ", unknown), HttpStatus.BAD_REQUEST);
+  }
+
+  /**
+   * Explains why a guarded update matched no document. Only runs on the failure path.
+   */
+  private Mono<Documents> updateRejected(String id, Long expectedVersion) {
+    return documentRepository.findById(id)
+        .map(current -> expectedVersion.equals(current.getVersion())
+            ? new DocumentServiceException("Document name must start with the owner's username.",
+                HttpStatus.BAD_REQUEST)
+            : versionConflict(id, current.getVersion()))
+        .defaultIfEmpty(new DocumentServiceException("Document not found with ID: " + id,
+            HttpStatus.NOT_FOUND))
+        .flatMap(Mono::error);
+  }
+
+  private DocumentServiceException versionConflict(String id, Long currentVersion) {
+    return new DocumentServiceException("Document with ID: " + id
+        + " was modified concurrently; current version is " + currentVersion,
+        HttpStatus.CONFLICT);
+  }
+
+  /**
+   * Writes the notification for a document change to the outbox. If the outbox write fails, the
+   * document is flagged with a notification error instead.
+   */
+  private Mono<Documents> queueNotification(Documents document,
+      NotificationType notificationType) {
+    return reactiveMongoTemplate.insert(
+            NotificationUtil.buildOutboxEntry(document, notificationType))
+        .thenReturn(document)
+        .onErrorResume(e -> {
+          log.error("Failed to queue {} notification for document: {}", notificationType,
+              document.getId(), e);
+          boolean flagged = document.getNotificationError() != null;
+          document.setNotificationError("Notification failed: " + e.getMessage());
+          return reactiveMongoTemplate.updateFirst(
+                  Query.query(Criteria.where("id").is(document.getId())),
+                  Update.update("notificationError", document.getNotificationError()),
+                  Documents.class)
+              .doOnNext(result -> {
+                filterGenerations.notificationErrorsChanged();
+                if (!flagged) {
+                  documentStatistics.notificationErrorsFlagged(List.of(document));
+                }
+              })
+              .thenReturn(document);
+        });
+  }
+}
@@ -0,0 +1,80 @@
+package com.tadaah.services.impl;
+
+import com.tadaah.cache.UserLookupCache;
+import com.tadaah.exceptions.UserServiceException;
+import com.tadaah.models.Dto.request.UserDto;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.ReactiveUserRepository;
+import com.tadaah.services.ReactiveUserService;
+import com.tadaah.utils.GenericUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link UserServiceImpl} for the /v2 endpoints. Users are written
+ * with the reactive MongoDB driver and kept in the same user lookup cache as the blocking service.
+ */
+@Slf4j
+@Service
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+  @Autowired
+  private ReactiveUserRepository userRepository;
+
+  @Autowired
+  private UserLookupCache userLookupCache;
+
+  /**
+   * Creates a new user. The username is the ID, so the insert itself rejects existing users
+   * without a separate lookup.
+   *
+   * @param userDto The user data transfer object containing user details.
+   * @return The created user.
+   * @throws UserServiceException if a user with the given username already exists or unexpected errors occur during creation.
+   */
+  @Override
+  public Mono<Users> createUser(UserDto userDto) {
+    log.info("Creating a new user: {}", userDto.getUserName());
+    Users user = new Users();
+    GenericUtils.mergeObjects(user, userDto);
+    return userRepository.insert(user)
+        .doOnNext(userLookupCache::put)
+        .onErrorMap(DuplicateKeyException.class, e -> {
+          log.warn("User already exists with username: {}", userDto.getUserName());
+          return new UserServiceException("User already exists with username: " + userDto.getUserName(), HttpStatus.CONFLICT);
+        })
+        .onErrorMap(e -> !(e instanceof UserServiceException), e -> {
+          log.error("Error creating user: {}", userDto.getUserName(), e);
+          return new UserServiceException("Error creating user", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+
+  /**
+   * Deletes a user.
+   *
+   * @param username The username of the user to be deleted.
+   * @return Completes once the user is deleted.
+   * @throws UserServiceException if the user is not found or unexpected errors occur during deletion.
+   */
+  @Override
+  public Mono<Void> deleteUser(String username) {
+    log.info("Deleting user with username: {}", username);
+    return userRepository.existsById(username)
+        .flatMap(exists -> {
+          if (!exists) {
+            log.warn("User not found with username: {}", username);
+            return Mono.error(new UserServiceException("User not found with username: " + username, HttpStatus.NOT_FOUND));
+          }
+          return userRepository.deleteById(username)
+              .doOnSuccess(ignored -> userLookupCache.invalidate(username));
+        })
+        .onErrorMap(e -> !(e instanceof UserServiceException), e -> {
+          log.error("Error deleting user with username: {}", username, e);
+          return new UserServiceException("Error deleting user", HttpStatus.INTERNAL_SERVER_ERROR, e);
+        });
+  }
+}
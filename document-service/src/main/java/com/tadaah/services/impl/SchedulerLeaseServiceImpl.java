@@ -0,0 +1,78 @@
+package com.tadaah.services.impl;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.tadaah.models.SchedulerLease;
+import com.tadaah.services.SchedulerLeaseService;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class SchedulerLeaseServiceImpl implements SchedulerLeaseService {
+
+  private final MongoTemplate mongoTemplate;
+  private final String owner;
+
+  public SchedulerLeaseServiceImpl(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+    this.owner = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  /**
+   * Acquires or extends the lease of a scheduled job.
+   *
+   * The lease is taken with a single upsert matching a lapsed lease or one this instance already
+   * holds. If another instance holds it, the upsert tries to insert a second lease with the same
+   * name and fails on the unique ID, so at most one instance holds a lease at any time.
+   *
+   * @param name     The name of the scheduled job.
+   * @param duration How long the lease is held unless it is extended or released.
+   * @return Whether this instance holds the lease.
+   */
+  @Override
+  public boolean tryAcquire(String name, Duration duration) {
+    Instant now = Instant.now();
+    try {
+      mongoTemplate.upsert(
+          query(where("name").is(name).orOperator(
+              where("leasedUntil").lt(now),
+              where("owner").is(owner))),
+          new Update().set("owner", owner).set("leasedUntil", now.plus(duration)),
+          SchedulerLease.class);
+      return true;
+    } catch (DuplicateKeyException e) {
+      log.debug("Lease {} is held by another instance", name);
+      return false;
+    }
+  }
+
+  /**
+   * Releases the lease of a scheduled job if this instance holds it, so another instance may take
+   * over right away.
+   *
+   * @param name The name of the scheduled job.
+   */
+  @Override
+  public void release(String name) {
+    mongoTemplate.remove(query(where("name").is(name).and("owner").is(owner)),
+        SchedulerLease.class);
+  }
+
+  private static String hostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "unknown";
+    }
+  }
+}
@@ -1,17 +1,26 @@
 package com.tadaah.services.impl;
 
+import com.tadaah.cache.UserLookupCache;
 import com.tadaah.exceptions.UserServiceException;
+import com.tadaah.models.CountMode;
 import com.tadaah.models.Dto.request.UserDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import com.tadaah.models.UserSearchMode;
 import com.tadaah.models.Users;
 import com.tadaah.repositories.UserRepository;
 import com.tadaah.services.UserService;
+import com.tadaah.utils.CursorUtil;
+import com.tadaah.utils.FieldProjection;
 import com.tadaah.utils.GenericUtils;
+import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +31,15 @@ public class UserServiceImpl implements UserService {
   @Autowired
   private UserRepository userRepository;
 
+  @Autowired
+  private UserLookupCache userLookupCache;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Value("${users.autocomplete.max-limit:20}")
+  private int autocompleteMaxLimit;
+
   /**
    * Creates a new user.
    *
@@ -45,8 +63,10 @@ public class UserServiceImpl implements UserService {
       Users user = new Users();
       GenericUtils.mergeObjects(user, userDto);
 
-      // Save the new user to the database
-      return userRepository.save(user);
+      // Save the new user to the database and replace any cached negative lookup
+      Users savedUser = userRepository.save(user);
+      userLookupCache.put(savedUser);
+      return savedUser;
     } catch (RuntimeException e) {
       log.error("Error creating user: {}", userDto.getUserName(), e);
       throw new UserServiceException("Error creating user", HttpStatus.INTERNAL_SERVER_ERROR, e);
@@ -70,8 +90,9 @@ public class UserServiceImpl implements UserService {
     }
 
     try {
-      // Delete the user from the database
+      // Delete the user from the database and drop the cached lookup
       userRepository.deleteById(username);
+      userLookupCache.invalidate(username);
     } catch (RuntimeException e) {
       log.error("Error deleting user with username: {}", username, e);
       throw new UserServiceException("Error deleting user", HttpStatus.INTERNAL_SERVER_ERROR, e);
@@ -94,7 +115,7 @@ public class UserServiceImpl implements UserService {
     try {
       log.info("Fetching all users with filters - username: {}", username);
       // Retrieve all users from the database with pagination and filters
-      Page<Users> usersPage = userRepository.findByUsername(username, pageable);
+      Page<Users> usersPage = userRepository.findByUsername(username, UserSearchMode.CONTAINS, null, pageable);
       return new PaginatedResponseDto<>(usersPage);
     } catch (RuntimeException e) {
       log.error("Error fetching all users", e);
@@ -102,5 +123,117 @@ public class UserServiceImpl implements UserService {
     }
   }
 
+  /**
+   * Retrieves users with optional filtering by username, computing the totals as requested.
+   *
+   * With {@link CountMode#NONE} the page is read without a count and only tells whether there is a
+   * next page. With {@link CountMode#APPROXIMATE} the total of an unfiltered listing is estimated
+   * from the collection metadata; a filtered listing has no cheap estimate, so its totals are left
+   * out.
+   *
+   * @param username   The username to filter by (optional).
+   * @param searchMode How the username is matched; contains when null.
+   * @param pageable  The pagination information (page number and page size).
+   * @param countMode How the totals are computed.
+   * @param fields    The fields to read besides the username, or null for all fields.
+   * @return The paginated list of users.
+   * @throws UserServiceException if a field is unknown or an unexpected error occurs during retrieval.
+   */
+  @Override
+  public PaginatedResponseDto<Users> getAllUsers(String username, UserSearchMode searchMode, Pageable pageable, CountMode countMode, List<String> fields) {
+    validateFields(fields);
+    try {
+      log.info("Fetching users with filters - username: {}, searchMode: {}, countMode: {}", username, searchMode, countMode);
+      if (countMode == null || countMode == CountMode.EXACT) {
+        return new PaginatedResponseDto<>(userRepository.findByUsername(username, searchMode, fields, pageable));
+      }
+      Slice<Users> usersSlice = userRepository.findSliceByUsername(username, searchMode, fields, pageable);
+      if (countMode == CountMode.APPROXIMATE && (username == null || username.isEmpty())) {
+        return new PaginatedResponseDto<>(usersSlice, mongoTemplate.estimatedCount(Users.class));
+      }
+      return new PaginatedResponseDto<>(usersSlice);
+    } catch (RuntimeException e) {
+      log.error("Error fetching all users", e);
+      throw new UserServiceException("Error fetching users", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Retrieves one page of users in username order, continuing after the given cursor.
+   *
+   * Usernames are the ID, so each page is read from the ID index right after the last username of
+   * the previous page, without a skip or a count.
+   *
+   * @param username   The username to filter by (optional).
+   * @param searchMode How the username is matched; contains when null.
+   * @param cursor   The nextCursor of the previous page, or null for the first page.
+   * @param size     The page size.
+   * @param fields   The fields to read besides the username, or null for all fields.
+   * @return A page of users with the cursor of the next page, if there is one.
+   * @throws UserServiceException if the cursor is malformed, a field is unknown or an unexpected error occurs.
+   */
+  @Override
+  public PaginatedResponseDto<Users> getUsersByCursor(String username, UserSearchMode searchMode, String cursor, int size, List<String> fields) {
+    validateFields(fields);
+    String afterUserName;
+    try {
+      afterUserName = CursorUtil.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new UserServiceException("Invalid cursor", HttpStatus.BAD_REQUEST, e);
+    }
+    if (size < 1) {
+      throw new UserServiceException("Page size must be positive", HttpStatus.BAD_REQUEST);
+    }
+
+    try {
+      log.info("Fetching users by cursor with filters - username: {}", username);
+      // One extra user tells whether there is a next page
+      List<Users> users = userRepository.findByUsernameAfter(username, searchMode, afterUserName,
+          fields, size + 1);
+      boolean hasNext = users.size() > size;
+      List<Users> content = hasNext ? users.subList(0, size) : users;
+      String nextCursor = hasNext ? CursorUtil.encode(content.get(size - 1).getUserName()) : null;
+      return new PaginatedResponseDto<>(content, size, afterUserName == null, nextCursor);
+    } catch (RuntimeException e) {
+      log.error("Error fetching users by cursor", e);
+      throw new UserServiceException("Error fetching users", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Completes a username prefix, ignoring case.
+   *
+   * The usernames are read from the lower-case username index alone, so the lookup stays fast
+   * however many users there are. The limit is capped by users.autocomplete.max-limit.
+   *
+   * @param prefix The prefix to complete; a blank prefix completes to nothing.
+   * @param limit  The maximum number of usernames to return.
+   * @return The matching usernames, in case-insensitive order.
+   * @throws UserServiceException if the limit is not positive or an unexpected error occurs.
+   */
+  @Override
+  public List<String> autocompleteUsers(String prefix, int limit) {
+    if (limit < 1) {
+      throw new UserServiceException("Limit must be positive", HttpStatus.BAD_REQUEST);
+    }
+    if (prefix == null || prefix.isBlank()) {
+      return List.of();
+    }
+    try {
+      return userRepository.autocomplete(prefix, Math.min(limit, autocompleteMaxLimit));
+    } catch (RuntimeException e) {
+      log.error("Error completing username prefix: {}", prefix, e);
+      throw new UserServiceException("Error fetching users", HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  private void validateFields(List<String> fields) {
+    List<String> unknown = FieldProjection.unknownFields(fields, FieldProjection.USER_FIELDS);
+    if (!unknown.isEmpty()) {
+      throw new UserServiceException("Unknown fields: " + String.join(", ", unknown),
+          HttpStatus.BAD_REQUEST);
+    }
+  }
+
 }
 
@@ -0,0 +1,46 @@
+package com.tadaah.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors of keyset pagination.
+ *
+ * <p>A cursor holds the sort key of the last element of a page; the next page starts right after
+ * it. Clients must treat cursors as opaque, so the format may change without notice.
+ */
+public class CursorUtil {
+
+  private static final String PREFIX = "v1:";
+
+  private CursorUtil() {}
+
+  /**
+   * Encodes the sort key of the last element of a page.
+   *
+   * @param lastKey The sort key of the last element.
+   * @return The cursor of the next page.
+   */
+  public static String encode(String lastKey) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((PREFIX + lastKey).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor back into the sort key it continues after.
+   *
+   * @param cursor The cursor, or null or blank for the first page.
+   * @return The sort key, or null for the first page.
+   * @throws IllegalArgumentException if the cursor was not produced by {@link #encode(String)}.
+   */
+  public static String decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    if (!decoded.startsWith(PREFIX) || decoded.length() == PREFIX.length()) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    return decoded.substring(PREFIX.length());
+  }
+}
@@ -0,0 +1,76 @@
+package com.tadaah.utils;
+
+import com.tadaah.models.DocumentType;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Builds document filter queries from optional criteria.
+ *
+ * <p>Only the criteria that are set are added, and they are ANDed as plain equality and
+ * {@code $ne} predicates, so every combination can be answered from the indexes declared by
+ * {@link com.tadaah.config.MongoIndexManager}.
+ */
+public class DocumentQueryBuilder {
+
+  private final List<Criteria> criteria = new ArrayList<>();
+
+  private DocumentQueryBuilder() {}
+
+  public static DocumentQueryBuilder create() {
+    return new DocumentQueryBuilder();
+  }
+
+  public DocumentQueryBuilder userName(String userName) {
+    if (userName != null) {
+      criteria.add(Criteria.where("userName").is(userName));
+    }
+    return this;
+  }
+
+  public DocumentQueryBuilder documentType(DocumentType documentType) {
+    if (documentType != null) {
+      criteria.add(Criteria.where("documentType").is(documentType));
+    }
+    return this;
+  }
+
+  public DocumentQueryBuilder verified(Boolean verified) {
+    if (verified != null) {
+      criteria.add(Criteria.where("verified").is(verified));
+    }
+    return this;
+  }
+
+  /**
+   * Restricts the query to documents with a notification error when the flag is true. The
+   * {@code $exists} predicate lets the planner use the partial index on the error.
+   */
+  public DocumentQueryBuilder notificationFailed(Boolean notificationFailed) {
+    if (Boolean.TRUE.equals(notificationFailed)) {
+      criteria.add(Criteria.where("notificationError").exists(true).ne(null));
+    }
+    return this;
+  }
+
+  /**
+   * Restricts the query to documents with an ID greater than the given one, for keyset
+   * pagination in ID order.
+   */
+  public DocumentQueryBuilder idAfter(String id) {
+    if (id != null) {
+      criteria.add(Criteria.where("id").gt(id));
+    }
+    return this;
+  }
+
+  public Query build() {
+    if (criteria.isEmpty()) {
+      return new Query();
+    }
+    return new Query(criteria.size() == 1 ? criteria.get(0)
+        : new Criteria().andOperator(criteria));
+  }
+}
@@ -0,0 +1,92 @@
+package com.tadaah.utils;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import com.tadaah.models.Dto.request.DocumentDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Builds the guarded partial updates of documents, so the blocking and the reactive update paths
+ * write exactly the same fields under the same conditions.
+ */
+public class DocumentUpdateUtil {
+
+  // Private constructor to prevent instantiation
+  private DocumentUpdateUtil() {}
+
+  /**
+   * Builds the query of a guarded update: it only matches the given version of the document, and
+   * only if the stored document also matches the precondition.
+   *
+   * @param id              The ID of the document to be updated.
+   * @param expectedVersion The version the update is based on.
+   * @param precondition    Additional criteria the stored document must match, or null.
+   * @return The update query.
+   */
+  public static Query guardedQuery(String id, long expectedVersion, Criteria precondition) {
+    List<Criteria> criteria = new ArrayList<>();
+    criteria.add(where("id").is(id));
+    criteria.add(where("version").is(expectedVersion));
+    if (precondition != null) {
+      criteria.add(precondition);
+    }
+    return new Query(new Criteria().andOperator(criteria));
+  }
+
+  /**
+   * Builds a $set of the non-null fields of an update. A validated update marks the document as
+   * verified.
+   *
+   * @param documentDto The fields to be changed; null fields are left unchanged.
+   * @return The update, without the version increment.
+   */
+  public static Update toPartialUpdate(DocumentDto documentDto) {
+    Update update = new Update().set("verified", true);
+    if (documentDto.getName() != null) {
+      update.set("name", documentDto.getName());
+    }
+    if (documentDto.getDocumentType() != null) {
+      update.set("documentType", documentDto.getDocumentType());
+    }
+    if (documentDto.getUserName() != null) {
+      update.set("userName", documentDto.getUserName());
+    }
+    if (documentDto.getFileUrl() != null) {
+      update.set("fileUrl", documentDto.getFileUrl());
+    }
+    if (documentDto.getExpiryDate() != null) {
+      // A new expiry date is scanned again from scratch
+      update.set("expiryDate", documentDto.getExpiryDate()).unset("expiryStatus");
+    }
+    return update;
+  }
+
+  /**
+   * The document name must start with the owner's username. When an update changes only one of the
+   * two, the rule is checked against the stored value as part of the update query.
+   *
+   * @param documentDto The fields to be changed.
+   * @return The criteria the stored document must match, or null if there are none.
+   */
+  public static Criteria ownerPrecondition(DocumentDto documentDto) {
+    String name = documentDto.getName();
+    String userName = documentDto.getUserName();
+    if (name != null && userName == null) {
+      // The stored owner must be one of the prefixes of the new name
+      List<String> prefixes = new ArrayList<>();
+      for (int length = 1; length <= name.length(); length++) {
+        prefixes.add(name.substring(0, length));
+      }
+      return where("userName").in(prefixes);
+    }
+    if (name == null && userName != null) {
+      return where("name").regex("^" + Pattern.quote(userName));
+    }
+    return null;
+  }
+}
@@ -1,9 +1,9 @@
 package com.tadaah.utils;
 
+import com.tadaah.cache.UserLookupCache;
 import com.tadaah.exceptions.DocumentServiceException;
 import com.tadaah.models.Dto.request.DocumentDto;
 import com.tadaah.models.Users;
-import com.tadaah.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDate;
@@ -19,14 +19,24 @@ public class DocumentValidationUtil {
    * Validates the document based on business rules.
    *
    * @param document The document to be validated.
-   * @param userRepository The user repository to fetch user details.
+   * @param userLookupCache The user lookup cache to fetch user details.
    */
-  public static void validateDocument(DocumentDto document, UserRepository userRepository) {
-    Users user = userRepository.findById(document.getUserName())
-        .orElseThrow(() -> {
-          log.error("User not found: {}", document.getUserName());
-          return new DocumentServiceException("User not found: " + document.getUserName(), HttpStatus.BAD_REQUEST);
-        });
+  public static void validateDocument(DocumentDto document, UserLookupCache userLookupCache) {
+    Users user = userLookupCache.findUser(document.getUserName()).orElse(null);
+    validateDocument(document, user);
+  }
+
+  /**
+   * Validates the document based on business rules against an already resolved owner.
+   *
+   * @param document The document to be validated.
+   * @param user The owner of the document, or null if no such user exists.
+   */
+  public static void validateDocument(DocumentDto document, Users user) {
+    if (user == null) {
+      log.error("User not found: {}", document.getUserName());
+      throw new DocumentServiceException("User not found: " + document.getUserName(), HttpStatus.BAD_REQUEST);
+    }
 
     if (document.getName() == null || !document.getName().startsWith(user.getUserName())) {
       log.warn("Document name does not start with the owner's username: {}", document.getName());
@@ -39,15 +49,54 @@ public class DocumentValidationUtil {
     }
   }
 
+  /**
+   * Validates the fields present in a partial update. Rules that also depend on stored fields the
+   * update leaves unchanged are left to the caller, which enforces them in the update query.
+   *
+   * @param changes The fields to be changed; null fields are left unchanged.
+   * @param userLookupCache The user lookup cache to fetch user details.
+   */
+  public static void validateDocumentChanges(DocumentDto changes, UserLookupCache userLookupCache) {
+    Users user = changes.getUserName() != null
+        ? userLookupCache.findUser(changes.getUserName()).orElse(null)
+        : null;
+    validateDocumentChanges(changes, user);
+  }
+
+  /**
+   * Validates the fields present in a partial update against an already resolved new owner.
+   *
+   * @param changes The fields to be changed; null fields are left unchanged.
+   * @param user The new owner of the document, or null if the update does not change the owner or
+   *             no such user exists.
+   */
+  public static void validateDocumentChanges(DocumentDto changes, Users user) {
+    if (changes.getUserName() != null) {
+      if (user == null) {
+        log.error("User not found: {}", changes.getUserName());
+        throw new DocumentServiceException("User not found: " + changes.getUserName(), HttpStatus.BAD_REQUEST);
+      }
+      if (changes.getName() != null && !changes.getName().startsWith(user.getUserName())) {
+        log.warn("Document name does not start with the owner's username: {}", changes.getName());
+        throw new DocumentServiceException("Document name must start with the owner's username.", HttpStatus.BAD_REQUEST);
+      }
+    }
+
+    if (changes.getExpiryDate() != null && changes.getExpiryDate().isBefore(LocalDate.now().plusDays(60))) {
+      log.warn("Document expiry date is less than 60 days in the future: {}", changes.getExpiryDate());
+      throw new DocumentServiceException("Document expiry date must be at least 60 days in the future.", HttpStatus.BAD_REQUEST);
+    }
+  }
+
   /**
    * Automatically verifies the document based on validation.
    *
    * @param document The document to be verified.
-   * @param userRepository The user repository to fetch user details.
+   * @param userLookupCache The user lookup cache to fetch user details.
    * @return True if the document is valid, otherwise false.
    */
-  public static boolean verifyDocument(DocumentDto document, UserRepository userRepository) {
-    validateDocument(document, userRepository);
+  public static boolean verifyDocument(DocumentDto document, UserLookupCache userLookupCache) {
+    validateDocument(document, userLookupCache);
     log.info("Document is valid and verified: {}", document);
     return true;
   }
@@ -0,0 +1,46 @@
+package com.tadaah.utils;
+
+import com.tadaah.models.Documents;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Derives the ETags of document representations.
+ *
+ * <p>Every write that changes a returned field increments the version, so the ID and version
+ * identify a representation.
+ */
+public class ETagUtil {
+
+  private ETagUtil() {}
+
+  /**
+   * Returns the ETag of a single document.
+   *
+   * @param document The document.
+   * @return The quoted ETag.
+   */
+  public static String documentETag(Documents document) {
+    return "\"" + document.getId() + "-" + versionOf(document) + "\"";
+  }
+
+  /**
+   * Returns the ETag of a list of documents, which changes whenever a document is added, removed
+   * or updated.
+   *
+   * @param documents The documents, in response order.
+   * @return The quoted ETag.
+   */
+  public static String documentsETag(List<Documents> documents) {
+    StringBuilder representation = new StringBuilder();
+    for (Documents document : documents) {
+      representation.append(document.getId()).append(':').append(versionOf(document)).append(';');
+    }
+    return "\"" + DigestUtils.md5DigestAsHex(representation.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  private static long versionOf(Documents document) {
+    return document.getVersion() != null ? document.getVersion() : 0L;
+  }
+}
@@ -0,0 +1,91 @@
+package com.tadaah.utils;
+
+import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Restricts listings to the fields a caller asked for.
+ *
+ * <p>The requested fields become a MongoDB projection, so the other fields are neither read nor
+ * mapped, and the response only carries the requested fields instead of entities with empty
+ * values. The ID is always included, since cursors and links depend on it.
+ */
+public class FieldProjection {
+
+  public static final Set<String> DOCUMENT_FIELDS = Set.of(
+      "id", "name", "documentType", "userName", "fileUrl", "expiryDate", "expiryStatus", "verified",
+      "version");
+
+  public static final Set<String> USER_FIELDS = Set.of(
+      "userName", "firstName", "lastName", "createdDate", "lastModifiedDate");
+
+  private FieldProjection() {}
+
+  /**
+   * Returns the requested fields that cannot be projected.
+   *
+   * @param fields  The requested fields, or null for all fields.
+   * @param allowed The fields that may be requested.
+   * @return The unknown fields, empty if all are known.
+   */
+  public static List<String> unknownFields(Collection<String> fields, Set<String> allowed) {
+    if (fields == null) {
+      return List.of();
+    }
+    return fields.stream().filter(field -> !allowed.contains(field)).toList();
+  }
+
+  /**
+   * Adds the requested fields and the ID to the projection of a query. Without requested fields
+   * the query is left untouched and reads whole entities.
+   *
+   * @param query   The query to restrict.
+   * @param fields  The requested fields, or null or empty for all fields.
+   * @param idField The name of the ID property.
+   * @return The query.
+   */
+  public static Query apply(Query query, Collection<String> fields, String idField) {
+    if (fields != null && !fields.isEmpty()) {
+      query.fields().include(idField);
+      fields.forEach(field -> query.fields().include(field));
+    }
+    return query;
+  }
+
+  /**
+   * Replaces the entities of a page with maps of the requested fields and the ID, in request
+   * order.
+   *
+   * @param page    The page of projected entities.
+   * @param fields  The requested fields, or null or empty for whole entities.
+   * @param idField The name of the ID property.
+   * @return The trimmed page, or the page itself if no fields were requested.
+   */
+  public static PaginatedResponseDto<?> trim(PaginatedResponseDto<?> page,
+      Collection<String> fields, String idField) {
+    if (fields == null || fields.isEmpty()) {
+      return page;
+    }
+    Set<String> properties = new LinkedHashSet<>();
+    properties.add(idField);
+    properties.addAll(fields);
+
+    List<Map<String, Object>> content = new ArrayList<>(page.getContent().size());
+    for (Object entity : page.getContent()) {
+      BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+      Map<String, Object> values = new LinkedHashMap<>();
+      properties.forEach(property -> values.put(property, wrapper.getPropertyValue(property)));
+      content.add(values);
+    }
+    return page.withContent(content);
+  }
+}
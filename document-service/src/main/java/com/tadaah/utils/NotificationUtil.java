@@ -2,9 +2,12 @@ package com.tadaah.utils;
 
 import com.tadaah.exceptions.NotificationServiceException;
 import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationOutbox;
 import com.tadaah.models.NotificationType;
+import com.tadaah.models.OutboxStatus;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -27,12 +30,64 @@ public class NotificationUtil {
    */
   public static void sendNotification(RestTemplate restTemplate, String notificationServiceUrl,
       Documents documents, NotificationType notificationType) {
+    sendNotification(restTemplate, notificationServiceUrl,
+        buildNotificationRequest(documents, notificationType));
+  }
+
+  /**
+   * Sends a prepared notification to the notification service.
+   *
+   * @param restTemplate           The RestTemplate to use for sending the notification.
+   * @param notificationServiceUrl The URL of the notification service.
+   * @param request                The notification to send.
+   */
+  public static void sendNotification(RestTemplate restTemplate, String notificationServiceUrl,
+      NotificationRequest request) {
+    try {
+      restTemplate.postForEntity(notificationServiceUrl, request, Void.class);
+      log.info("Notification sent for action: {} on document named: {}", request.getEventType(),
+          request.getDocumentName());
+    } catch (Exception e) {
+      throw new NotificationServiceException(
+          "Failed to send notification for action: " + request.getEventType()
+              + " on document named: " + request.getDocumentName(),
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
+
+  /**
+   * Sends a batch of notifications to the notification service in a single request.
+   *
+   * @param restTemplate                The RestTemplate to use for sending the notifications.
+   * @param notificationServiceBatchUrl The batch URL of the notification service.
+   * @param requests                    The notifications to send.
+   */
+  public static void sendNotifications(RestTemplate restTemplate,
+      String notificationServiceBatchUrl, List<NotificationRequest> requests) {
+    try {
+      restTemplate.postForEntity(notificationServiceBatchUrl, requests, Void.class);
+      log.info("Notification batch of {} sent", requests.size());
+    } catch (Exception e) {
+      throw new NotificationServiceException(
+          "Failed to send notification batch of " + requests.size() + " notifications",
+          HttpStatus.INTERNAL_SERVER_ERROR, e);
+    }
+  }
 
+  /**
+   * Builds the notification payload for an action on a document.
+   *
+   * @param documents        The document object
+   * @param notificationType The type of notification (CREATE, UPDATE, DELETE).
+   * @return The notification request with the rendered message.
+   */
+  public static NotificationRequest buildNotificationRequest(Documents documents,
+      NotificationType notificationType) {
     String message = notificationType.getMessageTemplate()
         .replace("{{userName}}", documents.getUserName())
         .replace("{{documentName}}", documents.getName());
 
-    NotificationRequest request = new NotificationRequest(
+    return new NotificationRequest(
         documents.getUserName(),
         documents.getName(),
         LocalDateTime.now(),
@@ -40,16 +95,29 @@ public class NotificationUtil {
         message,
         documents.getId().toString()
     );
+  }
 
-    try {
-      restTemplate.postForEntity(notificationServiceUrl, request, Void.class);
-      log.info("Notification sent for action: {} on document named: {}", notificationType,
-          documents.getName());
-    } catch (Exception e) {
-      throw new NotificationServiceException(
-          "Failed to send notification for action: " + notificationType + " on document named: "
-              + documents.getName(), HttpStatus.INTERNAL_SERVER_ERROR, e);
-    }
+  /**
+   * Builds the outbox entry of a notification for an action on a document, due right away.
+   *
+   * @param document         The document object
+   * @param notificationType The type of notification (CREATE, UPDATE, DELETE).
+   * @return The pending outbox entry with the rendered message.
+   */
+  public static NotificationOutbox buildOutboxEntry(Documents document,
+      NotificationType notificationType) {
+    NotificationRequest request = buildNotificationRequest(document, notificationType);
+
+    NotificationOutbox entry = new NotificationOutbox();
+    entry.setDocumentId(request.getDocumentId());
+    entry.setReceiver(request.getReceiver());
+    entry.setDocumentName(request.getDocumentName());
+    entry.setEventType(notificationType);
+    entry.setMessage(request.getMessage());
+    entry.setTimestamp(request.getTimestamp());
+    entry.setStatus(OutboxStatus.PENDING);
+    entry.setNextAttemptAt(request.getTimestamp());
+    return entry;
   }
 
   @Data
@@ -0,0 +1,121 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.tadaah.cache.CacheWeight;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentCountCache;
+import com.tadaah.cache.UserLookupCache;
+import com.tadaah.config.CacheConfig;
+import com.tadaah.config.CacheInspector;
+import com.tadaah.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CacheConfigTest {
+
+  @Test
+  void caffeineBuilder_EvictsBeyondTheMaximumSize() {
+    Cache<Object, Object> cache = CacheConfig.caffeineBuilder("maximumSize=5")
+        .executor(Runnable::run)
+        .build();
+
+    for (int i = 0; i < 50; i++) {
+      cache.put("key-" + i, i);
+    }
+    cache.cleanUp();
+
+    assertEquals(5, cache.estimatedSize());
+    assertEquals(45, cache.stats().evictionCount());
+  }
+
+  @Test
+  void caffeineBuilder_WeighsEntriesByTheirCacheWeight() {
+    Cache<Object, Object> cache = CacheConfig.caffeineBuilder("maximumWeight=10")
+        .executor(Runnable::run)
+        .build();
+
+    for (int i = 0; i < 10; i++) {
+      cache.put("page-" + i, new Page(4));
+    }
+    cache.put("empty-page", new Page(0));
+    cache.cleanUp();
+
+    long weightedSize = cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    assertTrue(weightedSize <= 10, "Weighted size " + weightedSize + " exceeds the maximum");
+    assertTrue(cache.estimatedSize() <= 3, "Pages of weight 4 should not fit more than twice");
+    assertTrue(cache.stats().evictionWeight() >= 28);
+  }
+
+  @Test
+  void caffeineBuilder_ExpiresEntriesAfterWriteAndAfterAccess() {
+    AtomicLong nanos = new AtomicLong();
+    Cache<Object, Object> cache = CacheConfig.caffeineBuilder("maximumSize=10,expireAfterWrite=10m,expireAfterAccess=2m")
+        .executor(Runnable::run)
+        .ticker(nanos::get)
+        .build();
+
+    cache.put("read", 1);
+    cache.put("idle", 2);
+    for (int minute = 1; minute <= 9; minute++) {
+      nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+      assertNotNull(cache.getIfPresent("read"));
+      if (minute == 3) {
+        assertNull(cache.getIfPresent("idle"));  // Not read for more than two minutes
+      }
+    }
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(90));
+    assertNull(cache.getIfPresent("read"));  // Read recently, but written more than ten minutes ago
+  }
+
+  @Test
+  void cacheManager_BoundsEveryCacheAndReportsItsStatistics() {
+    CacheConfig cacheConfig = new CacheConfig();
+    ReflectionTestUtils.setField(cacheConfig, "filteredDocumentsCacheSpec", "maximumWeight=100");
+    ReflectionTestUtils.setField(cacheConfig, "defaultSpec", "maximumSize=7");
+    CacheManager cacheManager = cacheConfig.cacheManager(new DocumentCache("maximumSize=3"),
+        new DocumentCountCache(mock(MongoTemplate.class), "maximumSize=5"),
+        new UserLookupCache(mock(UserRepository.class), new SimpleMeterRegistry(), 9, 60000, 1000));
+
+    assertEquals(3, maximum(cacheManager, "documentsCache"));
+    assertEquals(5, maximum(cacheManager, "documentCountsCache"));
+    assertEquals(100, maximum(cacheManager, "filteredDocumentsCache"));
+    assertEquals(9, maximum(cacheManager, "usersLookupCache"));
+    // Caches created on demand are bounded by the default spec
+    assertEquals(7, maximum(cacheManager, "someOtherCache"));
+
+    org.springframework.cache.Cache filtered = cacheManager.getCache("filteredDocumentsCache");
+    filtered.put("page", new Page(4));
+    filtered.get("page");
+    filtered.get("missing");
+
+    CacheInspector cacheInspector = new CacheInspector();
+    ReflectionTestUtils.setField(cacheInspector, "cacheManager", cacheManager);
+    Map<String, Object> stats = cacheInspector.getCacheStats("filteredDocumentsCache");
+
+    assertEquals(1L, stats.get("hitCount"));
+    assertEquals(1L, stats.get("missCount"));
+    assertEquals(100L, stats.get("maximum"));
+    assertEquals(4L, stats.get("weightedSize"));
+  }
+
+  private static long maximum(CacheManager cacheManager, String cacheName) {
+    CaffeineCache cache = (CaffeineCache) cacheManager.getCache(cacheName);
+    return cache.getNativeCache().policy().eviction().orElseThrow().getMaximum();
+  }
+
+  private record Page(int weight) implements CacheWeight {}
+}
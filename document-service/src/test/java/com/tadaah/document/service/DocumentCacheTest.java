@@ -0,0 +1,81 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import java.util.List;
+import java.util.Optional;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DocumentCacheTest {
+
+  private DocumentCache documentCache;
+
+  @BeforeEach
+  void setUp() {
+    documentCache = new DocumentCache("maximumSize=2");
+  }
+
+  @Test
+  void getByUser_ReturnsAllDocumentsOnceOwnerWasLoaded() {
+    Documents passport = document("john_doe_Passport", "john_doe");
+    Documents license = document("john_doe_License", "john_doe");
+
+    documentCache.put(passport);
+    assertFalse(documentCache.getByUser("john_doe").isPresent());  // Not known to be complete
+
+    documentCache.putAllForUser("john_doe", List.of(passport, license));
+
+    assertEquals(2, documentCache.getByUser("john_doe").orElseThrow().size());
+    assertEquals(Optional.of(license), documentCache.getByName("john_doe_License"));
+  }
+
+  @Test
+  void put_MovesIndexEntriesWhenNameOrOwnerChanges() {
+    Documents passport = document("john_doe_Passport", "john_doe");
+    documentCache.putAllForUser("john_doe", List.of(passport));
+    documentCache.putAllForUser("jane_doe", List.of());
+
+    Documents moved = document("jane_doe_Passport", "jane_doe");
+    moved.setId(new ObjectId(passport.getId()));
+    documentCache.put(moved);
+
+    assertTrue(documentCache.getByUser("john_doe").orElseThrow().isEmpty());
+    assertEquals(List.of(moved), documentCache.getByUser("jane_doe").orElseThrow());
+    assertFalse(documentCache.getByName("john_doe_Passport").isPresent());
+    assertEquals(Optional.of(moved), documentCache.getByName("jane_doe_Passport"));
+  }
+
+  @Test
+  void evictionOfAnOwnersDocumentMakesTheOwnerIncomplete() {
+    Documents passport = document("john_doe_Passport", "john_doe");
+    Documents license = document("john_doe_License", "john_doe");
+    Documents other = document("jane_doe_Passport", "jane_doe");
+    documentCache.putAllForUser("john_doe", List.of(passport, license));
+
+    documentCache.put(other);
+    documentCache.nativeCache().cleanUp();  // Run the pending size eviction
+
+    // Admission decides which entry is evicted; the owner is only complete if none of theirs was
+    assertEquals(2, documentCache.size());
+    boolean ownerIntact = documentCache.get(passport.getId()).isPresent()
+        && documentCache.get(license.getId()).isPresent();
+    assertEquals(ownerIntact, documentCache.getByUser("john_doe").isPresent());
+    assertEquals(!ownerIntact, documentCache.get(other.getId()).isPresent());
+  }
+
+  private Documents document(String name, String userName) {
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setName(name);
+    document.setUserName(userName);
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    return document;
+  }
+}
@@ -0,0 +1,149 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.config.MongoIndexManager;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.ExpiryStatus;
+import com.tadaah.models.NotificationType;
+import com.tadaah.schedulers.DocumentExpiryScanner;
+import com.tadaah.services.NotificationOutboxService;
+import com.tadaah.services.impl.SchedulerLeaseServiceImpl;
+import com.tadaah.utils.ETagUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the expiry scanner against MongoDB. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DocumentExpiryScannerTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2024, 8, 9);
+
+  @Container
+  private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private MongoClient mongoClient;
+
+  private MongoTemplate mongoTemplate;
+
+  private NotificationOutboxService notificationOutboxService;
+
+  private DocumentExpiryScanner scanner;
+
+  @BeforeEach
+  void setUp() {
+    mongoClient = MongoClients.create(mongo.getConnectionString());
+    mongoTemplate = new MongoTemplate(mongoClient, "documentdb");
+    mongoTemplate.getDb().drop();
+    new MongoIndexManager(mongoTemplate, true).ensureIndexes();
+
+    notificationOutboxService = mock(NotificationOutboxService.class);
+    scanner = new DocumentExpiryScanner(mongoTemplate, new SchedulerLeaseServiceImpl(mongoTemplate),
+        notificationOutboxService, mock(DocumentCache.class), new DocumentFilterGenerations(16),
+        new SimpleMeterRegistry(), 14, 2, 100, 60000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mongoClient.close();
+  }
+
+  @Test
+  void scanMarksExpiredAndExpiringDocumentsInBatches() {
+    Documents expired = insert(TODAY.minusDays(1));
+    Documents expiring1 = insert(TODAY);
+    Documents expiring2 = insert(TODAY.plusDays(5));
+    Documents expiring3 = insert(TODAY.plusDays(13));
+    Documents valid = insert(TODAY.plusDays(30));
+
+    assertEquals(4, scanner.scan(TODAY));
+
+    assertEquals(ExpiryStatus.EXPIRED, statusOf(expired));
+    assertEquals(ExpiryStatus.EXPIRING, statusOf(expiring1));
+    assertEquals(ExpiryStatus.EXPIRING, statusOf(expiring2));
+    assertEquals(ExpiryStatus.EXPIRING, statusOf(expiring3));
+    assertNull(statusOf(valid));
+    // One batch of expired documents and two batches of two expiring documents
+    verify(notificationOutboxService, times(1)).enqueueAll(anyList(), eq(NotificationType.EXPIRED));
+    verify(notificationOutboxService, times(2)).enqueueAll(anyList(), eq(NotificationType.EXPIRING));
+
+    // Marked documents are not reminded again, until an expiring one expires
+    assertEquals(0, scanner.scan(TODAY));
+    assertEquals(1, scanner.scan(TODAY.plusDays(1)));
+    assertEquals(ExpiryStatus.EXPIRED, statusOf(expiring1));
+  }
+
+  @Test
+  void scanChangesTheETagOfMarkedDocuments() {
+    Documents expiring = insert(TODAY.plusDays(5));
+    Documents valid = insert(TODAY.plusDays(30));
+    String expiringETag = ETagUtil.documentETag(reload(expiring));
+    String validETag = ETagUtil.documentETag(reload(valid));
+    String listETag = ETagUtil.documentsETag(List.of(reload(expiring), reload(valid)));
+
+    assertEquals(1, scanner.scan(TODAY));
+
+    // Clients revalidating with If-None-Match must see the new status instead of a 304
+    assertNotEquals(expiringETag, ETagUtil.documentETag(reload(expiring)));
+    assertNotEquals(listETag, ETagUtil.documentsETag(List.of(reload(expiring), reload(valid))));
+    assertEquals(validETag, ETagUtil.documentETag(reload(valid)));
+  }
+
+  @Test
+  void leaseIsHeldByOneInstanceAtATime() {
+    SchedulerLeaseServiceImpl first = new SchedulerLeaseServiceImpl(mongoTemplate);
+    SchedulerLeaseServiceImpl second = new SchedulerLeaseServiceImpl(mongoTemplate);
+
+    assertTrue(first.tryAcquire("job", Duration.ofMinutes(1)));
+    assertFalse(second.tryAcquire("job", Duration.ofMinutes(1)));
+    assertTrue(first.tryAcquire("job", Duration.ofMinutes(1)));
+
+    first.release("job");
+    assertTrue(second.tryAcquire("job", Duration.ofMinutes(1)));
+    assertFalse(first.tryAcquire("job", Duration.ofMinutes(1)));
+  }
+
+  private Documents insert(LocalDate expiryDate) {
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setName("document_" + expiryDate);
+    document.setUserName("john_doe");
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    document.setExpiryDate(expiryDate);
+    return mongoTemplate.insert(document);
+  }
+
+  private ExpiryStatus statusOf(Documents document) {
+    return reload(document).getExpiryStatus();
+  }
+
+  private Documents reload(Documents document) {
+    return mongoTemplate.findById(document.getId(), Documents.class);
+  }
+}
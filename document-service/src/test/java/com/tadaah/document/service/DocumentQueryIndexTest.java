@@ -0,0 +1,227 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.tadaah.config.MongoIndexManager;
+import com.tadaah.config.UserSearchKeyBackfill;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.response.IndexReportDto;
+import com.tadaah.models.UserSearchMode;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.UserRepositoryCustomImpl;
+import com.tadaah.utils.DocumentQueryBuilder;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Asserts that every filter combination and the username prefix search are answered by an index
+ * scan. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DocumentQueryIndexTest {
+
+  @Container
+  private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private static MongoClient mongoClient;
+
+  private static MongoTemplate mongoTemplate;
+
+  @BeforeAll
+  static void setUp() {
+    mongoClient = MongoClients.create(mongo.getConnectionString());
+    mongoTemplate = new MongoTemplate(mongoClient, "documentdb");
+
+    // Create the declared indexes, as the index manager does at startup
+    new MongoIndexManager(mongoTemplate, true).ensureIndexes();
+
+    List<Documents> documents = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Documents document = new Documents();
+      document.setId(new ObjectId());
+      document.setUserName("user_" + (i % 20));
+      document.setName(document.getUserName() + "_document_" + i);
+      document.setDocumentType(DocumentType.values()[i % DocumentType.values().length]);
+      document.setFileUrl("http://example.com/" + i + ".pdf");
+      document.setExpiryDate(LocalDate.now().plusDays(90));
+      document.setVerified(i % 3 != 0);
+      document.setNotificationError(i % 10 == 0 ? "Notification failed: timeout" : null);
+      documents.add(document);
+    }
+    mongoTemplate.insertAll(documents);
+
+    for (String userName : List.of("John", "johnny_b", "jo.ann", "Mary", "Kim", "KIM", "kim_a", "kimberly",
+        "Ziggy", "ziggy_\uD83D\uDE00", "ziggy_\uD83D\uDE01", "zigzag")) {
+      Users user = new Users();
+      user.setUserName(userName);
+      mongoTemplate.insert(user);
+    }
+    // A user saved before the lower-case username existed
+    mongoTemplate.getCollection("users").insertOne(new Document("_id", "JOE"));
+    new UserSearchKeyBackfill(mongoTemplate, 2).backfill();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    mongoClient.close();
+  }
+
+  static Stream<Arguments> filters() {
+    return Stream.of(
+        Arguments.of("user_1", null, null, null),
+        Arguments.of("user_1", DocumentType.LEGAL_DOCUMENT, null, null),
+        Arguments.of("user_1", DocumentType.LEGAL_DOCUMENT, true, null),
+        Arguments.of("user_1", null, false, true),
+        Arguments.of(null, DocumentType.OTHER, null, null),
+        Arguments.of(null, DocumentType.OTHER, true, null),
+        Arguments.of(null, null, false, null),
+        Arguments.of(null, null, null, true),
+        Arguments.of(null, DocumentType.FINANCIAL_DOCUMENT, null, true));
+  }
+
+  @ParameterizedTest
+  @MethodSource("filters")
+  void filterQueriesUseAnIndexScan(String userName, DocumentType documentType, Boolean verified,
+      Boolean notificationFailed) {
+    Query query = DocumentQueryBuilder.create()
+        .userName(userName)
+        .documentType(documentType)
+        .verified(verified)
+        .notificationFailed(notificationFailed)
+        .build();
+    Document mappedQuery = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(
+        query.getQueryObject(),
+        mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Documents.class));
+
+    Document explain = mongoTemplate.getCollection("documents").find(mappedQuery).explain();
+    String winningPlan = explain.get("queryPlanner", Document.class)
+        .get("winningPlan", Document.class).toJson();
+
+    assertTrue(winningPlan.contains("IXSCAN"), "Expected an index scan for " + mappedQuery.toJson()
+        + " but got " + winningPlan);
+    assertFalse(winningPlan.contains("COLLSCAN"), "Unexpected collection scan for "
+        + mappedQuery.toJson());
+  }
+
+  @Test
+  void declaredIndexesAreReportedAsPresent() {
+    IndexReportDto report = new MongoIndexManager(mongoTemplate, true).report().stream()
+        .filter(collection -> collection.getCollection().equals("documents"))
+        .findFirst()
+        .orElseThrow();
+
+    assertTrue(report.getMissing().isEmpty(), "Missing indexes " + report.getMissing());
+    assertTrue(report.getMismatched().isEmpty(), "Mismatched indexes " + report.getMismatched());
+    assertTrue(report.getUndeclared().isEmpty(), "Undeclared indexes " + report.getUndeclared());
+  }
+
+  @Test
+  void usernamePrefixSearchIsAnsweredFromTheIndexAlone() {
+    UserRepositoryCustomImpl userRepository = userRepository();
+
+    assertEquals(List.of("jo.ann"),
+        userRepository.findByUsername("o.a", UserSearchMode.CONTAINS, null, PageRequest.of(0, 10))
+            .map(Users::getUserName).getContent());
+
+    List<String> completions = new ArrayList<>();
+    Document profile = profileUserQuery(() -> completions.addAll(userRepository.autocomplete("JO", 10)));
+
+    assertEquals(List.of("jo.ann", "JOE", "John", "johnny_b"), completions);
+    assertEquals(4, profile.get("nreturned", Number.class).intValue());
+    assertEquals(0, profile.get("docsExamined", Number.class).intValue(),
+        "Expected a covered query but got " + profile.getString("planSummary"));
+  }
+
+  @Test
+  void usernamePrefixCursorPagesFollowTheLowerCaseIndex() {
+    UserRepositoryCustomImpl userRepository = userRepository();
+
+    assertEquals(List.of("KIM", "Kim"), userNames(
+        userRepository.findByUsernameAfter("ki", UserSearchMode.PREFIX, null, null, 2)));
+    // Usernames differing only in case are ordered by the username itself
+    assertEquals(List.of("Kim", "kim_a"), userNames(
+        userRepository.findByUsernameAfter("ki", UserSearchMode.PREFIX, "KIM", null, 2)));
+    assertEquals(List.of("kimberly"), userNames(
+        userRepository.findByUsernameAfter("ki", UserSearchMode.PREFIX, "kim_a", null, 2)));
+
+    List<Users> page = new ArrayList<>();
+    Document profile = profileUserQuery(() -> page.addAll(
+        userRepository.findByUsernameAfter("KI", UserSearchMode.PREFIX, "Kim", null, 2)));
+
+    assertEquals(List.of("kim_a", "kimberly"), userNames(page));
+    assertTrue(profile.getString("planSummary").contains("userNameLower: 1, _id: 1"),
+        "Expected a scan of the (userNameLower, _id) index but got " + profile.getString("planSummary"));
+    assertNotEquals(Boolean.TRUE, profile.get("hasSortStage"), "Unexpected in-memory sort");
+  }
+
+  @Test
+  void usernamePrefixSearchMatchesSupplementaryCharacters() {
+    UserRepositoryCustomImpl userRepository = userRepository();
+
+    // The smiley sorts after every character of the basic multilingual plane
+    assertEquals(List.of("Ziggy", "ziggy_\uD83D\uDE00", "ziggy_\uD83D\uDE01"),
+        userRepository.autocomplete("ZIGGY", 10));
+    assertEquals(List.of("ziggy_\uD83D\uDE00"),
+        userRepository.autocomplete("ziggy_\uD83D\uDE00", 10));
+    assertEquals(List.of("ziggy_\uD83D\uDE00", "ziggy_\uD83D\uDE01"), userNames(
+        userRepository.findByUsernameAfter("ziggy_", UserSearchMode.PREFIX, null, null, 10)));
+  }
+
+  private static UserRepositoryCustomImpl userRepository() {
+    UserRepositoryCustomImpl userRepository = new UserRepositoryCustomImpl();
+    ReflectionTestUtils.setField(userRepository, "mongoTemplate", mongoTemplate);
+    return userRepository;
+  }
+
+  /**
+   * Runs a repository query with the profiler on and returns the profile of the last query it
+   * sent to the users collection, so the query is checked exactly as the repository builds it.
+   */
+  private static Document profileUserQuery(Runnable query) {
+    MongoDatabase database = mongoClient.getDatabase("documentdb");
+    database.runCommand(new Document("profile", 0));
+    database.getCollection("system.profile").drop();
+    database.runCommand(new Document("profile", 2));
+    try {
+      query.run();
+    } finally {
+      database.runCommand(new Document("profile", 0));
+    }
+    Document profile = database.getCollection("system.profile")
+        .find(new Document("ns", "documentdb.users").append("op", "query"))
+        .sort(new Document("ts", -1))
+        .first();
+    assertNotNull(profile, "The query was not profiled");
+    return profile;
+  }
+
+  private static List<String> userNames(List<Users> users) {
+    return users.stream().map(Users::getUserName).toList();
+  }
+}
@@ -1,24 +1,50 @@
 package com.tadaah.document.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.cache.UserLookupCache;
 import com.tadaah.exceptions.DocumentServiceException;
+import com.tadaah.models.CountMode;
 import com.tadaah.models.DocumentType;
 import com.tadaah.models.Documents;
 import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.Dto.response.BulkDocumentResponseDto;
+import com.tadaah.models.Dto.response.DocumentStatsDto;
+import com.tadaah.models.Dto.response.PaginatedResponseDto;
+import com.tadaah.models.NotificationType;
 import com.tadaah.models.Users;
 import com.tadaah.repositories.DocumentRepository;
 import com.tadaah.repositories.UserRepository;
+import com.tadaah.services.NotificationOutboxService;
 import com.tadaah.services.impl.DocumentServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,7 +53,17 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class DocumentServiceImplTest {
 
@@ -38,7 +74,7 @@ class DocumentServiceImplTest {
   private UserRepository userRepository;
 
   @Mock
-  private RestTemplate restTemplate;
+  private NotificationOutboxService notificationOutboxService;
 
   @Mock
   private CacheManager cacheManager;
@@ -46,13 +82,32 @@ class DocumentServiceImplTest {
   @Mock
   private Cache cache;
 
+  @Mock
+  private MongoTemplate mongoTemplate;
+
+  @Mock
+  private BulkOperations bulkOperations;
+
   @InjectMocks
   private DocumentServiceImpl documentService;
 
+  private DocumentCache documentCache;
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
     when(cacheManager.getCache(anyString())).thenReturn(cache);
+    ReflectionTestUtils.setField(documentService, "userLookupCache",
+        new UserLookupCache(userRepository, new SimpleMeterRegistry(), 100, 60000, 60000));
+    ReflectionTestUtils.setField(documentService, "validator",
+        Validation.buildDefaultValidatorFactory().getValidator());
+    ReflectionTestUtils.setField(documentService, "maxBulkSize", 100);
+    ReflectionTestUtils.setField(documentService, "filterGenerations",
+        new DocumentFilterGenerations(64));
+    documentCache = new DocumentCache("maximumSize=100");
+    ReflectionTestUtils.setField(documentService, "documentCache", documentCache);
+    ReflectionTestUtils.setField(documentService, "documentStatistics",
+        new DocumentStatistics(mongoTemplate));
   }
 
   @Test
@@ -88,8 +143,10 @@ class DocumentServiceImplTest {
     assertEquals(documentDto.getName(), result.getName());
     assertEquals(document.getId(), result.getId());
     verify(documentRepository, times(1)).save(any(Documents.class));
-    verify(cacheManager, times(1)).getCache("documentsCache");
-    verify(cache, times(3)).put(any(), any()); // assuming you're caching by ID, name, and username
+    assertEquals(Optional.of(result), documentCache.get(result.getId()));  // Cached by id and name
+    assertEquals(Optional.of(result), documentCache.getByName(result.getName()));
+    verify(notificationOutboxService, times(1)).enqueue(document, NotificationType.CREATE);
+    verify(userRepository, times(1)).findById("john_doe");  // Owner is looked up once per create
   }
 
 
@@ -115,7 +172,7 @@ class DocumentServiceImplTest {
 
     assertEquals("Document name must start with the owner's username.", exception.getMessage());
     verify(documentRepository, times(0)).save(any(Documents.class)); // Ensure that the save operation is never called
-    verify(cacheManager, times(0)).getCache(anyString()); // Ensure that caching operations are never called
+    assertEquals(0, documentCache.size()); // Ensure that nothing is cached
   }
 
   @Test
@@ -140,7 +197,7 @@ class DocumentServiceImplTest {
 
     assertEquals("Document expiry date must be at least 60 days in the future.", exception.getMessage());
     verify(documentRepository, times(0)).save(any(Documents.class)); // Ensure that the save operation is never called
-    verify(cacheManager, times(0)).getCache(anyString()); // Ensure that caching operations are never called
+    assertEquals(0, documentCache.size()); // Ensure that nothing is cached
   }
 
   @Test
@@ -158,6 +215,7 @@ class DocumentServiceImplTest {
     existingDocument.setFileUrl("http://example.com/file.pdf");
     existingDocument.setExpiryDate(LocalDate.now().plusDays(90));  // Expiry date 90 days in the future
     existingDocument.setVerified(true);
+    existingDocument.setVersion(2L);
 
     // Prepare the incoming DocumentDto with updated information
     DocumentDto incomingDocumentDto = new DocumentDto();
@@ -166,13 +224,26 @@ class DocumentServiceImplTest {
     incomingDocumentDto.setUserName("john_doe");
     incomingDocumentDto.setFileUrl("http://example.com/file_updated.pdf");
     incomingDocumentDto.setExpiryDate(LocalDate.now().plusDays(120)); // New valid expiry date
+    incomingDocumentDto.setVersion(existingDocument.getVersion());
 
     // Mock the repositories
     Users user = new Users();
     user.setUserName("john_doe");
 
+    // The state MongoDB returns after the update
+    Documents storedDocument = new Documents();
+    storedDocument.setId(objectId);
+    storedDocument.setName(incomingDocumentDto.getName());
+    storedDocument.setDocumentType(DocumentType.ID_VERIFICATION);
+    storedDocument.setUserName("john_doe");
+    storedDocument.setFileUrl(incomingDocumentDto.getFileUrl());
+    storedDocument.setExpiryDate(incomingDocumentDto.getExpiryDate());
+    storedDocument.setVerified(true);
+    storedDocument.setVersion(existingDocument.getVersion() + 1);
+
     when(documentRepository.findById(documentId)).thenReturn(Optional.of(existingDocument));
-    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(documentRepository.updateFields(eq(documentId), eq(2L), any(), any(Update.class)))
+        .thenReturn(Optional.of(storedDocument));  // Returns the new state
     when(userRepository.findById("john_doe")).thenReturn(Optional.of(user));  // Mock user retrieval
 
     // Act
@@ -182,9 +253,91 @@ class DocumentServiceImplTest {
     assertEquals(incomingDocumentDto.getName(), result.getName());
     assertEquals(incomingDocumentDto.getFileUrl(), result.getFileUrl());
     assertEquals(incomingDocumentDto.getExpiryDate(), result.getExpiryDate());
-    verify(documentRepository, times(1)).save(any(Documents.class));  // Ensure save is called once
-    verify(cacheManager, times(1)).getCache("documentsCache");
-    verify(cache, times(3)).put(any(), any()); // Assuming caching by ID, name, and username
+    assertEquals(existingDocument.getVersion() + 1, result.getVersion());
+    assertSame(storedDocument, result);  // The new state comes from MongoDB
+    verify(documentRepository, never()).save(any(Documents.class));
+    assertEquals(Optional.of(result), documentCache.get(documentId));  // Cached by id and name
+    assertEquals(Optional.of(result), documentCache.getByName(incomingDocumentDto.getName()));
+    verify(notificationOutboxService, times(1)).enqueue(result, NotificationType.UPDATE);
+  }
+
+  @Test
+  void updateDocument_VersionConflict() {
+    // Arrange
+    ObjectId objectId = new ObjectId();
+    String documentId = objectId.toHexString();
+
+    Documents currentDocument = new Documents();
+    currentDocument.setId(objectId);
+    currentDocument.setName("john_doe_Passport");
+    currentDocument.setUserName("john_doe");
+    currentDocument.setVersion(4L);  // Another writer already moved the document on
+
+    DocumentDto incomingDocumentDto = new DocumentDto();
+    incomingDocumentDto.setFileUrl("http://example.com/file_updated.pdf");
+    incomingDocumentDto.setVersion(3L);
+
+    when(documentRepository.findById(documentId)).thenReturn(Optional.of(currentDocument));
+
+    // Act & Assert
+    DocumentServiceException exception = assertThrows(DocumentServiceException.class, () -> {
+      documentService.updateDocument(documentId, incomingDocumentDto);
+    });
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    verify(documentRepository, never()).updateFields(any(), anyLong(), any(), any());
+    verify(notificationOutboxService, never()).enqueue(any(Documents.class), any());
+  }
+
+  @Test
+  void updateDocument_ConcurrentConflict() {
+    // Arrange
+    ObjectId objectId = new ObjectId();
+    String documentId = objectId.toHexString();
+
+    Documents readDocument = new Documents();
+    readDocument.setId(objectId);
+    readDocument.setName("john_doe_Passport");
+    readDocument.setUserName("john_doe");
+    readDocument.setVersion(3L);
+
+    Documents currentDocument = new Documents();
+    currentDocument.setId(objectId);
+    currentDocument.setName("john_doe_Passport");
+    currentDocument.setUserName("john_doe");
+    currentDocument.setVersion(4L);  // Another writer got in between the read and the update
+
+    DocumentDto incomingDocumentDto = new DocumentDto();
+    incomingDocumentDto.setFileUrl("http://example.com/file_updated.pdf");
+    incomingDocumentDto.setVersion(3L);
+
+    when(documentRepository.findById(documentId))
+        .thenReturn(Optional.of(readDocument), Optional.of(currentDocument));
+    when(documentRepository.updateFields(eq(documentId), eq(3L), any(), any(Update.class)))
+        .thenReturn(Optional.empty());
+
+    // Act & Assert
+    DocumentServiceException exception = assertThrows(DocumentServiceException.class, () -> {
+      documentService.updateDocument(documentId, incomingDocumentDto);
+    });
+
+    assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+    verify(notificationOutboxService, never()).enqueue(any(Documents.class), any());
+  }
+
+  @Test
+  void updateDocument_MissingVersion() {
+    // Arrange
+    DocumentDto incomingDocumentDto = new DocumentDto();
+    incomingDocumentDto.setFileUrl("http://example.com/file_updated.pdf");
+
+    // Act & Assert
+    DocumentServiceException exception = assertThrows(DocumentServiceException.class, () -> {
+      documentService.updateDocument(new ObjectId().toHexString(), incomingDocumentDto);
+    });
+
+    assertEquals(HttpStatus.PRECONDITION_REQUIRED, exception.getStatus());
+    verify(documentRepository, never()).updateFields(any(), anyLong(), any(), any());
   }
 
   @Test
@@ -212,8 +365,331 @@ class DocumentServiceImplTest {
     // Assert
     verify(documentRepository, times(1)).findById(documentId);  // Ensure findById is called once
     verify(documentRepository, times(1)).deleteById(documentId);  // Ensure deleteById is called once
+    verify(notificationOutboxService, times(1)).enqueue(existingDocument, NotificationType.DELETE);
   }
 
+  @Test
+  void createDocument_OutboxFailureFlagsNotificationError() {
+    // Arrange
+    DocumentDto documentDto = new DocumentDto();
+    documentDto.setName("john_doe_Passport");
+    documentDto.setDocumentType(DocumentType.ID_VERIFICATION);
+    documentDto.setUserName("john_doe");
+    documentDto.setFileUrl("http://example.com/file.pdf");
+    documentDto.setExpiryDate(LocalDate.now().plusDays(90));
+
+    Users user = new Users();
+    user.setUserName("john_doe");
+
+    when(userRepository.findById("john_doe")).thenReturn(Optional.of(user));
+    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> {
+      Documents saved = invocation.getArgument(0);
+      if (saved.getId() == null) {
+        saved.setId(new ObjectId());
+      }
+      return saved;
+    });
+    doThrow(new RuntimeException("outbox unavailable"))
+        .when(notificationOutboxService).enqueue(any(Documents.class), eq(NotificationType.CREATE));
+
+    // Act
+    Documents result = documentService.createDocument(documentDto);
+
+    // Assert
+    assertEquals("Notification failed: outbox unavailable", result.getNotificationError());
+    verify(documentRepository, times(1)).save(any(Documents.class));
+    verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class),
+        eq(Documents.class));  // The error is recorded with a targeted update
+  }
+
+
+  @Test
+  void getDocumentStats_FollowsCreatesFlagsAndDeletes() {
+    // Arrange
+    DocumentDto documentDto = new DocumentDto();
+    documentDto.setName("john_doe_Passport");
+    documentDto.setDocumentType(DocumentType.ID_VERIFICATION);
+    documentDto.setUserName("john_doe");
+    documentDto.setFileUrl("http://example.com/file.pdf");
+    documentDto.setExpiryDate(LocalDate.now().plusDays(90));
+
+    Users user = new Users();
+    user.setUserName("john_doe");
+
+    when(userRepository.findById("john_doe")).thenReturn(Optional.of(user));
+    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> {
+      Documents saved = invocation.getArgument(0);
+      saved.setId(new ObjectId());
+      return saved;
+    });
+    doThrow(new RuntimeException("outbox unavailable"))
+        .when(notificationOutboxService).enqueue(any(Documents.class), eq(NotificationType.CREATE));
+
+    // Act
+    Documents first = documentService.createDocument(documentDto);
+    documentDto.setName("john_doe_Visa");
+    documentService.createDocument(documentDto);
+    when(documentRepository.findById(first.getId())).thenReturn(Optional.of(first));
+    documentService.deleteDocument(first.getId());
+    DocumentStatsDto stats = documentService.getDocumentStats("john_doe");
+
+    // Assert
+    assertEquals(1, stats.getTotal());
+    assertEquals(1L, stats.getByType().get(DocumentType.ID_VERIFICATION));
+    assertEquals(0L, stats.getByType().get(DocumentType.LEGAL_DOCUMENT));
+    assertEquals(1, stats.getVerified() + stats.getUnverified());
+    assertEquals(1, stats.getNotificationFailed());  // Both were flagged, one is deleted
+    assertEquals(1L, stats.getUserDocuments());
+  }
+
+  @Test
+  void getDocuments_OnlyWritesForTheFilteredUserInvalidateCachedPages() {
+    // Arrange
+    Cache filteredCache = new ConcurrentMapCache("filteredDocumentsCache");
+    when(cacheManager.getCache("filteredDocumentsCache")).thenReturn(filteredCache);
+    Pageable pageable = PageRequest.of(0, 10);
+    when(documentRepository.findByFilter(null, "john_doe", null, null, null, pageable))
+        .thenReturn(new PageImpl<>(List.of(), pageable, 0));
+
+    Documents otherUsersDocument = new Documents();
+    otherUsersDocument.setId(new ObjectId());
+    otherUsersDocument.setUserName("jane_doe");
+    otherUsersDocument.setDocumentType(DocumentType.OTHER);
+    Documents filteredUsersDocument = new Documents();
+    filteredUsersDocument.setId(new ObjectId());
+    filteredUsersDocument.setUserName("john_doe");
+    filteredUsersDocument.setDocumentType(DocumentType.OTHER);
+    when(documentRepository.findById(otherUsersDocument.getId()))
+        .thenReturn(Optional.of(otherUsersDocument));
+    when(documentRepository.findById(filteredUsersDocument.getId()))
+        .thenReturn(Optional.of(filteredUsersDocument));
+
+    // Act & Assert
+    documentService.getDocuments(null, "john_doe", null, null, pageable);
+    documentService.deleteDocument(otherUsersDocument.getId());
+    documentService.getDocuments(null, "john_doe", null, null, pageable);
+    verify(documentRepository, times(1)).findByFilter(null, "john_doe", null, null, null, pageable);
+
+    documentService.deleteDocument(filteredUsersDocument.getId());
+    documentService.getDocuments(null, "john_doe", null, null, pageable);
+    verify(documentRepository, times(2)).findByFilter(null, "john_doe", null, null, null, pageable);
+  }
+
+  @Test
+  void getDocuments_CountModeNoneReadsASliceWithoutTotals() {
+    // Arrange
+    Pageable pageable = PageRequest.of(0, 1);
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    when(documentRepository.findSliceByFilter(DocumentType.OTHER, null, null, null, null, pageable))
+        .thenReturn(new SliceImpl<>(List.of(document), pageable, true));
+
+    // Act
+    PaginatedResponseDto<Documents> result = documentService.getDocuments(DocumentType.OTHER,
+        null, null, null, pageable, CountMode.NONE, null);
+
+    // Assert
+    assertEquals(List.of(document), result.getContent());
+    assertTrue(result.isHasNext());
+    assertNull(result.getTotalElements());
+    verify(documentRepository, never()).findByFilter(any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void getDocuments_UnknownFieldIsRejected() {
+    DocumentServiceException exception = assertThrows(DocumentServiceException.class,
+        () -> documentService.getDocuments(null, null, null, null, PageRequest.of(0, 10),
+            CountMode.EXACT, List.of("name", "notificationError")));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    verify(documentRepository, never()).findByFilter(any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void countDocuments_CountsAgainOnlyAfterAWriteForTheFilteredUser() {
+    // Arrange
+    when(cacheManager.getCache("filteredDocumentsCache"))
+        .thenReturn(new ConcurrentMapCache("filteredDocumentsCache"));
+    when(documentRepository.countByFilter(null, "john_doe", null, null)).thenReturn(3L, 2L);
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setUserName("john_doe");
+    when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+
+    // Act & Assert
+    assertEquals(3L, documentService.countDocuments(null, "john_doe", null, null));
+    assertEquals(3L, documentService.countDocuments(null, "john_doe", null, null));
+    documentService.deleteDocument(document.getId());
+    assertEquals(2L, documentService.countDocuments(null, "john_doe", null, null));
+    verify(documentRepository, times(2)).countByFilter(null, "john_doe", null, null);
+  }
+
+  @Test
+  void exportDocuments_WritesOneJsonLinePerDocument() throws Exception {
+    // Arrange
+    ReflectionTestUtils.setField(documentService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+    ReflectionTestUtils.setField(documentService, "exportBatchSize", 2);
+    ReflectionTestUtils.setField(documentService, "exportBufferSize", 16);
+    Documents passport = new Documents();
+    passport.setId(new ObjectId());
+    passport.setName("john_doe_Passport");
+    passport.setNotificationError("Notification failed");
+    Documents license = new Documents();
+    license.setId(new ObjectId());
+    license.setName("john_doe_License");
+    when(mongoTemplate.stream(any(Query.class), eq(Documents.class)))
+        .thenReturn(Stream.of(passport, license));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // Act
+    long exported = documentService.exportDocuments(null, "john_doe", null, out);
+
+    // Assert
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, exported);
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].contains("\"name\":\"john_doe_Passport\""));
+    assertFalse(lines[0].contains("notificationError"));
+    assertTrue(lines[1].contains("\"name\":\"john_doe_License\""));
+  }
+
+  @Test
+  void getDocument_ReadsThroughTheDocumentCache() {
+    // Arrange
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setName("john_doe_Passport");
+    document.setUserName("john_doe");
+    document.setVersion(3L);
+    when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+    when(documentRepository.findVersionById(document.getId()))
+        .thenReturn(Optional.of(stamp(document.getId(), 3L)));
+
+    // Act
+    Documents first = documentService.getDocument(document.getId());
+    Documents second = documentService.getDocument(document.getId());
+
+    // Assert
+    assertEquals(document, first);
+    assertEquals(document, second);
+    verify(documentRepository, times(1)).findById(document.getId());  // Second read is cached
+    verify(documentRepository, times(1)).findVersionById(document.getId());  // and revalidated
+  }
+
+  @Test
+  void getDocument_RereadsADocumentChangedByAnotherInstance() {
+    // Arrange
+    Documents cached = new Documents();
+    cached.setId(new ObjectId());
+    cached.setName("john_doe_Passport");
+    cached.setUserName("john_doe");
+    cached.setVersion(3L);
+    documentCache.put(cached);
+
+    Documents stored = new Documents();
+    stored.setId(new ObjectId(cached.getId()));
+    stored.setName("john_doe_Passport_Renewed");
+    stored.setUserName("john_doe");
+    stored.setVersion(4L);
+    when(documentRepository.findVersionById(cached.getId()))
+        .thenReturn(Optional.of(stamp(cached.getId(), 4L)));
+    when(documentRepository.findById(cached.getId())).thenReturn(Optional.of(stored));
+
+    // Act
+    Documents result = documentService.getDocument(cached.getId());
+
+    // Assert
+    assertSame(stored, result);
+    assertEquals(Optional.of(stored), documentCache.get(cached.getId()));
+  }
+
+  @Test
+  void getDocumentsByUser_ServesOwnerFromCacheAfterFirstLoad() {
+    // Arrange
+    Documents passport = new Documents();
+    passport.setId(new ObjectId());
+    passport.setName("john_doe_Passport");
+    passport.setUserName("john_doe");
+    passport.setVersion(1L);
+    when(documentRepository.findByUserName("john_doe")).thenReturn(List.of(passport));
+    when(documentRepository.findVersionsByUserName("john_doe"))
+        .thenReturn(List.of(stamp(passport.getId(), 1L)));
+
+    // Act
+    documentService.getDocumentsByUser("john_doe");
+    List<Documents> result = documentService.getDocumentsByUser("john_doe");
+
+    // Assert
+    assertEquals(List.of(passport), result);
+    verify(documentRepository, times(1)).findByUserName("john_doe");
+  }
+
+  @Test
+  void getDocumentsByUser_ReloadsAnOwnerWhoseDocumentsChangedOnAnotherInstance() {
+    // Arrange
+    Documents passport = new Documents();
+    passport.setId(new ObjectId());
+    passport.setName("john_doe_Passport");
+    passport.setUserName("john_doe");
+    passport.setVersion(1L);
+    Documents license = new Documents();
+    license.setId(new ObjectId());
+    license.setName("john_doe_License");
+    license.setUserName("john_doe");
+    license.setVersion(0L);
+    when(documentRepository.findByUserName("john_doe"))
+        .thenReturn(List.of(passport), List.of(passport, license));
+    // Another instance created the license after the owner was cached
+    when(documentRepository.findVersionsByUserName("john_doe"))
+        .thenReturn(List.of(stamp(passport.getId(), 1L), stamp(license.getId(), 0L)));
+
+    // Act
+    documentService.getDocumentsByUser("john_doe");
+    List<Documents> result = documentService.getDocumentsByUser("john_doe");
+
+    // Assert
+    assertEquals(2, result.size());
+    verify(documentRepository, times(2)).findByUserName("john_doe");
+  }
+
+  @Test
+  void getDocumentsByCursor_ContinuesAfterTheLastIdOfThePreviousPage() {
+    // Arrange
+    List<Documents> documents = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Documents document = new Documents();
+      document.setId(new ObjectId());
+      document.setUserName("john_doe");
+      documents.add(document);
+    }
+    String secondId = documents.get(1).getId();
+    when(documentRepository.findByFilterAfter(null, "john_doe", null, null, null, null, 3))
+        .thenReturn(documents);
+    when(documentRepository.findByFilterAfter(null, "john_doe", null, null, secondId, null, 3))
+        .thenReturn(documents.subList(2, 3));
+
+    // Act
+    PaginatedResponseDto<Documents> firstPage = documentService.getDocumentsByCursor(
+        null, "john_doe", null, null, null, 2, null);
+    PaginatedResponseDto<Documents> lastPage = documentService.getDocumentsByCursor(
+        null, "john_doe", null, null, firstPage.getNextCursor(), 2, null);
+
+    // Assert
+    assertEquals(documents.subList(0, 2), firstPage.getContent());
+    assertTrue(firstPage.isHasNext());
+    assertEquals(documents.subList(2, 3), lastPage.getContent());
+    assertFalse(lastPage.isHasNext());
+    assertNull(lastPage.getNextCursor());
+    assertNull(lastPage.getTotalElements());
+  }
+
+  @Test
+  void getDocumentsByCursor_MalformedCursor() {
+    DocumentServiceException exception = assertThrows(DocumentServiceException.class,
+        () -> documentService.getDocumentsByCursor(null, null, null, null, "not-a-cursor", 10, null));
+
+    assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+  }
 
   @Test
   void deleteDocument_DocumentNotFound() {
@@ -232,16 +708,62 @@ class DocumentServiceImplTest {
     assertEquals("Document not found with ID: " + documentId, exception.getMessage());
     verify(documentRepository, times(1)).findById(documentId);  // Ensure findById is called once
     verify(documentRepository, times(0)).deleteById(documentId);  // Ensure deleteById is never called
-    verify(restTemplate, times(0)).postForEntity(anyString(), any(), eq(Void.class));  // Ensure no notification is sent
+    verify(notificationOutboxService, times(0)).enqueue(any(), any());  // Ensure no notification is queued
   }
 
+  @Test
+  void createDocuments_ReportsPerItemResults() {
+    // Arrange
+    DocumentDto valid = new DocumentDto();
+    valid.setName("john_doe_Passport");
+    valid.setDocumentType(DocumentType.ID_VERIFICATION);
+    valid.setUserName("john_doe");
+    valid.setFileUrl("http://example.com/file.pdf");
+    valid.setExpiryDate(LocalDate.now().plusDays(90));
+
+    DocumentDto unknownUser = new DocumentDto();
+    unknownUser.setName("jane_doe_Passport");
+    unknownUser.setDocumentType(DocumentType.ID_VERIFICATION);
+    unknownUser.setUserName("jane_doe");
+    unknownUser.setFileUrl("http://example.com/file.pdf");
+    unknownUser.setExpiryDate(LocalDate.now().plusDays(90));
+
+    DocumentDto missingFileUrl = new DocumentDto();
+    missingFileUrl.setName("john_doe_Licence");
+    missingFileUrl.setDocumentType(DocumentType.ID_VERIFICATION);
+    missingFileUrl.setUserName("john_doe");
+    missingFileUrl.setExpiryDate(LocalDate.now().plusDays(90));
 
+    Users user = new Users();
+    user.setUserName("john_doe");
 
+    when(userRepository.findAllById(any())).thenReturn(List.of(user));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Documents.class)).thenReturn(bulkOperations);
+    when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
 
+    // Act
+    BulkDocumentResponseDto result = documentService.createDocuments(List.of(valid, unknownUser, missingFileUrl));
 
+    // Assert
+    assertEquals(3, result.getTotal());
+    assertEquals(1, result.getSucceeded());
+    assertEquals(2, result.getFailed());
+    assertTrue(result.getResults().get(0).isSuccess());
+    assertEquals("User not found: jane_doe", result.getResults().get(1).getError());
+    assertEquals("fileUrl: File URL is required", result.getResults().get(2).getError());
+    verify(userRepository, times(1)).findAllById(any());  // Owners are prefetched once
+    verify(userRepository, times(0)).findById(anyString());
+    verify(bulkOperations, times(1)).execute();  // Valid documents are written in one bulk insert
+    verify(notificationOutboxService, times(1)).enqueueAll(anyList(), eq(NotificationType.CREATE));
+  }
 
-
-
-
-
+  /**
+   * The projection of a document that tells whether a cached copy is current.
+   */
+  private static Documents stamp(String id, Long version) {
+    Documents document = new Documents();
+    document.setId(new ObjectId(id));
+    document.setVersion(version);
+    return document;
+  }
 }
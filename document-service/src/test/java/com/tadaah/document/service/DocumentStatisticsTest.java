@@ -0,0 +1,97 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.models.DocumentStatCounter;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class DocumentStatisticsTest {
+
+  @Mock
+  private MongoTemplate mongoTemplate;
+
+  @Mock
+  private BulkOperations bulkOperations;
+
+  private DocumentStatistics documentStatistics;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(mongoTemplate.bulkOps(any(BulkMode.class), eq(DocumentStatCounter.class)))
+        .thenReturn(bulkOperations);
+    when(bulkOperations.upsert(any(Query.class), any(Update.class))).thenReturn(bulkOperations);
+    documentStatistics = new DocumentStatistics(mongoTemplate);
+  }
+
+  @Test
+  void checkpoint_RestoresOnlyTheChangesFromTheFailedUpsertOn() {
+    documentStatistics.documentsCreated(List.of(document()));
+    BulkOperationException failure = mock(BulkOperationException.class);
+    when(failure.getErrors()).thenReturn(List.of(new BulkWriteError(6, "interrupted", new BsonDocument(), 2)));
+    when(bulkOperations.execute()).thenThrow(failure).thenReturn(null);
+
+    ArgumentCaptor<Query> firstRun = ArgumentCaptor.forClass(Query.class);
+    assertThrows(BulkOperationException.class, () -> documentStatistics.checkpoint());
+    verify(bulkOperations, times(5)).upsert(firstRun.capture(), any(Update.class));
+    verify(mongoTemplate).bulkOps(BulkMode.ORDERED, DocumentStatCounter.class);
+
+    ArgumentCaptor<Query> secondRun = ArgumentCaptor.forClass(Query.class);
+    documentStatistics.checkpoint();
+    verify(bulkOperations, times(8)).upsert(secondRun.capture(), any(Update.class));
+
+    // The two upserts before the failure were applied and must not be written again
+    assertEquals(
+        firstRun.getAllValues().subList(2, 5).stream().map(Query::toString).sorted().toList(),
+        secondRun.getAllValues().subList(5, 8).stream().map(Query::toString).sorted().toList());
+  }
+
+  @Test
+  void checkpoint_DropsDrainedAddersSoNothingIsWrittenTwice() {
+    documentStatistics.documentsCreated(List.of(document()));
+    documentStatistics.checkpoint();
+    documentStatistics.checkpoint();
+
+    verify(mongoTemplate, times(1)).bulkOps(any(BulkMode.class), eq(DocumentStatCounter.class));
+    verify(bulkOperations, times(1)).execute();
+  }
+
+  @Test
+  void checkpoint_WritesNothingWithoutChanges() {
+    documentStatistics.checkpoint();
+
+    verify(bulkOperations, never()).execute();
+  }
+
+  private static Documents document() {
+    Documents document = new Documents();
+    document.setName("john_doe_Passport");
+    document.setUserName("john_doe");
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    return document;
+  }
+}
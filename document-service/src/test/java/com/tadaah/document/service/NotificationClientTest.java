@@ -0,0 +1,120 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tadaah.clients.NotificationClient;
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.utils.NotificationUtil.NotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class NotificationClientTest {
+
+  private static final String URL = "http://notification-service/api/notifications";
+
+  private RestTemplate restTemplate;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationClient notificationClient;
+
+  @BeforeEach
+  void setUp() {
+    restTemplate = mock(RestTemplate.class);
+    meterRegistry = new SimpleMeterRegistry();
+    // One call in flight at a time; the circuit opens once half of at least four calls failed
+    notificationClient = new NotificationClient(restTemplate, URL, meterRegistry,
+        1, 0, 50, 4, 4, 60000, 3000);
+  }
+
+  @Test
+  void send_SucceedsWhileTheCircuitIsClosed() {
+    when(restTemplate.postForEntity(eq(URL), any(), eq(Void.class))).thenReturn(ResponseEntity.ok().build());
+
+    notificationClient.send(request());
+
+    assertTrue(notificationClient.isCallPermitted());
+    assertEquals(1, requests("single", "success"));
+  }
+
+  @Test
+  void send_FailsFastWithoutCallingTheServiceOnceTheCircuitIsOpen() {
+    when(restTemplate.postForEntity(eq(URL), any(), eq(Void.class)))
+        .thenThrow(new ResourceAccessException("Read timed out"));
+
+    for (int i = 0; i < 4; i++) {
+      NotificationServiceException failure =
+          assertThrows(NotificationServiceException.class, () -> notificationClient.send(request()));
+      assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, failure.getStatus());
+    }
+    assertFalse(notificationClient.isCallPermitted());
+
+    NotificationServiceException shortCircuited =
+        assertThrows(NotificationServiceException.class, () -> notificationClient.sendBatch(List.of(request())));
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shortCircuited.getStatus());
+
+    verify(restTemplate, times(4)).postForEntity(anyString(), any(), eq(Void.class));
+    assertEquals(4, requests("single", "failure"));
+    assertEquals(1, requests("batch", "short_circuited"));
+  }
+
+  @Test
+  void send_RejectsCallsBeyondTheBulkheadWithoutOpeningTheCircuit() throws Exception {
+    CountDownLatch inFlight = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(restTemplate.postForEntity(eq(URL), any(), eq(Void.class))).thenAnswer(invocation -> {
+      inFlight.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return ResponseEntity.ok().build();
+    });
+
+    CompletableFuture<Void> first = CompletableFuture.runAsync(() -> notificationClient.send(request()));
+    assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 4; i++) {
+      NotificationServiceException rejected =
+          assertThrows(NotificationServiceException.class, () -> notificationClient.send(request()));
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+    }
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+
+    // Rejections say nothing about the health of the notification service
+    assertTrue(notificationClient.isCallPermitted());
+    assertEquals(4, requests("single", "rejected"));
+    assertEquals(1, requests("single", "success"));
+  }
+
+  private long requests(String operation, String outcome) {
+    return meterRegistry.get("notification.client.requests")
+        .tag("operation", operation)
+        .tag("outcome", outcome)
+        .timer()
+        .count();
+  }
+
+  private static NotificationRequest request() {
+    return new NotificationRequest("john_doe", "john_doe_Passport", LocalDateTime.now(), "CREATE",
+        "john_doe has added a new document named john_doe_Passport.", "12345");
+  }
+}
@@ -0,0 +1,254 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.clients.NotificationClient;
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.OutboxStatus;
+import com.tadaah.services.impl.NotificationOutboxServiceImpl;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the outbox relay against MongoDB. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationOutboxServiceImplTest {
+
+  @Container
+  private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private MongoClient mongoClient;
+
+  private MongoTemplate mongoTemplate;
+
+  private NotificationClient notificationClient;
+
+  private DocumentStatistics documentStatistics;
+
+  private NotificationOutboxServiceImpl relay;
+
+  @BeforeEach
+  void setUp() {
+    mongoClient = MongoClients.create(mongo.getConnectionString());
+    mongoTemplate = new MongoTemplate(mongoClient, "documentdb");
+    mongoTemplate.getDb().drop();
+
+    notificationClient = mock(NotificationClient.class);
+    when(notificationClient.isCallPermitted()).thenReturn(true);
+    documentStatistics = new DocumentStatistics(mongoTemplate);
+    relay = newRelay(notificationClient);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mongoClient.close();
+  }
+
+  @Test
+  void relayDeliversDueEntriesAndRemovesThem() {
+    Documents document = insert(null);
+    outboxEntry(document, 0, LocalDateTime.now().minusSeconds(1));
+    outboxEntry(document, 0, LocalDateTime.now().plusMinutes(5));  // Not due yet
+
+    assertEquals(1, relay.relayPending());
+
+    verify(notificationClient).sendBatch(anyList());
+    assertEquals(1, mongoTemplate.count(new Query(), NotificationOutbox.class));
+  }
+
+  @Test
+  void relaySkipsEntriesClaimedByAnotherRelay() {
+    Documents document = insert(null);
+    outboxEntry(document, 0, LocalDateTime.now().minusSeconds(1));
+
+    // A second instance relays while the first one is still sending its claimed batch
+    NotificationClient otherClient = mock(NotificationClient.class);
+    when(otherClient.isCallPermitted()).thenReturn(true);
+    NotificationOutboxServiceImpl otherRelay = newRelay(otherClient);
+    AtomicInteger relayedByOther = new AtomicInteger(-1);
+    doAnswer(invocation -> {
+      relayedByOther.set(otherRelay.relayPending());
+      return null;
+    }).when(notificationClient).sendBatch(anyList());
+
+    assertEquals(1, relay.relayPending());
+
+    assertEquals(0, relayedByOther.get());
+    verify(otherClient, never()).sendBatch(anyList());
+  }
+
+  @Test
+  void relayBacksOffAndDeadLettersExhaustedEntries() {
+    Documents document = insert(null);
+    NotificationOutbox entry = outboxEntry(document, 0, LocalDateTime.now().minusSeconds(1));
+    doThrow(new NotificationServiceException("rejected", HttpStatus.BAD_GATEWAY))
+        .when(notificationClient).sendBatch(anyList());
+
+    assertEquals(0, relay.relayPending());
+
+    NotificationOutbox retried = reload(entry);
+    assertEquals(1, retried.getAttempts());
+    assertEquals(OutboxStatus.PENDING, retried.getStatus());
+    assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    assertNull(retried.getClaimToken());  // The claim is released
+    assertNotNull(reload(document).getNotificationError());
+
+    // Not due again until the backoff has passed
+    assertEquals(0, relay.relayPending());
+    verify(notificationClient, times(1)).sendBatch(anyList());
+
+    makeDue(entry);
+    assertEquals(0, relay.relayPending());
+
+    NotificationOutbox deadLettered = reload(entry);
+    assertEquals(2, deadLettered.getAttempts());
+    assertEquals(OutboxStatus.FAILED, deadLettered.getStatus());
+    // The document was flagged once
+    assertEquals(1, documentStatistics.stats(null).getNotificationFailed());
+  }
+
+  @Test
+  void relayDoesNotUseAttemptsOnShortCircuitedBatches() {
+    Documents document = insert(null);
+    NotificationOutbox entry = outboxEntry(document, 0, LocalDateTime.now().minusSeconds(1));
+    doThrow(new NotificationServiceException("circuit open", HttpStatus.SERVICE_UNAVAILABLE))
+        .when(notificationClient).sendBatch(anyList());
+
+    assertEquals(0, relay.relayPending());
+
+    NotificationOutbox retried = reload(entry);
+    assertEquals(0, retried.getAttempts());
+    assertEquals(OutboxStatus.PENDING, retried.getStatus());
+    assertTrue(retried.getNextAttemptAt().isAfter(LocalDateTime.now()));
+  }
+
+  @Test
+  void relayClaimsNothingWhileTheCircuitIsOpen() {
+    Documents document = insert(null);
+    NotificationOutbox entry = outboxEntry(document, 0, LocalDateTime.now().minusSeconds(1));
+    when(notificationClient.isCallPermitted()).thenReturn(false);
+
+    assertEquals(0, relay.relayPending());
+
+    verify(notificationClient, never()).sendBatch(anyList());
+    assertNull(reload(entry).getClaimToken());
+  }
+
+  @Test
+  void relayKeepsTheFlagUntilTheLastEntryOfTheDocumentIsDelivered() {
+    Documents document = insert("Notification failed: down");
+    outboxEntry(document, 1, LocalDateTime.now().minusSeconds(1));
+    NotificationOutbox later = outboxEntry(document, 1, LocalDateTime.now().plusMinutes(5));
+
+    assertEquals(1, relay.relayPending());
+
+    // Another notification of the document is still pending
+    assertNotNull(reload(document).getNotificationError());
+    assertEquals(0, documentStatistics.stats(null).getNotificationFailed());
+
+    makeDue(later);
+    assertEquals(1, relay.relayPending());
+
+    assertNull(reload(document).getNotificationError());
+    assertEquals(-1, documentStatistics.stats(null).getNotificationFailed());
+  }
+
+  @Test
+  void relayKeepsTheFlagOfDocumentsWithDeadLetteredEntries() {
+    Documents document = insert("Notification failed: down");
+    outboxEntry(document, 1, LocalDateTime.now().minusSeconds(1));
+    NotificationOutbox deadLettered = outboxEntry(document, 10, LocalDateTime.now());
+    mongoTemplate.updateFirst(query(where("id").is(deadLettered.getId())),
+        Update.update("status", OutboxStatus.FAILED), NotificationOutbox.class);
+
+    assertEquals(1, relay.relayPending());
+
+    // The dead-lettered notification is left to the reconciler
+    assertNotNull(reload(document).getNotificationError());
+  }
+
+  private NotificationOutboxServiceImpl newRelay(NotificationClient client) {
+    NotificationOutboxServiceImpl service = new NotificationOutboxServiceImpl();
+    ReflectionTestUtils.setField(service, "mongoTemplate", mongoTemplate);
+    ReflectionTestUtils.setField(service, "notificationClient", client);
+    ReflectionTestUtils.setField(service, "filterGenerations", new DocumentFilterGenerations(16));
+    ReflectionTestUtils.setField(service, "documentStatistics", documentStatistics);
+    ReflectionTestUtils.setField(service, "batchSize", 100);
+    ReflectionTestUtils.setField(service, "maxAttempts", 2);
+    ReflectionTestUtils.setField(service, "claimTimeoutMs", 60000L);
+    ReflectionTestUtils.setField(service, "maxBackoffMs", 300000L);
+    return service;
+  }
+
+  private Documents insert(String notificationError) {
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setName("john_doe_Passport_" + new ObjectId());
+    document.setUserName("john_doe");
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    document.setNotificationError(notificationError);
+    return mongoTemplate.insert(document);
+  }
+
+  private NotificationOutbox outboxEntry(Documents document, int attempts,
+      LocalDateTime nextAttemptAt) {
+    NotificationOutbox entry = new NotificationOutbox();
+    entry.setDocumentId(document.getId());
+    entry.setReceiver(document.getUserName());
+    entry.setDocumentName(document.getName());
+    entry.setEventType(NotificationType.UPDATE);
+    entry.setStatus(OutboxStatus.PENDING);
+    entry.setAttempts(attempts);
+    entry.setNextAttemptAt(nextAttemptAt);
+    entry.setTimestamp(LocalDateTime.now());
+    return mongoTemplate.insert(entry);
+  }
+
+  private void makeDue(NotificationOutbox entry) {
+    mongoTemplate.updateFirst(query(where("id").is(entry.getId())),
+        Update.update("nextAttemptAt", LocalDateTime.now().minusSeconds(1)),
+        NotificationOutbox.class);
+  }
+
+  private NotificationOutbox reload(NotificationOutbox entry) {
+    return mongoTemplate.findById(entry.getId(), NotificationOutbox.class);
+  }
+
+  private Documents reload(Documents document) {
+    return mongoTemplate.findById(document.getId(), Documents.class);
+  }
+}
@@ -0,0 +1,156 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.clients.NotificationClient;
+import com.tadaah.exceptions.NotificationServiceException;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.OutboxStatus;
+import com.tadaah.schedulers.NotificationReconciler;
+import com.tadaah.services.impl.SchedulerLeaseServiceImpl;
+import com.tadaah.utils.NotificationUtil.NotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the notification reconciler against MongoDB. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationReconcilerTest {
+
+  @Container
+  private static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+  private MongoClient mongoClient;
+
+  private MongoTemplate mongoTemplate;
+
+  private NotificationClient notificationClient;
+
+  private DocumentStatistics documentStatistics;
+
+  private NotificationReconciler reconciler;
+
+  @BeforeEach
+  void setUp() {
+    mongoClient = MongoClients.create(mongo.getConnectionString());
+    mongoTemplate = new MongoTemplate(mongoClient, "documentdb");
+    mongoTemplate.getDb().drop();
+
+    notificationClient = mock(NotificationClient.class);
+    when(notificationClient.isCallPermitted()).thenReturn(true);
+    documentStatistics = new DocumentStatistics(mongoTemplate);
+    reconciler = newReconciler(new SchedulerLeaseServiceImpl(mongoTemplate));
+  }
+
+  @AfterEach
+  void tearDown() {
+    reconciler.shutdown();
+    mongoClient.close();
+  }
+
+  @Test
+  void reconcileResendsFailedNotificationsAndClearsTheirFlags() {
+    Documents flagged = insert("Failed after 10 attempts");
+    Documents clean = insert(null);
+    outboxEntry(flagged, OutboxStatus.FAILED, NotificationType.DELETE);
+
+    reconciler.reconcile();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<NotificationRequest>> sent = ArgumentCaptor.forClass(List.class);
+    verify(notificationClient).sendBatch(sent.capture());
+    assertEquals(1, sent.getValue().size());
+    // The event type of the dead-lettered entry is re-sent
+    assertEquals(NotificationType.DELETE, sent.getValue().get(0).getEventType());
+
+    assertNull(reload(flagged).getNotificationError());
+    assertNull(reload(clean).getNotificationError());
+    assertEquals(0, mongoTemplate.count(new Query(),
+        NotificationOutbox.class));
+    // Only the cleared flag is recorded; the clean document was not changed
+    assertEquals(-1, documentStatistics.stats(null).getNotificationFailed());
+  }
+
+  @Test
+  void reconcileKeepsTheFlagWhenTheResendFails() {
+    Documents flagged = insert("Failed after 10 attempts");
+    doThrow(new NotificationServiceException("down", HttpStatus.SERVICE_UNAVAILABLE))
+        .when(notificationClient).sendBatch(anyList());
+
+    reconciler.reconcile();
+
+    assertNotNull(reload(flagged).getNotificationError());
+    assertEquals(0, documentStatistics.stats(null).getNotificationFailed());
+  }
+
+  @Test
+  void reconcileSkipsRunsWhileAnotherInstanceHoldsTheLease() {
+    insert("Failed after 10 attempts");
+    SchedulerLeaseServiceImpl otherInstance = new SchedulerLeaseServiceImpl(mongoTemplate);
+    otherInstance.tryAcquire("notification-reconciler", Duration.ofMinutes(5));
+
+    reconciler.reconcile();
+
+    verify(notificationClient, never()).sendBatch(anyList());
+  }
+
+  private NotificationReconciler newReconciler(SchedulerLeaseServiceImpl leaseService) {
+    return new NotificationReconciler(mongoTemplate, notificationClient, leaseService,
+        new DocumentFilterGenerations(16), documentStatistics, new SimpleMeterRegistry(), 100, 50,
+        2, 10, 30000, 600000, 60000);
+  }
+
+  private Documents insert(String notificationError) {
+    Documents document = new Documents();
+    document.setId(new ObjectId());
+    document.setName("john_doe_Passport_" + new ObjectId());
+    document.setUserName("john_doe");
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    document.setNotificationError(notificationError);
+    return mongoTemplate.insert(document);
+  }
+
+  private void outboxEntry(Documents document, OutboxStatus status, NotificationType eventType) {
+    NotificationOutbox entry = new NotificationOutbox();
+    entry.setDocumentId(document.getId());
+    entry.setReceiver(document.getUserName());
+    entry.setDocumentName(document.getName());
+    entry.setEventType(eventType);
+    entry.setStatus(status);
+    entry.setTimestamp(LocalDateTime.now());
+    mongoTemplate.insert(entry);
+  }
+
+  private Documents reload(Documents document) {
+    return mongoTemplate.findById(document.getId(), Documents.class);
+  }
+}
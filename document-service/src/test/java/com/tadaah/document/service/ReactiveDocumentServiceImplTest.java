@@ -0,0 +1,424 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.tadaah.cache.DocumentCache;
+import com.tadaah.cache.DocumentFilterGenerations;
+import com.tadaah.cache.DocumentStatistics;
+import com.tadaah.cache.UserLookupCache;
+import com.tadaah.exceptions.DocumentServiceException;
+import com.tadaah.models.CountMode;
+import com.tadaah.models.DocumentType;
+import com.tadaah.models.Documents;
+import com.tadaah.models.Dto.request.DocumentDto;
+import com.tadaah.models.NotificationOutbox;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.ReactiveDocumentRepository;
+import com.tadaah.repositories.ReactiveUserRepository;
+import com.tadaah.repositories.UserRepository;
+import com.tadaah.services.impl.ReactiveDocumentServiceImpl;
+import com.tadaah.utils.CursorUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveDocumentServiceImplTest {
+
+  @Mock
+  private ReactiveDocumentRepository documentRepository;
+
+  @Mock
+  private ReactiveUserRepository userRepository;
+
+  @Mock
+  private ReactiveMongoTemplate reactiveMongoTemplate;
+
+  @Mock
+  private UserRepository blockingUserRepository;
+
+  @Mock
+  private MongoTemplate mongoTemplate;
+
+  @InjectMocks
+  private ReactiveDocumentServiceImpl documentService;
+
+  private UserLookupCache userLookupCache;
+
+  private DocumentCache documentCache;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    userLookupCache = new UserLookupCache(blockingUserRepository, new SimpleMeterRegistry(), 100, 60000, 60000);
+    ReflectionTestUtils.setField(documentService, "userLookupCache", userLookupCache);
+    ReflectionTestUtils.setField(documentService, "filterGenerations", new DocumentFilterGenerations(64));
+    documentCache = new DocumentCache("maximumSize=100");
+    ReflectionTestUtils.setField(documentService, "documentCache", documentCache);
+    ReflectionTestUtils.setField(documentService, "documentStatistics", new DocumentStatistics(mongoTemplate));
+    when(reactiveMongoTemplate.insert(any(NotificationOutbox.class)))
+        .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+  }
+
+  @Test
+  void createDocument_SavesTheDocumentAndQueuesItsNotification() {
+    when(userRepository.findById("john_doe")).thenReturn(Mono.just(user("john_doe")));
+    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> {
+      Documents document = invocation.getArgument(0);
+      document.setId("doc-1");
+      return Mono.just(document);
+    });
+
+    StepVerifier.create(documentService.createDocument(documentDto("john_doe")))
+        .assertNext(document -> {
+          assertEquals("doc-1", document.getId());
+          assertTrue(document.isVerified());
+          assertEquals(0L, document.getVersion());
+        })
+        .verifyComplete();
+
+    ArgumentCaptor<NotificationOutbox> outbox = ArgumentCaptor.forClass(NotificationOutbox.class);
+    verify(reactiveMongoTemplate).insert(outbox.capture());
+    assertEquals("doc-1", outbox.getValue().getDocumentId());
+    assertEquals(NotificationType.CREATE, outbox.getValue().getEventType());
+    assertTrue(documentCache.get("doc-1").isPresent());
+  }
+
+  @Test
+  void createDocument_ResolvesACachedOwnerWithoutReadingMongo() {
+    userLookupCache.put(user("john_doe"));
+    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> {
+      Documents document = invocation.getArgument(0);
+      document.setId("doc-1");
+      return Mono.just(document);
+    });
+
+    StepVerifier.create(documentService.createDocument(documentDto("john_doe")))
+        .expectNextCount(1)
+        .verifyComplete();
+
+    verify(userRepository, never()).findById(anyString());
+  }
+
+  @Test
+  void createDocument_RejectsAnUnknownOwner() {
+    when(userRepository.findById("john_doe")).thenReturn(Mono.empty());
+
+    StepVerifier.create(documentService.createDocument(documentDto("john_doe")))
+        .expectErrorSatisfies(e -> {
+          assertTrue(e instanceof DocumentServiceException);
+          assertEquals(HttpStatus.BAD_REQUEST, ((DocumentServiceException) e).getStatus());
+        })
+        .verify();
+
+    verify(documentRepository, never()).save(any(Documents.class));
+    verify(reactiveMongoTemplate, never()).insert(any(NotificationOutbox.class));
+
+    // The unknown owner is cached as a negative entry, so a retry costs no MongoDB read
+    StepVerifier.create(documentService.createDocument(documentDto("john_doe")))
+        .expectError(DocumentServiceException.class)
+        .verify();
+    verify(userRepository).findById("john_doe");
+  }
+
+  @Test
+  void createDocument_FlagsTheDocumentWhenTheOutboxWriteFails() {
+    userLookupCache.put(user("john_doe"));
+    when(documentRepository.save(any(Documents.class))).thenAnswer(invocation -> {
+      Documents document = invocation.getArgument(0);
+      document.setId("doc-1");
+      return Mono.just(document);
+    });
+    when(reactiveMongoTemplate.insert(any(NotificationOutbox.class)))
+        .thenReturn(Mono.error(new IllegalStateException("outbox unavailable")));
+    when(reactiveMongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Documents.class)))
+        .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+    StepVerifier.create(documentService.createDocument(documentDto("john_doe")))
+        .assertNext(document -> assertNotNull(document.getNotificationError()))
+        .verifyComplete();
+
+    verify(reactiveMongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Documents.class));
+  }
+
+  @Test
+  void updateDocument_WritesTheChangesGuardedByTheVersion() {
+    Documents stored = document("doc-1", "john_doe");
+    Documents updated = document("doc-1", "john_doe");
+    updated.setFileUrl("http://example.com/file_updated.pdf");
+    updated.setVersion(2L);
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(stored));
+    when(reactiveMongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+        any(FindAndModifyOptions.class), eq(Documents.class))).thenReturn(Mono.just(updated));
+
+    StepVerifier.create(documentService.updateDocument("doc-1", changes(1L)))
+        .assertNext(document -> assertSame(updated, document))  // The new state comes from MongoDB
+        .verifyComplete();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    verify(reactiveMongoTemplate).findAndModify(query.capture(), any(UpdateDefinition.class),
+        options.capture(), eq(Documents.class));
+    assertTrue(query.getValue().getQueryObject().toString().contains("version=1"));
+    assertTrue(options.getValue().isReturnNew());
+    assertEquals(Optional.of(updated), documentCache.get("doc-1"));
+    ArgumentCaptor<NotificationOutbox> outbox = ArgumentCaptor.forClass(NotificationOutbox.class);
+    verify(reactiveMongoTemplate).insert(outbox.capture());
+    assertEquals(NotificationType.UPDATE, outbox.getValue().getEventType());
+  }
+
+  @Test
+  void updateDocument_RejectsAStaleVersion() {
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(document("doc-1", "john_doe")));
+
+    StepVerifier.create(documentService.updateDocument("doc-1", changes(0L)))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.CONFLICT, ((DocumentServiceException) e).getStatus()))
+        .verify();
+
+    verify(reactiveMongoTemplate, never()).findAndModify(any(Query.class),
+        any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(Documents.class));
+  }
+
+  @Test
+  void updateDocument_ExplainsAnUpdateOvertakenByAnotherWriter() {
+    Documents overtaken = document("doc-1", "john_doe");
+    overtaken.setVersion(2L);
+    when(documentRepository.findById("doc-1"))
+        .thenReturn(Mono.just(document("doc-1", "john_doe")), Mono.just(overtaken));
+    when(reactiveMongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+        any(FindAndModifyOptions.class), eq(Documents.class))).thenReturn(Mono.empty());
+
+    StepVerifier.create(documentService.updateDocument("doc-1", changes(1L)))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.CONFLICT, ((DocumentServiceException) e).getStatus()))
+        .verify();
+
+    verify(reactiveMongoTemplate, never()).insert(any(NotificationOutbox.class));
+  }
+
+  @Test
+  void updateDocument_RequiresAVersion() {
+    StepVerifier.create(documentService.updateDocument("doc-1", changes(null)))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.PRECONDITION_REQUIRED, ((DocumentServiceException) e).getStatus()))
+        .verify();
+
+    verify(documentRepository, never()).findById(anyString());
+  }
+
+  @Test
+  void getDocumentsByCursor_ReadsOneExtraDocumentForTheNextCursor() {
+    when(reactiveMongoTemplate.find(any(Query.class), eq(Documents.class)))
+        .thenReturn(Flux.just(document("doc-1", "john_doe"), document("doc-2", "john_doe"),
+            document("doc-3", "john_doe")));
+
+    StepVerifier.create(documentService.getDocumentsByCursor(null, "john_doe", null, null, null, 2, null))
+        .assertNext(page -> {
+          assertEquals(2, page.getContent().size());
+          assertTrue(page.isHasNext());
+          assertEquals("doc-2", CursorUtil.decode(page.getNextCursor()));
+        })
+        .verifyComplete();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(reactiveMongoTemplate).find(query.capture(), eq(Documents.class));
+    assertEquals(3, query.getValue().getLimit());
+  }
+
+  @Test
+  void getDocuments_SkipsTheCountWhenThePageShowsTheTotal() {
+    when(reactiveMongoTemplate.find(any(Query.class), eq(Documents.class)))
+        .thenReturn(Flux.just(document("doc-1", "john_doe")));
+
+    StepVerifier.create(documentService.getDocuments(null, "john_doe", null, null,
+            PageRequest.of(0, 10), CountMode.EXACT, null))
+        .assertNext(page -> assertEquals(1L, page.getTotalElements()))
+        .verifyComplete();
+
+    verify(reactiveMongoTemplate, never()).count(any(Query.class), eq(Documents.class));
+  }
+
+  @Test
+  void getDocuments_RejectsUnknownFields() {
+    StepVerifier.create(documentService.getDocuments(null, null, null, null,
+            PageRequest.of(0, 10), CountMode.EXACT, List.of("secret")))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.BAD_REQUEST, ((DocumentServiceException) e).getStatus()))
+        .verify();
+  }
+
+  @Test
+  void getDocument_ServesACurrentCachedDocumentWithoutReadingIt() {
+    documentCache.put(document("doc-1", "john_doe"));
+    when(documentRepository.findVersionById("doc-1")).thenReturn(Mono.just(stamp("doc-1", 1L)));
+
+    StepVerifier.create(documentService.getDocument("doc-1"))
+        .assertNext(document -> assertEquals("doc-1", document.getId()))
+        .verifyComplete();
+
+    verify(documentRepository, never()).findById(anyString());
+  }
+
+  @Test
+  void getDocument_RereadsADocumentChangedByAnotherInstance() {
+    documentCache.put(document("doc-1", "john_doe"));
+    Documents stored = document("doc-1", "john_doe");
+    stored.setVersion(2L);
+    when(documentRepository.findVersionById("doc-1")).thenReturn(Mono.just(stamp("doc-1", 2L)));
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(stored));
+
+    StepVerifier.create(documentService.getDocument("doc-1"))
+        .assertNext(document -> assertSame(stored, document))
+        .verifyComplete();
+
+    assertEquals(Optional.of(stored), documentCache.get("doc-1"));
+  }
+
+  @Test
+  void getDocumentsByUser_ReloadsAnOwnerWhoseDocumentsChangedOnAnotherInstance() {
+    documentCache.putAllForUser("john_doe", List.of(document("doc-1", "john_doe")));
+    // Another instance created doc-2 after the owner was cached
+    when(documentRepository.findVersionsByUserName("john_doe"))
+        .thenReturn(Flux.just(stamp("doc-1", 1L), stamp("doc-2", 1L)));
+    when(documentRepository.findByUserNameOrderByIdAsc("john_doe"))
+        .thenReturn(Flux.just(document("doc-1", "john_doe"), document("doc-2", "john_doe")));
+
+    StepVerifier.create(documentService.getDocumentsByUser("john_doe").map(Documents::getId))
+        .expectNext("doc-1", "doc-2")
+        .verifyComplete();
+  }
+
+  @Test
+  void getDocument_ReadsAndCachesAMiss() {
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(document("doc-1", "john_doe")));
+
+    StepVerifier.create(documentService.getDocument("doc-1"))
+        .assertNext(document -> assertEquals("doc-1", document.getId()))
+        .verifyComplete();
+
+    assertTrue(documentCache.get("doc-1").isPresent());
+  }
+
+  @Test
+  void getDocument_NotFound() {
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(documentService.getDocument("doc-1"))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.NOT_FOUND, ((DocumentServiceException) e).getStatus()))
+        .verify();
+  }
+
+  @Test
+  void getDocumentsByUser_StreamsFromTheOwnerIndexOnACacheMiss() {
+    when(documentRepository.findByUserNameOrderByIdAsc("john_doe"))
+        .thenReturn(Flux.just(document("doc-1", "john_doe"), document("doc-2", "john_doe")));
+
+    StepVerifier.create(documentService.getDocumentsByUser("john_doe").map(Documents::getId))
+        .expectNext("doc-1", "doc-2")
+        .verifyComplete();
+  }
+
+  @Test
+  void deleteDocument_EvictsTheDocumentAndQueuesItsNotification() {
+    documentCache.put(document("doc-1", "john_doe"));
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(document("doc-1", "john_doe")));
+    when(documentRepository.deleteById("doc-1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(documentService.deleteDocument("doc-1"))
+        .verifyComplete();
+
+    assertFalse(documentCache.get("doc-1").isPresent());
+    ArgumentCaptor<NotificationOutbox> outbox = ArgumentCaptor.forClass(NotificationOutbox.class);
+    verify(reactiveMongoTemplate).insert(outbox.capture());
+    assertEquals(NotificationType.DELETE, outbox.getValue().getEventType());
+  }
+
+  @Test
+  void deleteDocument_CompletesWhenTheOutboxWriteFails() {
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.just(document("doc-1", "john_doe")));
+    when(documentRepository.deleteById("doc-1")).thenReturn(Mono.empty());
+    when(reactiveMongoTemplate.insert(any(NotificationOutbox.class)))
+        .thenReturn(Mono.error(new IllegalStateException("outbox unavailable")));
+
+    StepVerifier.create(documentService.deleteDocument("doc-1"))
+        .verifyComplete();
+  }
+
+  @Test
+  void deleteDocument_NotFound() {
+    when(documentRepository.findById("doc-1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(documentService.deleteDocument("doc-1"))
+        .expectErrorSatisfies(e -> assertEquals(HttpStatus.NOT_FOUND, ((DocumentServiceException) e).getStatus()))
+        .verify();
+
+    verify(documentRepository, never()).deleteById(anyString());
+  }
+
+  private static DocumentDto documentDto(String userName) {
+    DocumentDto documentDto = new DocumentDto();
+    documentDto.setName(userName + "_Passport");
+    documentDto.setDocumentType(DocumentType.ID_VERIFICATION);
+    documentDto.setUserName(userName);
+    documentDto.setFileUrl("http://example.com/file.pdf");
+    documentDto.setExpiryDate(LocalDate.now().plusDays(90));
+    return documentDto;
+  }
+
+  private static DocumentDto changes(Long version) {
+    DocumentDto documentDto = new DocumentDto();
+    documentDto.setFileUrl("http://example.com/file_updated.pdf");
+    documentDto.setVersion(version);
+    return documentDto;
+  }
+
+  private static Documents document(String id, String userName) {
+    Documents document = new Documents();
+    document.setId(id);
+    document.setName(userName + "_Passport");
+    document.setDocumentType(DocumentType.ID_VERIFICATION);
+    document.setUserName(userName);
+    document.setExpiryDate(LocalDate.now().plusDays(90));
+    document.setVersion(1L);
+    return document;
+  }
+
+  private static Documents stamp(String id, Long version) {
+    Documents document = new Documents();
+    document.setId(id);
+    document.setVersion(version);
+    return document;
+  }
+
+  private static Users user(String userName) {
+    Users user = new Users();
+    user.setUserName(userName);
+    return user;
+  }
+}
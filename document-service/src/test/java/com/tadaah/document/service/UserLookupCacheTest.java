@@ -0,0 +1,117 @@
+package com.tadaah.document.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.tadaah.cache.UserLookupCache;
+import com.tadaah.models.Users;
+import com.tadaah.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class UserLookupCacheTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private UserLookupCache userLookupCache;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    meterRegistry = new SimpleMeterRegistry();
+    userLookupCache = new UserLookupCache(userRepository, meterRegistry, 2, 60000, 60000);
+  }
+
+  @Test
+  void findUser_ServesRepeatedLookupsFromCache() {
+    Users user = new Users();
+    user.setUserName("john_doe");
+    when(userRepository.findById("john_doe")).thenReturn(Optional.of(user));
+
+    assertTrue(userLookupCache.findUser("john_doe").isPresent());
+    assertTrue(userLookupCache.findUser("john_doe").isPresent());
+
+    verify(userRepository, times(1)).findById("john_doe");
+    assertEquals(1.0, meterRegistry.get("users.lookup.cache.requests").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("users.lookup.cache.requests").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void findUser_CachesUnknownUsernames() {
+    when(userRepository.findById("ghost")).thenReturn(Optional.empty());
+
+    assertFalse(userLookupCache.findUser("ghost").isPresent());
+    assertFalse(userLookupCache.findUser("ghost").isPresent());
+
+    verify(userRepository, times(1)).findById("ghost");
+    assertEquals(1.0, meterRegistry.get("users.lookup.cache.requests").tag("result", "negative_hit").counter().count());
+  }
+
+  @Test
+  void put_ReplacesNegativeEntry() {
+    when(userRepository.findById("john_doe")).thenReturn(Optional.empty());
+    assertFalse(userLookupCache.findUser("john_doe").isPresent());
+
+    Users user = new Users();
+    user.setUserName("john_doe");
+    userLookupCache.put(user);
+
+    assertTrue(userLookupCache.findUser("john_doe").isPresent());
+    verify(userRepository, times(1)).findById("john_doe");
+  }
+
+  @Test
+  void findUser_ExpiresNegativeEntriesBeforeKnownUsers() {
+    userLookupCache = new UserLookupCache(userRepository, meterRegistry, 10, 60000, 1000);
+    when(userRepository.findById("john_doe")).thenReturn(Optional.of(newUser("john_doe")));
+    when(userRepository.findById("ghost")).thenReturn(Optional.empty());
+    userLookupCache.findUser("john_doe");
+    userLookupCache.findUser("ghost");
+
+    Policy.VarExpiration<String, Optional<Users>> expiration =
+        userLookupCache.nativeCache().policy().expireVariably().orElseThrow();
+
+    assertTrue(expiration.getExpiresAfter("john_doe").orElseThrow().compareTo(Duration.ofSeconds(50)) > 0);
+    assertTrue(expiration.getExpiresAfter("ghost").orElseThrow().compareTo(Duration.ofSeconds(1)) <= 0);
+    // A user created after the negative lookup gets the longer time-to-live
+    userLookupCache.put(newUser("ghost"));
+    assertTrue(expiration.getExpiresAfter("ghost").orElseThrow().compareTo(Duration.ofSeconds(50)) > 0);
+  }
+
+  @Test
+  void findUsers_ResolvesMissesWithOneQueryAndStaysBounded() {
+    Users john = new Users();
+    john.setUserName("john_doe");
+    when(userRepository.findAllById(any())).thenReturn(List.of(john));
+
+    Map<String, Users> users = userLookupCache.findUsers(List.of("john_doe", "ghost", "jane_doe"));
+
+    assertEquals(1, users.size());
+    assertTrue(users.containsKey("john_doe"));
+    verify(userRepository, times(1)).findAllById(any());
+    userLookupCache.nativeCache().cleanUp();  // Run the pending size eviction
+    assertEquals(2, userLookupCache.size());
+  }
+
+  private static Users newUser(String userName) {
+    Users user = new Users();
+    user.setUserName(userName);
+    return user;
+  }
+}
@@ -1,6 +1,8 @@
 package com.tadaah.document.service;
 
+import com.tadaah.cache.UserLookupCache;
 import com.tadaah.exceptions.UserServiceException;
+import com.tadaah.models.UserSearchMode;
 import com.tadaah.models.Users;
 import com.tadaah.models.Dto.request.UserDto;
 import com.tadaah.models.Dto.response.PaginatedResponseDto;
@@ -32,6 +34,9 @@ public class UserServiceImplTest {
   @Mock
   private UserRepository userRepository;
 
+  @Mock
+  private UserLookupCache userLookupCache;
+
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
@@ -58,6 +63,7 @@ public class UserServiceImplTest {
     assertEquals(userDto.getUserName(), createdUser.getUserName());
     verify(userRepository, times(1)).findById(userDto.getUserName());
     verify(userRepository, times(1)).save(any(Users.class));
+    verify(userLookupCache, times(1)).put(user);
   }
 
   @Test
@@ -90,6 +96,7 @@ public class UserServiceImplTest {
     assertDoesNotThrow(() -> userService.deleteUser(username));
     verify(userRepository, times(1)).existsById(username);
     verify(userRepository, times(1)).deleteById(username);
+    verify(userLookupCache, times(1)).invalidate(username);
   }
 
   @Test
@@ -120,12 +127,12 @@ public class UserServiceImplTest {
     Page<Users> userPage = new PageImpl<>(userList);
     Pageable pageable = PageRequest.of(0, 10);
 
-    when(userRepository.findByUsername("user", pageable)).thenReturn(userPage);
+    when(userRepository.findByUsername("user", UserSearchMode.CONTAINS, null, pageable)).thenReturn(userPage);
 
     PaginatedResponseDto<Users> result = userService.getAllUsers("user", pageable);
 
     assertNotNull(result);
-    assertEquals(2, result.getTotalElements());
-    verify(userRepository, times(1)).findByUsername("user", pageable);
+    assertEquals(2L, result.getTotalElements());
+    verify(userRepository, times(1)).findByUsername("user", UserSearchMode.CONTAINS, null, pageable);
   }
 }
@@ -25,6 +25,7 @@ dependencies {
     developmentOnly("org.springframework.boot:spring-boot-devtools")
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("io.projectreactor:reactor-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
@@ -41,3 +42,7 @@ configurations {
         extendsFrom(configurations.annotationProcessor.get())
     }
 }
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
@@ -0,0 +1,55 @@
+package com.tadaah.config;
+
+import com.tadaah.models.Notifications;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the declared indexes of the notifications collection when the application is ready.
+ *
+ * <p>Notifications are read per receiver, newest first, so {@code (receiver, timestamp)} keeps
+ * those reads bounded by the receiver's notifications instead of the whole collection.
+ */
+@Slf4j
+@Component
+public class MongoIndexInitializer {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Value("${mongodb.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    /**
+     * Returns the declared indexes of the notifications collection.
+     *
+     * @return the declared indexes
+     */
+    public static List<Index> declaredIndexes() {
+        return List.of(
+                new Index().named("receiver_timestamp")
+                        .on("receiver", Direction.ASC)
+                        .on("timestamp", Direction.DESC));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!ensureOnStartup) {
+            return;
+        }
+        Flux.fromIterable(declaredIndexes())
+                .concatMap(index -> reactiveMongoTemplate.indexOps(Notifications.class).ensureIndex(index))
+                .subscribe(
+                        name -> log.info("Ensured index {} on notifications", name),
+                        e -> log.error("Failed to ensure indexes on notifications: {}", e.getMessage()));
+    }
+}
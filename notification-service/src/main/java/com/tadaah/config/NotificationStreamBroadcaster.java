@@ -0,0 +1,65 @@
+package com.tadaah.config;
+
+import com.tadaah.models.Notifications;
+import com.tadaah.services.NotificationStreamService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Broadcasts stored notifications to the SSE streams of every instance.
+ *
+ * <p>A notification is stored by whichever instance consumed its message, while its receiver's
+ * stream may be open on any other one. Stored notifications are therefore published to a fanout
+ * exchange, one message per stored batch, and each instance emits what arrives on its own
+ * anonymous queue to the streams it holds. The broadcast is best effort, like the stream itself: if the broker is unreachable, the
+ * notification still reaches the streams of this instance.
+ */
+@Service
+public class NotificationStreamBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamBroadcaster.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final NotificationStreamService notificationStreamService;
+
+    public NotificationStreamBroadcaster(RabbitTemplate rabbitTemplate,
+            NotificationStreamService notificationStreamService) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.notificationStreamService = notificationStreamService;
+    }
+
+    /**
+     * Publishes a batch of stored notifications to the streams of all instances with a single
+     * message. Sending blocks on the broker, so callers on a reactive pipeline run it on a
+     * scheduler meant for blocking work.
+     *
+     * @param notifications The stored notifications.
+     */
+    public void broadcast(List<Notifications> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.STREAM_EXCHANGE_NAME, "", notifications);
+        } catch (AmqpException e) {
+            logger.warn("Failed to broadcast {} notifications, streaming them on this instance only: {}",
+                notifications.size(), e.getMessage());
+            notifications.forEach(notificationStreamService::publish);
+        }
+    }
+
+    /**
+     * Emits a broadcast batch of notifications to the streams open on this instance.
+     *
+     * @param notifications The broadcast notifications.
+     */
+    @RabbitListener(queues = "#{streamQueue.name}")
+    public void receive(List<Notifications> notifications) {
+        notifications.forEach(notificationStreamService::publish);
+    }
+}
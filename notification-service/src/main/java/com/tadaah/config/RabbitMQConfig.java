@@ -2,13 +2,18 @@ package com.tadaah.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -23,16 +28,30 @@ public class RabbitMQConfig {
     private static final String QUEUE_NAME = "notifications.queue";
     private static final String EXCHANGE_NAME = "notifications.exchange";
     private static final String ROUTING_KEY = "notifications.routingkey";
+    static final String STREAM_EXCHANGE_NAME = "notifications.stream.exchange";
+
+    @Value("${notifications.consumer.batch-size:250}")
+    private int batchSize;
+
+    @Value("${notifications.consumer.receive-timeout-ms:100}")
+    private long receiveTimeoutMs;
+
+    @Value("${notifications.consumer.max-in-flight-batches:4}")
+    private int maxInFlightBatches;
+
+    @Value("${notifications.consumer.concurrency:1}")
+    private int concurrency;
 
     /**
-     * Creates a new queue for notifications.
+     * Creates a new queue for notifications. The queue is durable, so pending notifications survive
+     * a broker restart.
      *
      * @return the queue instance
      */
     @Bean
     public Queue queue() {
         logger.info("Creating RabbitMQ queue with name: {}", QUEUE_NAME);
-        return new Queue(QUEUE_NAME, false); // Non-durable queue
+        return new Queue(QUEUE_NAME, true); // Durable queue
     }
 
     /**
@@ -60,6 +79,43 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
 
+    /**
+     * Creates the fanout exchange stored notifications are broadcast on, so every instance can
+     * emit them to the SSE subscribers it holds.
+     *
+     * @return the exchange instance
+     */
+    @Bean
+    public FanoutExchange streamExchange() {
+        logger.info("Creating RabbitMQ fanout exchange with name: {}", STREAM_EXCHANGE_NAME);
+        return new FanoutExchange(STREAM_EXCHANGE_NAME);
+    }
+
+    /**
+     * Creates this instance's queue of broadcast notifications. The queue is exclusive and
+     * deleted with the connection, since its notifications only matter to the streams open on
+     * this instance.
+     *
+     * @return the queue instance
+     */
+    @Bean
+    public Queue streamQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Binds this instance's stream queue to the fanout exchange.
+     *
+     * @param streamQueue the queue instance
+     * @param streamExchange the exchange instance
+     * @return the binding instance
+     */
+    @Bean
+    public Binding streamBinding(Queue streamQueue, FanoutExchange streamExchange) {
+        logger.info("Binding stream queue '{}' to exchange '{}'", streamQueue.getName(), streamExchange.getName());
+        return BindingBuilder.bind(streamQueue).to(streamExchange);
+    }
+
     /**
      * Configures the message converter for RabbitMQ to use Jackson for JSON serialization.
      *
@@ -73,6 +129,8 @@ public class RabbitMQConfig {
 
     /**
      * Configures the RabbitTemplate to use the provided ConnectionFactory and message converter.
+     * Messages are published as mandatory, so unroutable messages are returned to the producer
+     * instead of being dropped silently.
      *
      * @param connectionFactory the connection factory instance
      * @return the RabbitTemplate instance
@@ -82,6 +140,35 @@ public class RabbitMQConfig {
         logger.info("Creating RabbitTemplate with custom ConnectionFactory");
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jackson2JsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    /**
+     * Creates the listener container factory of the batch consumer. A batch is handed to the
+     * listener once it holds {@code batchSize} messages, or once no further message arrived within
+     * the receive timeout. Acknowledgement is manual: the listener acks the messages of a batch
+     * once it is persisted, so the prefetch covers every batch the listener may keep in flight.
+     *
+     * @param connectionFactory the connection factory instance
+     * @return the listener container factory instance
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            ConnectionFactory connectionFactory) {
+        logger.info("Creating batch listener container factory with batch size {}, receive timeout {} ms "
+            + "and {} batches in flight", batchSize, receiveTimeoutMs, maxInFlightBatches);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jackson2JsonMessageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // Unacked messages count against the prefetch, so the broker stops pushing once the window is full
+        factory.setPrefetchCount(batchSize * maxInFlightBatches);
+        factory.setConcurrentConsumers(concurrency);
+        return factory;
+    }
 }
@@ -1,15 +1,36 @@
 package com.tadaah.config;
 
+import com.rabbitmq.client.Channel;
 import com.tadaah.models.Dto.request.NotificationDto;
 import com.tadaah.services.NotificationService;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for consuming messages from RabbitMQ and processing them.
- * This class listens to messages on the specified RabbitMQ queue and handles them accordingly.
+ * This class listens to messages on the specified RabbitMQ queue in batches and persists each
+ * batch with a single bulk insert.
+ *
+ * <p>Messages are acknowledged manually once their batch is stored, and nacked with requeue if
+ * storing it fails. At most {@code maxInFlightBatches} batches are being stored at a time; while
+ * the window is full the listener thread waits, and since unacked messages count against the
+ * prefetch, the broker stops delivering too. A slow MongoDB therefore throttles consumption
+ * instead of piling up pending saves.
+ *
+ * <p>A batch that takes longer than {@code persistTimeout} is requeued even though its insert may
+ * still commit. That is safe because the insert is idempotent: a notification's id is derived
+ * from its message, so the redelivered batch stores nothing twice and publishes nothing twice.
  */
 @Service
 public class RabbitMQConsumerService {
@@ -17,30 +38,99 @@ public class RabbitMQConsumerService {
     private static final Logger logger = LoggerFactory.getLogger(RabbitMQConsumerService.class);
 
     private final NotificationService notificationService;
+    private final MessageConverter messageConverter;
+    private final Semaphore inFlightBatches;
+    private final Duration persistTimeout;
 
     /**
      * Constructor for RabbitMQConsumerService.
      *
      * @param notificationService the service used for handling notifications
+     * @param messageConverter the converter of the message payloads
+     * @param maxInFlightBatches the number of batches that may be stored at a time
+     * @param persistTimeoutMs the time a batch may take to be persisted before it is requeued
      */
-    public RabbitMQConsumerService(NotificationService notificationService) {
+    public RabbitMQConsumerService(NotificationService notificationService,
+            MessageConverter messageConverter,
+            @Value("${notifications.consumer.max-in-flight-batches:4}") int maxInFlightBatches,
+            @Value("${notifications.consumer.persist-timeout-ms:10000}") long persistTimeoutMs) {
         this.notificationService = notificationService;
+        this.messageConverter = messageConverter;
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+        this.persistTimeout = Duration.ofMillis(persistTimeoutMs);
     }
 
     /**
-     * Listens to messages from the RabbitMQ queue and processes them.
+     * Listens to batches of messages from the RabbitMQ queue and starts persisting them.
      *
-     * @param notificationDto the notification data transfer object containing message details
+     * <p>Messages that cannot be converted are rejected without requeue, since a redelivery would
+     * fail the same way. The others are acked or nacked when the bulk insert completes.
+     *
+     * @param messages the messages of the batch
+     * @param channel the channel the messages were delivered on
+     * @throws InterruptedException if the thread is interrupted while the window is full
+     */
+    @RabbitListener(queues = "notifications.queue", containerFactory = "batchListenerContainerFactory")
+    public void consumeMessages(List<Message> messages, Channel channel) throws InterruptedException {
+        logger.debug("Consumed batch of {} messages from RabbitMQ", messages.size());
+
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<NotificationDto> notificationDtos = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                notificationDtos.add((NotificationDto) messageConverter.fromMessage(message));
+                accepted.add(message);
+            } catch (MessageConversionException | ClassCastException e) {
+                logger.error("Rejecting unreadable message {}: {}",
+                    message.getMessageProperties().getDeliveryTag(), e.getMessage());
+                settle(channel, List.of(message), false, false);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            inFlightBatches.acquire();
+        } catch (InterruptedException e) {
+            settle(channel, accepted, false, true);
+            throw e;
+        }
+
+        // Save the batch to the database; its messages are settled once the save completes
+        notificationService.createNotifications(notificationDtos)
+            .count()
+            .timeout(persistTimeout)
+            .doFinally(signal -> inFlightBatches.release())
+            .subscribe(
+                saved -> {
+                    logger.info("Saved batch of {} messages, {} new notifications", accepted.size(), saved);
+                    settle(channel, accepted, true, false);
+                },
+                error -> {
+                    logger.error("Error saving batch of {} notifications, requeueing: ",
+                        accepted.size(), error);
+                    settle(channel, accepted, false, true);
+                });
+    }
+
+    /**
+     * Acks or nacks messages one by one. Batches complete out of order, so a multiple ack could
+     * settle messages of a batch that is still being saved.
      */
-    @RabbitListener(queues = "notifications.queue")
-    public void consumeMessage(NotificationDto notificationDto) {
-        logger.info("Consumed message from RabbitMQ: {}", notificationDto);
-
-        // Process the consumed message
-        // Save the notification to the database and then emit it
-        notificationService.createNotification(notificationDto)
-            .doOnSuccess(notification -> logger.info("Notification saved successfully: {}", notification))
-            .doOnError(error -> logger.error("Error saving notification: ", error))
-            .subscribe();
+    private void settle(Channel channel, List<Message> messages, boolean ack, boolean requeue) {
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            try {
+                if (ack) {
+                    channel.basicAck(deliveryTag, false);
+                } else {
+                    channel.basicNack(deliveryTag, false, requeue);
+                }
+            } catch (IOException e) {
+                // The channel is gone; the broker redelivers every message it did not see settled
+                logger.error("Failed to settle message {}: {}", deliveryTag, e.getMessage());
+            }
+        }
     }
 }
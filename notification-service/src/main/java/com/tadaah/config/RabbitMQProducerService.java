@@ -1,15 +1,37 @@
 package com.tadaah.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tadaah.exception.NotificationServiceException;
 import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.spool.NotificationSpool;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Service class for producing and sending messages to RabbitMQ.
  * This class is responsible for sending notification messages to the specified RabbitMQ exchange.
+ *
+ * <p>Messages are published with publisher confirms. A batch is published on one channel without
+ * waiting in between, and its confirms are awaited together, so a batch costs one round trip to
+ * the broker rather than one per message. A message only counts as sent once the broker confirmed
+ * it and did not return it as unroutable.
+ *
+ * <p>Messages the broker did not accept are appended to the local {@link NotificationSpool}
+ * instead, and count as sent once they are on disk; the spool replayer publishes them when the
+ * broker is back. Confirmed messages of a partly accepted batch are not spooled.
  */
 @Service
 public class RabbitMQProducerService {
@@ -19,6 +41,15 @@ public class RabbitMQProducerService {
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
+    @Autowired
+    private NotificationSpool notificationSpool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notifications.producer.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
     private static final String EXCHANGE_NAME = "notifications.exchange";
     private static final String ROUTING_KEY = "notifications.routingkey";
 
@@ -26,17 +57,168 @@ public class RabbitMQProducerService {
      * Sends a notification message to the RabbitMQ exchange.
      *
      * @param notificationDto the notification data transfer object to be sent
+     * @return a Mono that completes once the broker confirmed the message, or it was spooled
+     */
+    public Mono<Void> sendMessage(NotificationDto notificationDto) {
+        return sendMessages(List.of(notificationDto));
+    }
+
+    /**
+     * Sends a batch of notification messages to the RabbitMQ exchange, and spools the messages
+     * the broker does not accept.
+     *
+     * <p>Only the messages that were nacked, returned or left unconfirmed are spooled; the ones
+     * the broker confirmed are not written again. The returned Mono errors with a
+     * {@link NotificationServiceException} only if those messages could not be spooled. Callers
+     * may then retry the whole batch.
+     *
+     * @param notificationDtos the notification data transfer objects to be sent
+     * @return a Mono that completes once every message was confirmed or spooled
+     */
+    public Mono<Void> sendMessages(List<NotificationDto> notificationDtos) {
+        return publishBatch(notificationDtos)
+            .flatMap(outcome -> outcome.accepted() ? Mono.<Void>empty()
+                : spool(outcome.failed(), outcome.describe(notificationDtos.size())));
+    }
+
+    /**
+     * Publishes a batch of notification messages to the RabbitMQ exchange, without spooling.
+     *
+     * <p>The returned Mono errors with a {@link NotificationServiceException} if the broker nacked
+     * or returned any message of the batch, or did not confirm all of them within the confirm
+     * timeout.
+     *
+     * @param notificationDtos the notification data transfer objects to be sent
+     * @return a Mono that completes once the broker confirmed every message
      */
-    public void sendMessage(NotificationDto notificationDto) {
-        logger.info("Sending message to RabbitMQ: {}", notificationDto);
+    public Mono<Void> publishMessages(List<NotificationDto> notificationDtos) {
+        return publishBatch(notificationDtos)
+            .flatMap(outcome -> outcome.accepted() ? Mono.<Void>empty()
+                : Mono.error(new NotificationServiceException(outcome.describe(notificationDtos.size()),
+                    HttpStatus.SERVICE_UNAVAILABLE)));
+    }
 
+    /**
+     * Publishes a batch of notification messages to the RabbitMQ exchange, and reports which of
+     * them the broker did not accept.
+     *
+     * <p>Messages the broker returned as unroutable are told apart from the ones it nacked or did
+     * not confirm within the confirm timeout: the former would be returned again, while the latter
+     * may well be accepted on a retry. If the batch cannot be published at all, every message
+     * counts as unconfirmed. The returned Mono does not error.
+     *
+     * @param notificationDtos the notification data transfer objects to be sent
+     * @return a Mono emitting the outcome of the batch
+     */
+    public Mono<PublishOutcome> publishBatch(List<NotificationDto> notificationDtos) {
+        if (notificationDtos.isEmpty()) {
+            return Mono.just(new PublishOutcome(List.of(), List.of()));
+        }
+        // Publishing writes to the socket, so it runs off the request threads
+        return Mono.fromCallable(() -> publish(notificationDtos))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(correlations -> Mono.fromFuture(CompletableFuture.allOf(correlations.stream()
+                    .map(CorrelationData::getFuture)
+                    .toArray(CompletableFuture[]::new)))
+                .timeout(Duration.ofMillis(confirmTimeoutMs))
+                // Messages still unconfirmed after the timeout are classified as such below
+                .onErrorResume(e -> Mono.empty())
+                .then(Mono.fromCallable(() -> classify(notificationDtos, correlations))))
+            .onErrorResume(e -> {
+                logger.error("Failed to send {} messages to RabbitMQ", notificationDtos.size(), e);
+                return Mono.just(new PublishOutcome(notificationDtos, List.of()));
+            })
+            .doOnNext(outcome -> {
+                if (outcome.accepted()) {
+                    logger.info("{} messages confirmed by exchange '{}' with routing key '{}'",
+                        notificationDtos.size(), EXCHANGE_NAME, ROUTING_KEY);
+                } else {
+                    logger.error(outcome.describe(notificationDtos.size()));
+                }
+            });
+    }
+
+    /**
+     * Publishes the messages on a single channel, each with its own correlation to track the
+     * confirm.
+     */
+    private List<CorrelationData> publish(List<NotificationDto> notificationDtos) {
+        logger.debug("Sending {} messages to RabbitMQ", notificationDtos.size());
+        return rabbitTemplate.invoke(operations -> {
+            List<CorrelationData> correlations = new ArrayList<>(notificationDtos.size());
+            for (NotificationDto notificationDto : notificationDtos) {
+                CorrelationData correlation = new CorrelationData();
+                operations.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, notificationDto, correlation);
+                correlations.add(correlation);
+            }
+            return correlations;
+        });
+    }
+
+    /**
+     * Appends the messages to the local spool, completing once they are on disk.
+     */
+    private Mono<Void> spool(List<NotificationDto> notificationDtos, String reason) {
+        List<CompletableFuture<Void>> appended = new ArrayList<>(notificationDtos.size());
         try {
-            // Send the notification message to the RabbitMQ exchange with the specified routing key
-            rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY, notificationDto);
-            logger.info("Message sent successfully to exchange '{}' with routing key '{}'", EXCHANGE_NAME, ROUTING_KEY);
-        } catch (Exception e) {
-            // Log the exception if the message sending fails
-            logger.error("Failed to send message to RabbitMQ", e);
+            for (NotificationDto notificationDto : notificationDtos) {
+                appended.add(notificationSpool.append(objectMapper.writeValueAsBytes(notificationDto)));
+            }
+        } catch (JsonProcessingException e) {
+            return Mono.error(new NotificationServiceException("Failed to spool notifications",
+                HttpStatus.INTERNAL_SERVER_ERROR, e));
+        }
+        return Mono.fromFuture(CompletableFuture.allOf(appended.toArray(CompletableFuture[]::new)))
+            .doOnSuccess(ignored -> logger.warn("Spooled {} messages that RabbitMQ did not accept: {}",
+                notificationDtos.size(), reason))
+            .onErrorMap(e -> {
+                logger.error("Failed to spool {} messages", notificationDtos.size(), e);
+                return new NotificationServiceException(
+                    "Failed to send notifications to RabbitMQ and to spool them", HttpStatus.SERVICE_UNAVAILABLE, e);
+            });
+    }
+
+    /**
+     * Sorts the messages of a published batch by their confirm. A returned message is also acked
+     * by the broker, so the return is checked first.
+     */
+    private PublishOutcome classify(List<NotificationDto> notificationDtos, List<CorrelationData> correlations) {
+        List<NotificationDto> unconfirmed = new ArrayList<>();
+        List<NotificationDto> returned = new ArrayList<>();
+        for (int i = 0; i < correlations.size(); i++) {
+            CorrelationData correlation = correlations.get(i);
+            CompletableFuture<CorrelationData.Confirm> confirm = correlation.getFuture();
+            if (correlation.getReturned() != null) {
+                returned.add(notificationDtos.get(i));
+            } else if (!confirm.isDone() || confirm.isCompletedExceptionally() || !confirm.join().isAck()) {
+                unconfirmed.add(notificationDtos.get(i));
+            }
+        }
+        return new PublishOutcome(unconfirmed, returned);
+    }
+
+    /**
+     * The messages of a published batch the broker did not accept.
+     *
+     * @param unconfirmed the messages the broker nacked or did not confirm in time
+     * @param returned    the messages the broker returned as unroutable
+     */
+    public record PublishOutcome(List<NotificationDto> unconfirmed, List<NotificationDto> returned) {
+
+        public boolean accepted() {
+            return unconfirmed.isEmpty() && returned.isEmpty();
+        }
+
+        public List<NotificationDto> failed() {
+            List<NotificationDto> failed = new ArrayList<>(unconfirmed);
+            failed.addAll(returned);
+            return failed;
+        }
+
+        String describe(int batchSize) {
+            return (unconfirmed.size() + returned.size()) + " of " + batchSize
+                + " notifications were not accepted by RabbitMQ (" + unconfirmed.size()
+                + " unconfirmed, " + returned.size() + " returned)";
         }
     }
 }
@@ -1,8 +1,11 @@
 package com.tadaah.controllers;
 
 import com.tadaah.config.RabbitMQProducerService;
+import com.tadaah.exception.NotificationServiceException;
 import com.tadaah.models.Dto.request.NotificationDto;
 import com.tadaah.models.Dto.response.ResponseDto;
+import com.tadaah.models.Notifications;
+import com.tadaah.services.NotificationStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,14 +14,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @RestController
@@ -29,6 +38,9 @@ public class NotificationController {
   @Autowired
   private RabbitMQProducerService rabbitMQProducerService;
 
+  @Autowired
+  private NotificationStreamService notificationStreamService;
+
   /**
    * Sends a new notification.
    *
@@ -38,7 +50,7 @@ public class NotificationController {
   @PostMapping
   @Operation(
       summary = "Send Notification",
-      description = "Receives notification details and sends them to RabbitMQ for processing.",
+      description = "Receives notification details and sends them to RabbitMQ for processing. Responds once RabbitMQ confirmed the message.",
       responses = {
           @ApiResponse(
               responseCode = "200",
@@ -49,7 +61,8 @@ public class NotificationController {
                   examples = @ExampleObject(name = "Success Example", value = "{ \"success\": true, \"data\": \"Notification received and will be sent successfully\", \"error\": null }")
               )
           ),
-          @ApiResponse(responseCode = "400", description = "Invalid input provided")
+          @ApiResponse(responseCode = "400", description = "Invalid input provided"),
+          @ApiResponse(responseCode = "503", description = "RabbitMQ did not confirm the notifications")
       }
   )
   public Mono<ResponseDto<String>> sendNotification(
@@ -57,22 +70,74 @@ public class NotificationController {
       @Valid @RequestBody NotificationDto notificationDto) {
     log.info("createNotification API called with payload: {}", notificationDto);
 
-    // Create a Mono that will execute the message sending operation when subscribed to
-    Mono<Void> sendMessageMono = Mono.defer(() -> {
-      try {
-        rabbitMQProducerService.sendMessage(notificationDto);
-        log.info("Message sent to RabbitMQ successfully");
-      } catch (Exception e) {
-        log.error("Failed to send message to RabbitMQ", e);
+    // Respond once the broker confirmed the message, so an accepted notification is not lost
+    return rabbitMQProducerService.sendMessage(notificationDto)
+        .then(Mono.just(ResponseDto.success("Notification received and will be sent successfully")));
+  }
+
+  /**
+   * Sends a batch of notifications.
+   *
+   * @param notificationDtos The details of the notifications to send.
+   * @return A response indicating that the notifications were received and will be processed.
+   */
+  @PostMapping("/batch")
+  @Operation(
+      summary = "Send Notification Batch",
+      description = "Receives a batch of notification details and sends them to RabbitMQ for processing. Responds once RabbitMQ confirmed them.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Notifications received and queued successfully",
+              content = @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = ResponseDto.class),
+                  examples = @ExampleObject(name = "Success Example", value = "{ \"success\": true, \"data\": \"2 notifications received and will be sent successfully\", \"error\": null }")
+              )
+          ),
+          @ApiResponse(responseCode = "400", description = "Invalid input provided"),
+          @ApiResponse(responseCode = "503", description = "RabbitMQ did not confirm the notifications")
       }
-      return Mono.empty();
-    });
+  )
+  public Mono<ResponseDto<String>> sendNotifications(
+      @Parameter(description = "The notification details to be sent", required = true)
+      @Valid @RequestBody List<@Valid NotificationDto> notificationDtos) {
+    log.info("sendNotifications API called with {} notifications", notificationDtos.size());
 
-    // Subscribe to the sendMessageMono on a bounded elastic scheduler
-    sendMessageMono = sendMessageMono.subscribeOn(Schedulers.boundedElastic());
+    return rabbitMQProducerService.sendMessages(notificationDtos).then(Mono.just(ResponseDto.success(
+        notificationDtos.size() + " notifications received and will be sent successfully")));
+  }
 
-    // Return a Mono that represents the response to the client
-    return sendMessageMono.then(
-        Mono.just(ResponseDto.success("Notification received and will be sent successfully")));
+  /**
+   * Streams the notifications of a receiver as server-sent events.
+   *
+   * @param receiver The receiver whose notifications to stream.
+   * @return The stream of notifications stored from now on, with periodic heartbeat comments.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Stream Notifications",
+      description = "Opens a server-sent event stream of the notifications stored for the receiver from now on. Each event is named \"notification\" and carries the notification as data; comment lines are sent as heartbeats. A subscriber that falls behind loses its oldest undelivered notifications.",
+      responses = {
+          @ApiResponse(
+              responseCode = "200",
+              description = "Stream opened",
+              content = @Content(
+                  mediaType = "text/event-stream",
+                  schema = @Schema(implementation = Notifications.class),
+                  examples = @ExampleObject(name = "Event Example", value = "id:60c72b2f9b1e8e1b8c1d4f2a\nevent:notification\ndata:{\"id\":\"60c72b2f9b1e8e1b8c1d4f2a\",\"timestamp\":\"2024-08-09T14:00:00\",\"receiver\":\"john.doe@example.com\",\"documentId\":\"abc123\",\"documentName\":\"Invoice 2024\",\"eventType\":\"CREATE\",\"message\":\"Your document has been created.\"}")
+              )
+          ),
+          @ApiResponse(responseCode = "400", description = "Receiver is missing or blank")
+      }
+  )
+  public Flux<ServerSentEvent<Notifications>> streamNotifications(
+      @Parameter(description = "The receiver whose notifications to stream", required = true)
+      @RequestParam String receiver) {
+    if (receiver.isBlank()) {
+      throw new NotificationServiceException("Receiver is required", HttpStatus.BAD_REQUEST);
+    }
+    log.info("streamNotifications API called for receiver: {}", receiver);
+    return notificationStreamService.stream(receiver);
   }
 }
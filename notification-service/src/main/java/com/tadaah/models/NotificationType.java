@@ -11,7 +11,13 @@ public enum NotificationType {
   UPDATE("{{userName}} has updated the document named {{documentName}}."),
 
   @Schema(description = "Notification type for deleting a document")
-  DELETE("{{userName}} has deleted the document named {{documentName}}.");
+  DELETE("{{userName}} has deleted the document named {{documentName}}."),
+
+  @Schema(description = "Notification type for a document that expires soon")
+  EXPIRING("The document named {{documentName}} of {{userName}} expires soon."),
+
+  @Schema(description = "Notification type for a document that has expired")
+  EXPIRED("The document named {{documentName}} of {{userName}} has expired.");
 
   private final String messageTemplate;
 
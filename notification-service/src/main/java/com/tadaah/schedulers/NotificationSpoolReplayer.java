@@ -0,0 +1,91 @@
+package com.tadaah.schedulers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tadaah.config.RabbitMQProducerService;
+import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.spool.NotificationSpool;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that drains the local notification spool once RabbitMQ accepts messages again.
+ *
+ * <p>Spooled notifications are read in append order, one batch at a time, and published with
+ * publisher confirms. The read position only moves past a batch once the broker confirmed it, so a
+ * batch that is nacked or left unconfirmed stays spooled and is retried on the next run. Messages
+ * the broker returned as unroutable would be returned again on every retry and hold up the records
+ * behind them, so they are counted and dropped instead.
+ */
+@Slf4j
+@Component
+public class NotificationSpoolReplayer {
+
+    private final NotificationSpool notificationSpool;
+    private final RabbitMQProducerService producerService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Counter unroutableCounter;
+
+    public NotificationSpoolReplayer(NotificationSpool notificationSpool,
+            RabbitMQProducerService producerService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${notifications.spool.replay.batch-size:100}") int batchSize,
+            @Value("${notifications.spool.replay.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.notificationSpool = notificationSpool;
+        this.producerService = producerService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.unroutableCounter = Counter.builder("notifications.spool.unroutable")
+                .description("Spooled notifications dropped because RabbitMQ returned them as unroutable")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.spool.replay.interval-ms:5000}")
+    public void replay() {
+        if (notificationSpool.pendingRecords() == 0) {
+            return;
+        }
+        long replayed = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            NotificationSpool.Batch batch = notificationSpool.read(batchSize);
+            if (batch.records().isEmpty()) {
+                break;
+            }
+            List<NotificationDto> notificationDtos = new ArrayList<>(batch.records().size());
+            for (byte[] record : batch.records()) {
+                try {
+                    notificationDtos.add(objectMapper.readValue(record, NotificationDto.class));
+                } catch (IOException e) {
+                    // The checksum matched, so a retry would fail the same way
+                    log.error("Dropping spooled notification that cannot be read: {}", e.getMessage());
+                }
+            }
+            RabbitMQProducerService.PublishOutcome outcome = producerService.publishBatch(notificationDtos).block();
+            if (!outcome.unconfirmed().isEmpty()) {
+                log.warn("RabbitMQ still does not accept notifications, {} remain spooled",
+                    notificationSpool.pendingRecords());
+                break;
+            }
+            if (!outcome.returned().isEmpty()) {
+                log.error("Dropping {} spooled notifications that RabbitMQ returned as unroutable",
+                    outcome.returned().size());
+                unroutableCounter.increment(outcome.returned().size());
+            }
+            notificationSpool.commit(batch);
+            replayed += batch.records().size();
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} spooled notifications, {} remain", replayed, notificationSpool.pendingRecords());
+        }
+    }
+}
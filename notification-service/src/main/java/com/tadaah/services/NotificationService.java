@@ -3,8 +3,11 @@ package com.tadaah.services;
 
 import com.tadaah.models.Dto.request.NotificationDto;
 import com.tadaah.models.Notifications;
+import java.util.List;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface NotificationService {
   Mono<Notifications> createNotification(NotificationDto notificationDto);
+  Flux<Notifications> createNotifications(List<NotificationDto> notificationDtos);
 }
@@ -0,0 +1,10 @@
+package com.tadaah.services;
+
+import com.tadaah.models.Notifications;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+public interface NotificationStreamService {
+  void publish(Notifications notification);
+  Flux<ServerSentEvent<Notifications>> stream(String receiver);
+}
@@ -1,17 +1,29 @@
 package com.tadaah.services.impl;
 
+import com.tadaah.config.NotificationStreamBroadcaster;
 import com.tadaah.exception.NotificationServiceException;
 import com.tadaah.models.Dto.request.NotificationDto;
 import com.tadaah.models.Notifications;
 import com.tadaah.repositories.NotificationRepository;
 import com.tadaah.services.NotificationService;
 import com.tadaah.utils.GenericUtils;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 @Slf4j
@@ -20,12 +32,18 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationStreamBroadcaster notificationStreamBroadcaster;
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
     /**
      * Creates a new notification from the provided {@link NotificationDto}.
      *
      * <p>This method logs the incoming payload, converts it to a {@link Notifications} entity,
      * sets the current timestamp, and saves it to the repository. It logs the success or failure of the operation.
-     * After successfully saving, the notification is emitted to the SSE stream.
+     * After successfully saving, the notification is broadcast to the SSE streams of all instances.
      *
      * @param notificationDto The data for the new notification.
      * @return A Mono emitting the created {@link Notifications} entity.
@@ -40,12 +58,94 @@ public class NotificationServiceImpl implements NotificationService {
         notification.setTimestamp(LocalDateTime.now());
 
         return notificationRepository.save(notification)
+                // Broadcasting blocks on the broker, so it runs off the driver thread
+                .publishOn(Schedulers.boundedElastic())
                 .doOnSuccess(createdNotification -> {
                     log.info("Notification created successfully with ID: {}", createdNotification.getId());
+                    notificationStreamBroadcaster.broadcast(List.of(createdNotification));
                 })
                 .doOnError(e -> {
                     log.error("Error creating notification with payload: {}", notificationDto, e);
                     throw new NotificationServiceException("Failed to create notification", HttpStatus.INTERNAL_SERVER_ERROR, e);
                 });
     }
+
+    /**
+     * Creates notifications from a batch of {@link NotificationDto}s with a single bulk write.
+     *
+     * <p>Every notification is stamped with the same timestamp. Its id is derived from the DTO's
+     * content, and it is written as an insert-only upsert, so a batch that is delivered again
+     * (after a requeue, a producer retry or a spool replay) stores nothing twice. The returned
+     * Flux emits only the notifications this call stored, and those alone are broadcast, in one
+     * message, to the SSE streams of all instances. It errors if the write fails.
+     *
+     * @param notificationDtos The data for the new notifications.
+     * @return A Flux emitting the newly created {@link Notifications} entities.
+     * @throws NotificationServiceException if an error occurs during creation.
+     */
+    @Override
+    public Flux<Notifications> createNotifications(List<NotificationDto> notificationDtos) {
+        if (notificationDtos.isEmpty()) {
+            return Flux.empty();
+        }
+        log.debug("Creating {} notifications", notificationDtos.size());
+
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<Notifications> notifications = notificationDtos.stream()
+                .map(notificationDto -> {
+                    Notifications notification = new Notifications();
+                    GenericUtils.mergeObjects(notification, notificationDto);
+                    notification.setId(notificationId(notificationDto));
+                    notification.setTimestamp(timestamp);
+                    return notification;
+                })
+                .toList();
+
+        ReactiveBulkOperations bulkOps = reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, Notifications.class);
+        notifications.forEach(notification -> bulkOps.upsert(
+                Query.query(Criteria.where("_id").is(notification.getId())), insertOnly(notification)));
+
+        return bulkOps.execute()
+                .map(result -> result.getUpserts().stream()
+                        .map(upsert -> notifications.get(upsert.getIndex()))
+                        .toList())
+                .onErrorMap(e -> {
+                    log.error("Error creating batch of {} notifications", notificationDtos.size(), e);
+                    return new NotificationServiceException("Failed to create notifications",
+                            HttpStatus.INTERNAL_SERVER_ERROR, e);
+                })
+                .filter(created -> !created.isEmpty())
+                // Broadcasting blocks on the broker, so it runs once per batch off the driver thread
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(notificationStreamBroadcaster::broadcast)
+                .flatMapIterable(created -> created);
+    }
+
+    /**
+     * Derives a notification id from everything the producer sent, so the same message always
+     * maps to the same document.
+     */
+    private static String notificationId(NotificationDto notificationDto) {
+        String key = String.join("|",
+                notificationDto.getReceiver(),
+                notificationDto.getDocumentId(),
+                String.valueOf(notificationDto.getEventType()),
+                String.valueOf(notificationDto.getTimestamp()),
+                notificationDto.getMessage());
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Sets the notification's fields only when the upsert inserts it; an existing notification
+     * with the same id is left untouched.
+     */
+    private static Update insertOnly(Notifications notification) {
+        return new Update()
+                .setOnInsert("timestamp", notification.getTimestamp())
+                .setOnInsert("receiver", notification.getReceiver())
+                .setOnInsert("documentId", notification.getDocumentId())
+                .setOnInsert("documentName", notification.getDocumentName())
+                .setOnInsert("eventType", notification.getEventType())
+                .setOnInsert("message", notification.getMessage());
+    }
 }
@@ -0,0 +1,126 @@
+package com.tadaah.services.impl;
+
+import com.tadaah.models.Notifications;
+import com.tadaah.services.NotificationStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fans stored notifications out to the live SSE subscribers of their receiver on this instance.
+ * Notifications stored on any instance reach it through the
+ * {@link com.tadaah.config.NotificationStreamBroadcaster}.
+ *
+ * <p>Each receiver with subscribers has its own best-effort multicast sink, so a notification only
+ * reaches the subscribers of its receiver and publishing never waits for a slow one. Every
+ * subscriber gets a bounded buffer; once it is full, the oldest buffered notification is dropped,
+ * or, with the {@code LATEST} policy, only the most recent one is kept. A single shared timer
+ * sends heartbeat comments to all subscribers, so idle connections stay open and dead ones are
+ * detected on write. A subscription therefore holds no more than its buffer and its place in the
+ * sink.
+ */
+@Service
+@Slf4j
+public class NotificationStreamServiceImpl implements NotificationStreamService {
+
+    private final Map<String, Receiver> receivers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Flux<ServerSentEvent<Notifications>> heartbeats;
+    private final int bufferSize;
+    private final boolean latestOnly;
+    private final Counter droppedCounter;
+
+    public NotificationStreamServiceImpl(MeterRegistry meterRegistry,
+            @Value("${notifications.stream.buffer-size:32}") int bufferSize,
+            @Value("${notifications.stream.overflow:DROP_OLDEST}") String overflow,
+            @Value("${notifications.stream.heartbeat-ms:15000}") long heartbeatMs) {
+        if (!"DROP_OLDEST".equals(overflow) && !"LATEST".equals(overflow)) {
+            throw new IllegalArgumentException("notifications.stream.overflow must be DROP_OLDEST or LATEST");
+        }
+        this.bufferSize = bufferSize;
+        this.latestOnly = "LATEST".equals(overflow);
+        this.heartbeats = Flux.interval(Duration.ofMillis(heartbeatMs))
+                .map(tick -> ServerSentEvent.<Notifications>builder().comment("heartbeat").build())
+                .share();
+        this.droppedCounter = Counter.builder("notifications.stream.dropped")
+                .description("Notifications dropped because a stream subscriber fell behind")
+                .register(meterRegistry);
+        Gauge.builder("notifications.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Open notification streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Emits a stored notification to the subscribers of its receiver, if there are any.
+     *
+     * @param notification The stored notification.
+     */
+    @Override
+    public void publish(Notifications notification) {
+        Receiver receiver = receivers.get(notification.getReceiver());
+        if (receiver == null) {
+            return;
+        }
+        // Sinks reject concurrent emissions instead of serializing them
+        synchronized (receiver) {
+            receiver.sink.tryEmitNext(notification);
+        }
+    }
+
+    /**
+     * Streams the notifications of a receiver stored from the time of subscription on, interleaved
+     * with heartbeats.
+     *
+     * @param receiver The receiver whose notifications to stream.
+     * @return A Flux of server-sent events that completes only when the subscriber cancels.
+     */
+    @Override
+    public Flux<ServerSentEvent<Notifications>> stream(String receiver) {
+        return Flux.defer(() -> {
+            Receiver entry = receivers.compute(receiver, (key, existing) -> {
+                Receiver attached = existing != null ? existing : new Receiver();
+                attached.subscribers++;
+                return attached;
+            });
+            subscribers.incrementAndGet();
+            log.debug("Notification stream opened for receiver: {}", receiver);
+
+            Flux<Notifications> notifications = entry.sink.asFlux();
+            notifications = latestOnly
+                    ? notifications.onBackpressureLatest()
+                    : notifications.onBackpressureBuffer(bufferSize, dropped -> droppedCounter.increment(),
+                            BufferOverflowStrategy.DROP_OLDEST);
+
+            return Flux.merge(
+                            notifications.map(notification -> ServerSentEvent.<Notifications>builder(notification)
+                                    .id(notification.getId())
+                                    .event("notification")
+                                    .build()),
+                            heartbeats.onBackpressureDrop())
+                    .doFinally(signal -> {
+                        subscribers.decrementAndGet();
+                        // The sink goes with its last subscriber; a new one attaches a fresh sink
+                        receivers.computeIfPresent(receiver,
+                                (key, existing) -> --existing.subscribers == 0 ? null : existing);
+                        log.debug("Notification stream closed for receiver: {} ({})", receiver, signal);
+                    });
+        });
+    }
+
+    private static final class Receiver {
+
+        private final Sinks.Many<Notifications> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
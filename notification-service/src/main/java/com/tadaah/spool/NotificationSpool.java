@@ -0,0 +1,425 @@
+package com.tadaah.spool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only local spool for notifications that could not be published to RabbitMQ.
+ *
+ * <p>Records are appended to memory-mapped segment files of a fixed size. Each record is a
+ * length, a CRC32 of the payload and the payload; the payload is written before its header, and
+ * reads stop at the first record whose header or checksum does not match, so a record torn by a
+ * crash is discarded on recovery rather than replayed. Appends are made durable in groups: the
+ * future returned by {@link #append(byte[])} completes once a flush forced the written range to
+ * disk, and a flusher thread runs a flush every {@code fsyncIntervalMs}.
+ *
+ * <p>A single reader drains the spool with {@link #read(int)} and {@link #commit(Batch)}. The read
+ * position is kept in a checkpoint file, and segments the reader has moved past are deleted. The
+ * checkpoint is not forced to disk, so after a crash some replayed records may be replayed again.
+ * Disk use is bounded by {@code maxSegments} segments; appends beyond that fail.
+ */
+@Slf4j
+@Component
+public class NotificationSpool implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ScheduledExecutorService flusher;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<Segment, Integer> unflushedFrom = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> unflushed = new ArrayList<>();
+    private Segment writeSegment;
+    private long readSequence;
+    private int readOffset;
+    private boolean closed;
+
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final Counter appendedCounter;
+    private final Counter replayedCounter;
+    private final Counter rejectedCounter;
+    private final Counter corruptCounter;
+    private final Timer fsyncTimer;
+
+    public NotificationSpool(
+            @Value("${notifications.spool.directory:data/notification-spool}") Path directory,
+            @Value("${notifications.spool.segment-bytes:8388608}") int segmentBytes,
+            @Value("${notifications.spool.max-segments:32}") int maxSegments,
+            @Value("${notifications.spool.fsync-interval-ms:20}") long fsyncIntervalMs,
+            MeterRegistry meterRegistry) throws IOException {
+        if (segmentBytes <= HEADER_BYTES || maxSegments < 1) {
+            throw new IllegalArgumentException("Spool segments must hold a record and at least one segment is required");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+
+        this.appendedCounter = Counter.builder("notifications.spool.appended")
+                .description("Notifications appended to the local spool")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("notifications.spool.replayed")
+                .description("Spooled notifications replayed to RabbitMQ")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("notifications.spool.rejected")
+                .description("Notifications rejected because the spool was full")
+                .register(meterRegistry);
+        this.corruptCounter = Counter.builder("notifications.spool.corrupt")
+                .description("Segments whose records ended in a torn or corrupt record on recovery")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("notifications.spool.fsync")
+                .description("Time spent forcing spooled records to disk")
+                .register(meterRegistry);
+        Gauge.builder("notifications.spool.records", pendingRecords, AtomicLong::get)
+                .description("Spooled notifications waiting to be replayed")
+                .register(meterRegistry);
+        Gauge.builder("notifications.spool.bytes", diskBytes, AtomicLong::get)
+                .description("Disk space reserved by the spool segments")
+                .register(meterRegistry);
+
+        recover();
+
+        if (fsyncIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notification-spool-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Appends a record to the spool.
+     *
+     * @param payload the record payload
+     * @return a future that completes once the record is on disk, or fails if the spool is full
+     */
+    public CompletableFuture<Void> append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Notification spool is closed"));
+            }
+            if (payload.length == 0 || recordBytes > segmentBytes) {
+                return CompletableFuture.failedFuture(
+                        new IllegalArgumentException("Record of " + payload.length + " bytes does not fit a spool segment"));
+            }
+            if (writeSegment.limit + recordBytes > writeSegment.buffer.capacity()) {
+                if (segments.size() >= maxSegments) {
+                    rejectedCounter.increment();
+                    return CompletableFuture.failedFuture(new IllegalStateException("Notification spool is full"));
+                }
+                try {
+                    writeSegment = openSegment(writeSegment.sequence + 1);
+                } catch (IOException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            int position = writeSegment.limit;
+            // The header goes last, so a header that made it to disk implies its payload did too
+            writeSegment.buffer.put(position + HEADER_BYTES, payload);
+            writeSegment.buffer.putInt(position + 4, (int) crc.getValue());
+            writeSegment.buffer.putInt(position, payload.length);
+            writeSegment.limit += recordBytes;
+
+            unflushedFrom.putIfAbsent(writeSegment, position);
+            unflushed.add(flushed);
+            pendingRecords.incrementAndGet();
+        }
+        appendedCounter.increment();
+        return flushed;
+    }
+
+    /**
+     * Forces every record appended since the last flush to disk and completes their futures.
+     */
+    public void flush() {
+        List<CompletableFuture<Void>> waiting;
+        Map<Segment, int[]> ranges = new LinkedHashMap<>();
+        synchronized (this) {
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            waiting = new ArrayList<>(unflushed);
+            unflushed.clear();
+            unflushedFrom.forEach((segment, from) -> ranges.put(segment, new int[] {from, segment.limit}));
+            unflushedFrom.clear();
+        }
+        try {
+            fsyncTimer.record(() -> ranges.forEach(
+                    (segment, range) -> segment.buffer.force(range[0], range[1] - range[0])));
+            waiting.forEach(future -> future.complete(null));
+        } catch (RuntimeException e) {
+            log.error("Failed to force {} spooled records to disk", waiting.size(), e);
+            waiting.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Reads the records after the read position, without moving it.
+     *
+     * @param maxRecords the maximum number of records to read
+     * @return the records and the position after them
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        long sequence = readSequence;
+        int offset = readOffset;
+        while (records.size() < maxRecords) {
+            Segment segment = segments.get(sequence);
+            int end = segment == null ? -1 : recordEnd(segment.buffer, offset, segment.limit);
+            if (end < 0) {
+                Long next = segments.higherKey(sequence);
+                if (segment == writeSegment || next == null) {
+                    break;
+                }
+                sequence = next;
+                offset = 0;
+                continue;
+            }
+            byte[] payload = new byte[end - offset - HEADER_BYTES];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            records.add(payload);
+            offset = end;
+        }
+        return new Batch(records, sequence, offset);
+    }
+
+    /**
+     * Moves the read position past a batch returned by the latest {@link #read(int)}, and deletes
+     * the segments it left behind.
+     *
+     * @param batch the batch that was replayed
+     */
+    public synchronized void commit(Batch batch) {
+        readSequence = batch.sequence();
+        readOffset = batch.offset();
+        Segment current = segments.get(readSequence);
+        if (current != null && current != writeSegment && readOffset >= current.limit) {
+            readSequence = segments.higherKey(readSequence);
+            readOffset = 0;
+        }
+        pendingRecords.addAndGet(-batch.records().size());
+        replayedCounter.increment(batch.records().size());
+        try {
+            // The checkpoint goes first, so it never points into a deleted segment
+            writeCheckpoint();
+            Iterator<Segment> drained = segments.headMap(readSequence).values().iterator();
+            while (drained.hasNext()) {
+                Segment segment = drained.next();
+                Files.deleteIfExists(segment.path);
+                diskBytes.addAndGet(-segment.buffer.capacity());
+                drained.remove();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to checkpoint the notification spool", e);
+        }
+    }
+
+    /**
+     * Returns the number of records appended but not yet replayed.
+     *
+     * @return the number of pending records
+     */
+    public long pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /**
+     * Reopens the existing segments, finds the end of the valid records of each, and restores the
+     * read position from the checkpoint.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> sequences;
+        try (Stream<Path> files = Files.list(directory)) {
+            sequences = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        long checkpointSequence = -1;
+        int checkpointOffset = 0;
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            checkpointSequence = buffer.getLong();
+            checkpointOffset = buffer.getInt();
+        }
+
+        for (long sequence : sequences) {
+            if (sequence < checkpointSequence) {
+                // Drained before the last shutdown, but not deleted yet
+                Files.deleteIfExists(segmentPath(sequence));
+                continue;
+            }
+            Segment segment = openSegment(sequence);
+            int position = 0;
+            for (int end; (end = recordEnd(segment.buffer, position, segment.buffer.capacity())) >= 0; ) {
+                position = end;
+            }
+            segment.limit = position;
+            if (!isZero(segment.buffer, position)) {
+                corruptCounter.increment();
+                log.warn("Spool segment {} ends in a torn or corrupt record at offset {}", sequence, position);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(Math.max(checkpointSequence, 0));
+        }
+        writeSegment = segments.lastEntry().getValue();
+        // Appends continue here, so clear what a crash left behind the last complete record
+        for (int i = writeSegment.limit; i < writeSegment.buffer.capacity(); i++) {
+            if (writeSegment.buffer.get(i) != 0) {
+                writeSegment.buffer.put(i, (byte) 0);
+            }
+        }
+
+        if (segments.containsKey(checkpointSequence)) {
+            readSequence = checkpointSequence;
+            readOffset = Math.min(checkpointOffset, segments.get(checkpointSequence).limit);
+        } else {
+            readSequence = segments.firstKey();
+            readOffset = 0;
+        }
+
+        long pending = 0;
+        for (Segment segment : segments.tailMap(readSequence).values()) {
+            int position = segment.sequence == readSequence ? readOffset : 0;
+            for (int end; (end = recordEnd(segment.buffer, position, segment.limit)) >= 0; ) {
+                position = end;
+                pending++;
+            }
+        }
+        pendingRecords.set(pending);
+        if (pending > 0) {
+            log.info("Recovered {} spooled notifications from {}", pending, directory);
+        }
+    }
+
+    private Segment openSegment(long sequence) throws IOException {
+        Path path = segmentPath(sequence);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            int size = (int) Math.max(channel.size(), segmentBytes);
+            Segment segment = new Segment(sequence, path, channel.map(MapMode.READ_WRITE, 0, size));
+            segments.put(sequence, segment);
+            diskBytes.addAndGet(size);
+            return segment;
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(readSequence).putInt(readOffset);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the end of the record at a position, or -1 if there is no complete record with a
+     * matching checksum there.
+     */
+    private static int recordEnd(ByteBuffer buffer, int position, int limit) {
+        if (position + HEADER_BYTES > limit) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > limit - position - HEADER_BYTES) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? position + HEADER_BYTES + length : -1;
+    }
+
+    private static boolean isZero(ByteBuffer buffer, int position) {
+        int end = Math.min(position + HEADER_BYTES, buffer.capacity());
+        for (int i = position; i < end; i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records read from the spool, and the position right after them.
+     */
+    public record Batch(List<byte[]> records, long sequence, int offset) {
+    }
+
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int limit;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
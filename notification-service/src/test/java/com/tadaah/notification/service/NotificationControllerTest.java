@@ -0,0 +1,111 @@
+package com.tadaah.notification.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.tadaah.config.RabbitMQProducerService;
+import com.tadaah.controllers.NotificationController;
+import com.tadaah.exception.GlobalExceptionHandler;
+import com.tadaah.exception.NotificationServiceException;
+import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.services.NotificationStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+
+class NotificationControllerTest {
+
+  private static final String NOTIFICATION = "{ \"receiver\": \"john_doe\", \"documentName\": \"john_doe_Passport\", "
+      + "\"documentId\": \"abc123\", \"timestamp\": \"2024-08-09T14:00:00\", \"eventType\": \"CREATE\", "
+      + "\"message\": \"Your document has been created.\" }";
+
+  private RabbitMQProducerService producerService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    producerService = mock(RabbitMQProducerService.class);
+    NotificationController controller = new NotificationController();
+    ReflectionTestUtils.setField(controller, "rabbitMQProducerService", producerService);
+    ReflectionTestUtils.setField(controller, "notificationStreamService", mock(NotificationStreamService.class));
+    mockMvc = MockMvcBuilders.standaloneSetup(controller)
+        .setControllerAdvice(new GlobalExceptionHandler())
+        .build();
+  }
+
+  @Test
+  void sendNotification_RespondsOnceTheMessageIsAccepted() throws Exception {
+    when(producerService.sendMessage(any(NotificationDto.class))).thenReturn(Mono.empty());
+
+    MvcResult result = mockMvc.perform(post("/v1/api/notifications")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(NOTIFICATION))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.success").value(true));
+  }
+
+  @Test
+  void sendNotification_MapsAnUnacceptedMessageTo503() throws Exception {
+    when(producerService.sendMessage(any(NotificationDto.class))).thenReturn(Mono.error(
+        new NotificationServiceException("Failed to send notifications to RabbitMQ and to spool them",
+            HttpStatus.SERVICE_UNAVAILABLE)));
+
+    MvcResult result = mockMvc.perform(post("/v1/api/notifications")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(NOTIFICATION))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void sendNotifications_MapsAnUnacceptedBatchTo503() throws Exception {
+    when(producerService.sendMessages(anyList())).thenReturn(Mono.error(
+        new NotificationServiceException("Failed to send notifications to RabbitMQ and to spool them",
+            HttpStatus.SERVICE_UNAVAILABLE)));
+
+    MvcResult result = mockMvc.perform(post("/v1/api/notifications/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + NOTIFICATION + "," + NOTIFICATION + "]"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void sendNotifications_ReportsTheAcceptedBatch() throws Exception {
+    when(producerService.sendMessages(anyList())).thenReturn(Mono.empty());
+
+    MvcResult result = mockMvc.perform(post("/v1/api/notifications/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[" + NOTIFICATION + "," + NOTIFICATION + "]"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data").value("2 notifications received and will be sent successfully"));
+  }
+}
@@ -0,0 +1,152 @@
+package com.tadaah.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.tadaah.config.NotificationStreamBroadcaster;
+import com.tadaah.exception.NotificationServiceException;
+import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.models.NotificationType;
+import com.tadaah.models.Notifications;
+import com.tadaah.repositories.NotificationRepository;
+import com.tadaah.services.impl.NotificationServiceImpl;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceImplTest {
+
+  @Mock
+  private NotificationRepository notificationRepository;
+
+  @Mock
+  private NotificationStreamBroadcaster notificationStreamBroadcaster;
+
+  @Mock
+  private ReactiveMongoTemplate reactiveMongoTemplate;
+
+  @Mock
+  private ReactiveBulkOperations bulkOps;
+
+  @InjectMocks
+  private NotificationServiceImpl notificationService;
+
+  @BeforeEach
+  void setUp() {
+    when(reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, Notifications.class)).thenReturn(bulkOps);
+  }
+
+  @Test
+  void createNotifications_StampsTheBatchOnceAndPublishesOnlyNewNotifications() {
+    List<NotificationDto> batch = List.of(
+        notificationDto("john_doe", "doc-1"),
+        notificationDto("jane_doe", "doc-1"),
+        notificationDto("john_doe", "doc-2"));
+    // The second notification was stored by an earlier delivery of the same message
+    BulkWriteResult result = upserted(0, 2);
+    when(bulkOps.execute()).thenReturn(Mono.just(result));
+
+    StepVerifier.create(notificationService.createNotifications(batch))
+        .expectNextMatches(notification -> notification.getDocumentId().equals("doc-1")
+            && notification.getReceiver().equals("john_doe"))
+        .expectNextMatches(notification -> notification.getDocumentId().equals("doc-2"))
+        .verifyComplete();
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOps, times(3)).upsert(queries.capture(), updates.capture());
+
+    List<Object> timestamps = updates.getAllValues().stream()
+        .map(update -> update.getUpdateObject().get("$setOnInsert", Document.class).get("timestamp"))
+        .distinct()
+        .toList();
+    assertEquals(1, timestamps.size());
+
+    List<Object> ids = queries.getAllValues().stream()
+        .map(query -> query.getQueryObject().get("_id"))
+        .distinct()
+        .toList();
+    assertEquals(3, ids.size());
+
+    // One broadcast for the batch, with the stored notifications only
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Notifications>> broadcast = ArgumentCaptor.forClass(List.class);
+    verify(notificationStreamBroadcaster, times(1)).broadcast(broadcast.capture());
+    assertEquals(2, broadcast.getValue().size());
+  }
+
+  @Test
+  void createNotifications_GivesARedeliveredMessageTheSameId() {
+    BulkWriteResult result = upserted();
+    when(bulkOps.execute()).thenReturn(Mono.just(result));
+
+    notificationService.createNotifications(List.of(notificationDto("john_doe", "doc-1"))).blockLast();
+    notificationService.createNotifications(List.of(notificationDto("john_doe", "doc-1"))).blockLast();
+    notificationService.createNotifications(List.of(notificationDto("john_doe", "doc-2"))).blockLast();
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(bulkOps, times(3)).upsert(queries.capture(), any(Update.class));
+    List<Query> captured = queries.getAllValues();
+    assertEquals(captured.get(0).getQueryObject().get("_id"), captured.get(1).getQueryObject().get("_id"));
+    assertNotEquals(captured.get(0).getQueryObject().get("_id"), captured.get(2).getQueryObject().get("_id"));
+
+    verify(notificationStreamBroadcaster, never()).broadcast(anyList());
+  }
+
+  @Test
+  void createNotifications_MapsAFailedWriteToAServiceException() {
+    when(bulkOps.execute()).thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+    StepVerifier.create(notificationService.createNotifications(List.of(notificationDto("john_doe", "doc-1"))))
+        .expectError(NotificationServiceException.class)
+        .verify();
+
+    verify(notificationStreamBroadcaster, never()).broadcast(anyList());
+  }
+
+  private static BulkWriteResult upserted(int... indexes) {
+    BulkWriteResult result = mock(BulkWriteResult.class);
+    List<BulkWriteUpsert> upserts = Arrays.stream(indexes)
+        .mapToObj(index -> new BulkWriteUpsert(index, new BsonString("id-" + index)))
+        .toList();
+    when(result.getUpserts()).thenReturn(upserts);
+    return result;
+  }
+
+  private static NotificationDto notificationDto(String receiver, String documentId) {
+    NotificationDto notificationDto = new NotificationDto();
+    notificationDto.setReceiver(receiver);
+    notificationDto.setDocumentId(documentId);
+    notificationDto.setDocumentName("Invoice 2024");
+    notificationDto.setTimestamp(LocalDateTime.of(2024, 8, 9, 14, 0));
+    notificationDto.setEventType(NotificationType.CREATE);
+    notificationDto.setMessage("Your document has been created.");
+    return notificationDto;
+  }
+}
@@ -0,0 +1,141 @@
+package com.tadaah.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tadaah.spool.NotificationSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NotificationSpoolTest {
+
+  // Each record of these tests takes 8 header bytes and 19 payload bytes, so a segment holds two
+  private static final int SEGMENT_BYTES = 64;
+  private static final int MAX_SEGMENTS = 2;
+
+  @TempDir
+  Path directory;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationSpool spool;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    meterRegistry = new SimpleMeterRegistry();
+    spool = open();
+  }
+
+  @AfterEach
+  void tearDown() {
+    spool.close();
+  }
+
+  @Test
+  void append_CompletesOnFlushAndSurvivesReopen() throws IOException {
+    CompletableFuture<Void> first = spool.append(record(1));
+    CompletableFuture<Void> second = spool.append(record(2));
+    assertFalse(first.isDone());
+
+    spool.flush();
+    assertTrue(first.isDone() && !first.isCompletedExceptionally());
+    assertTrue(second.isDone() && !second.isCompletedExceptionally());
+
+    reopen();
+    assertEquals(2, spool.pendingRecords());
+    assertEquals(List.of(text(1), text(2)), texts(spool.read(10)));
+  }
+
+  @Test
+  void commit_ResumesAfterCheckpointOnReopen() throws IOException {
+    spool.append(record(1));
+    spool.append(record(2));
+    spool.append(record(3));
+    spool.flush();
+
+    spool.commit(spool.read(2));
+    reopen();
+
+    assertEquals(1, spool.pendingRecords());
+    assertEquals(List.of(text(3)), texts(spool.read(10)));
+    assertEquals(2.0, meterRegistry.get("notifications.spool.replayed").counter().count());
+  }
+
+  @Test
+  void append_RejectsWhenFullAndAcceptsAgainOnceDrained() throws IOException {
+    for (int i = 1; i <= SEGMENT_BYTES / 27 * MAX_SEGMENTS; i++) {
+      assertFalse(spool.append(record(i)).isCompletedExceptionally());
+    }
+    assertTrue(spool.append(record(9)).isCompletedExceptionally());
+    assertEquals(1.0, meterRegistry.get("notifications.spool.rejected").counter().count());
+
+    spool.commit(spool.read(10));
+    assertEquals(0, spool.pendingRecords());
+    assertFalse(spool.append(record(9)).isCompletedExceptionally());
+    assertEquals(MAX_SEGMENTS, segmentFiles());
+  }
+
+  @Test
+  void recover_DiscardsTornTailRecord() throws IOException {
+    spool.append(record(1));
+    spool.append(record(2));
+    spool.flush();
+    spool.close();
+
+    // Flip a payload byte of the last record, as if the crash hit before its page was written
+    Path segment = directory.resolve(String.format("%020d.seg", 0));
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), 27 + 8 + 10);
+    }
+
+    spool = open();
+    assertEquals(1, spool.pendingRecords());
+    assertEquals(1.0, meterRegistry.get("notifications.spool.corrupt").counter().count());
+
+    spool.append(record(3));
+    spool.flush();
+    assertEquals(List.of(text(1), text(3)), texts(spool.read(10)));
+  }
+
+  private NotificationSpool open() throws IOException {
+    return new NotificationSpool(directory, SEGMENT_BYTES, MAX_SEGMENTS, 0, meterRegistry);
+  }
+
+  private void reopen() throws IOException {
+    spool.close();
+    meterRegistry = new SimpleMeterRegistry();
+    spool = open();
+  }
+
+  private long segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(path -> path.toString().endsWith(".seg")).count();
+    }
+  }
+
+  private static String text(int i) {
+    return String.format("notification-%06d", i);
+  }
+
+  private static byte[] record(int i) {
+    return text(i).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> texts(NotificationSpool.Batch batch) {
+    return batch.records().stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+  }
+}
@@ -0,0 +1,75 @@
+package com.tadaah.notification.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tadaah.config.NotificationStreamBroadcaster;
+import com.tadaah.models.Notifications;
+import com.tadaah.services.NotificationStreamService;
+import java.net.ConnectException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+class NotificationStreamBroadcasterTest {
+
+  private RabbitTemplate rabbitTemplate;
+
+  private NotificationStreamService notificationStreamService;
+
+  private NotificationStreamBroadcaster broadcaster;
+
+  @BeforeEach
+  void setUp() {
+    rabbitTemplate = mock(RabbitTemplate.class);
+    notificationStreamService = mock(NotificationStreamService.class);
+    broadcaster = new NotificationStreamBroadcaster(rabbitTemplate, notificationStreamService);
+  }
+
+  @Test
+  void broadcast_PublishesTheBatchToTheStreamExchangeInsteadOfTheLocalStreams() {
+    List<Notifications> notifications = List.of(new Notifications(), new Notifications());
+
+    broadcaster.broadcast(notifications);
+
+    verify(rabbitTemplate, times(1)).convertAndSend("notifications.stream.exchange", "", notifications);
+    verify(notificationStreamService, never()).publish(any(Notifications.class));
+  }
+
+  @Test
+  void broadcast_SendsNothingForAnEmptyBatch() {
+    broadcaster.broadcast(List.of());
+
+    verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+  }
+
+  @Test
+  void broadcast_StreamsOnThisInstanceWhenTheBrokerIsUnreachable() {
+    Notifications first = new Notifications();
+    Notifications second = new Notifications();
+    doThrow(new AmqpConnectException(new ConnectException("refused")))
+        .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+    broadcaster.broadcast(List.of(first, second));
+
+    verify(notificationStreamService).publish(first);
+    verify(notificationStreamService).publish(second);
+  }
+
+  @Test
+  void receive_EmitsTheBroadcastNotificationsToTheLocalStreams() {
+    Notifications notification = new Notifications();
+
+    broadcaster.receive(List.of(notification));
+
+    verify(notificationStreamService).publish(eq(notification));
+  }
+}
@@ -0,0 +1,69 @@
+package com.tadaah.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tadaah.models.Notifications;
+import com.tadaah.services.impl.NotificationStreamServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+
+class NotificationStreamServiceImplTest {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationStreamServiceImpl notificationStreamService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    notificationStreamService = new NotificationStreamServiceImpl(meterRegistry, 2, "DROP_OLDEST", 60000);
+  }
+
+  @Test
+  void stream_DeliversOnlyTheReceiversNotifications() throws Exception {
+    CompletableFuture<List<Notifications>> received = notificationStreamService.stream("john_doe")
+        .mapNotNull(ServerSentEvent::data)
+        .take(2)
+        .collectList()
+        .toFuture();
+
+    notificationStreamService.publish(notification("1", "john_doe"));
+    notificationStreamService.publish(notification("2", "jane_doe"));
+    notificationStreamService.publish(notification("3", "john_doe"));
+
+    List<Notifications> notifications = received.get(5, TimeUnit.SECONDS);
+    assertEquals(List.of("1", "3"), notifications.stream().map(Notifications::getId).toList());
+  }
+
+  @Test
+  void stream_ReleasesTheReceiverWhenTheLastSubscriberLeaves() throws Exception {
+    Disposable first = notificationStreamService.stream("john_doe").subscribe();
+    Disposable second = notificationStreamService.stream("john_doe").subscribe();
+    assertEquals(2.0, meterRegistry.get("notifications.stream.subscribers").gauge().value());
+
+    first.dispose();
+    second.dispose();
+    assertEquals(0.0, meterRegistry.get("notifications.stream.subscribers").gauge().value());
+
+    // A later subscriber attaches a fresh sink and still receives the receiver's notifications
+    CompletableFuture<Notifications> next = notificationStreamService.stream("john_doe")
+        .mapNotNull(ServerSentEvent::data)
+        .next()
+        .toFuture();
+    notificationStreamService.publish(notification("1", "john_doe"));
+    assertEquals("1", next.get(5, TimeUnit.SECONDS).getId());
+  }
+
+  private static Notifications notification(String id, String receiver) {
+    Notifications notification = new Notifications();
+    notification.setId(id);
+    notification.setReceiver(receiver);
+    return notification;
+  }
+}
@@ -0,0 +1,122 @@
+package com.tadaah.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.rabbitmq.client.Channel;
+import com.tadaah.config.RabbitMQConsumerService;
+import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.models.Notifications;
+import com.tadaah.services.NotificationService;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import reactor.core.publisher.Flux;
+
+class RabbitMQConsumerServiceTest {
+
+  private NotificationService notificationService;
+
+  private MessageConverter messageConverter;
+
+  private Channel channel;
+
+  private RabbitMQConsumerService consumerService;
+
+  @BeforeEach
+  void setUp() {
+    notificationService = mock(NotificationService.class);
+    messageConverter = mock(MessageConverter.class);
+    channel = mock(Channel.class);
+    consumerService = new RabbitMQConsumerService(notificationService, messageConverter, 1, 200);
+  }
+
+  @Test
+  void consumeMessages_AcksEveryMessageOnceTheBatchIsStored() throws Exception {
+    List<Message> batch = List.of(message(1), message(2));
+    when(messageConverter.fromMessage(batch.get(0))).thenReturn(new NotificationDto());
+    when(messageConverter.fromMessage(batch.get(1))).thenReturn(new NotificationDto());
+    when(notificationService.createNotifications(anyList()))
+        .thenReturn(Flux.just(new Notifications(), new Notifications()));
+
+    consumerService.consumeMessages(batch, channel);
+
+    verify(channel, timeout(1000)).basicAck(1, false);
+    verify(channel, timeout(1000)).basicAck(2, false);
+    verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+  }
+
+  @Test
+  void consumeMessages_RequeuesTheBatchWhenStoringItFails() throws Exception {
+    List<Message> batch = List.of(message(1), message(2));
+    when(messageConverter.fromMessage(batch.get(0))).thenReturn(new NotificationDto());
+    when(messageConverter.fromMessage(batch.get(1))).thenReturn(new NotificationDto());
+    when(notificationService.createNotifications(anyList()))
+        .thenReturn(Flux.error(new IllegalStateException("mongo down")));
+
+    consumerService.consumeMessages(batch, channel);
+
+    verify(channel, timeout(1000)).basicNack(1, false, true);
+    verify(channel, timeout(1000)).basicNack(2, false, true);
+    verify(channel, never()).basicAck(anyLong(), anyBoolean());
+  }
+
+  @Test
+  void consumeMessages_RequeuesTheBatchWhenStoringItTimesOut() throws Exception {
+    List<Message> batch = List.of(message(1));
+    when(messageConverter.fromMessage(batch.get(0))).thenReturn(new NotificationDto());
+    when(notificationService.createNotifications(anyList())).thenReturn(Flux.never());
+
+    consumerService.consumeMessages(batch, channel);
+
+    verify(channel, timeout(2000)).basicNack(1, false, true);
+
+    // The timed out batch released its slot in the window, so the next batch is stored
+    List<Message> next = List.of(message(2));
+    when(messageConverter.fromMessage(next.get(0))).thenReturn(new NotificationDto());
+    when(notificationService.createNotifications(anyList())).thenReturn(Flux.just(new Notifications()));
+
+    consumerService.consumeMessages(next, channel);
+
+    verify(channel, timeout(1000)).basicAck(2, false);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void consumeMessages_RejectsUnconvertibleMessagesWithoutRequeue() throws Exception {
+    List<Message> batch = List.of(message(1), message(2));
+    NotificationDto notificationDto = new NotificationDto();
+    when(messageConverter.fromMessage(batch.get(0))).thenReturn(notificationDto);
+    when(messageConverter.fromMessage(batch.get(1))).thenThrow(new MessageConversionException("bad payload"));
+    when(notificationService.createNotifications(anyList())).thenReturn(Flux.just(new Notifications()));
+
+    consumerService.consumeMessages(batch, channel);
+
+    verify(channel, timeout(1000)).basicNack(2, false, false);
+    verify(channel, timeout(1000)).basicAck(1, false);
+    verify(channel, never()).basicNack(eq(1L), anyBoolean(), anyBoolean());
+
+    ArgumentCaptor<List<NotificationDto>> stored = ArgumentCaptor.forClass(List.class);
+    verify(notificationService).createNotifications(stored.capture());
+    assertEquals(List.of(notificationDto), stored.getValue());
+  }
+
+  private static Message message(long deliveryTag) {
+    MessageProperties properties = new MessageProperties();
+    properties.setDeliveryTag(deliveryTag);
+    return new Message(("{\"tag\":" + deliveryTag + "}").getBytes(), properties);
+  }
+}
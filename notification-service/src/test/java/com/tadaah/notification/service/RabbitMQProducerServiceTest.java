@@ -0,0 +1,231 @@
+package com.tadaah.notification.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tadaah.config.RabbitMQProducerService;
+import com.tadaah.exception.NotificationServiceException;
+import com.tadaah.models.Dto.request.NotificationDto;
+import com.tadaah.models.NotificationType;
+import com.tadaah.spool.NotificationSpool;
+import java.net.ConnectException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+class RabbitMQProducerServiceTest {
+
+  private RabbitTemplate rabbitTemplate;
+
+  private RabbitOperations operations;
+
+  private NotificationSpool notificationSpool;
+
+  private ObjectMapper objectMapper;
+
+  private RabbitMQProducerService producerService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    rabbitTemplate = mock(RabbitTemplate.class);
+    operations = mock(RabbitOperations.class);
+    notificationSpool = mock(NotificationSpool.class);
+    objectMapper = new ObjectMapper().findAndRegisterModules();
+    producerService = new RabbitMQProducerService();
+    ReflectionTestUtils.setField(producerService, "rabbitTemplate", rabbitTemplate);
+    ReflectionTestUtils.setField(producerService, "notificationSpool", notificationSpool);
+    ReflectionTestUtils.setField(producerService, "objectMapper", objectMapper);
+    ReflectionTestUtils.setField(producerService, "confirmTimeoutMs", 200L);
+    when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation ->
+        invocation.<RabbitOperations.OperationsCallback<Object>>getArgument(0).doInRabbit(operations));
+    when(notificationSpool.append(any(byte[].class))).thenReturn(CompletableFuture.completedFuture(null));
+  }
+
+  @Test
+  void publishMessages_CompletesOnceEveryMessageIsAcked() {
+    confirmEach((correlation, index) -> ack(correlation));
+
+    StepVerifier.create(producerService.publishMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .verifyComplete();
+  }
+
+  @Test
+  void publishMessages_FailsWith503WhenAMessageIsNacked() {
+    confirmEach((correlation, index) -> {
+      if (index == 1) {
+        correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+      } else {
+        ack(correlation);
+      }
+    });
+
+    StepVerifier.create(producerService.publishMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .expectErrorSatisfies(e -> assertUnavailable(e))
+        .verify();
+  }
+
+  @Test
+  void publishMessages_FailsWith503WhenAMessageIsReturned() {
+    confirmEach((correlation, index) -> {
+      if (index == 0) {
+        correlation.setReturned(returned());
+      }
+      // A returned message is still acked by the broker
+      ack(correlation);
+    });
+
+    StepVerifier.create(producerService.publishMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .expectErrorSatisfies(e -> assertUnavailable(e))
+        .verify();
+  }
+
+  @Test
+  void publishMessages_FailsWith503WhenTheConfirmTimesOut() {
+    confirmEach((correlation, index) -> {
+      if (index == 0) {
+        ack(correlation);
+      }
+      // The second message is never confirmed
+    });
+
+    StepVerifier.create(producerService.publishMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .expectErrorSatisfies(e -> assertUnavailable(e))
+        .verify();
+  }
+
+  @Test
+  void publishMessages_FailsWith503WhenTheBrokerIsUnreachable() {
+    doThrow(new AmqpConnectException(new ConnectException("refused")))
+        .when(rabbitTemplate).invoke(any(RabbitOperations.OperationsCallback.class));
+
+    StepVerifier.create(producerService.publishMessages(List.of(notificationDto("1"))))
+        .expectErrorSatisfies(e -> assertUnavailable(e))
+        .verify();
+  }
+
+  @Test
+  void publishBatch_TellsReturnedMessagesFromUnconfirmedOnes() {
+    confirmEach((correlation, index) -> {
+      if (index == 0) {
+        correlation.setReturned(returned());
+        ack(correlation);
+      } else if (index == 1) {
+        correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+      } else {
+        ack(correlation);
+      }
+    });
+
+    StepVerifier.create(producerService.publishBatch(
+            List.of(notificationDto("1"), notificationDto("2"), notificationDto("3"))))
+        .assertNext(outcome -> {
+          assertEquals(List.of(notificationDto("1")), outcome.returned());
+          assertEquals(List.of(notificationDto("2")), outcome.unconfirmed());
+        })
+        .verifyComplete();
+  }
+
+  @Test
+  void sendMessages_SpoolsOnlyTheMessagesTheBrokerDidNotAccept() throws Exception {
+    confirmEach((correlation, index) -> {
+      if (index == 1) {
+        correlation.getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+      } else {
+        ack(correlation);
+      }
+    });
+
+    StepVerifier.create(producerService.sendMessages(
+            List.of(notificationDto("1"), notificationDto("2"), notificationDto("3"))))
+        .verifyComplete();
+
+    ArgumentCaptor<byte[]> spooled = ArgumentCaptor.forClass(byte[].class);
+    verify(notificationSpool).append(spooled.capture());
+    assertEquals(notificationDto("2"), objectMapper.readValue(spooled.getValue(), NotificationDto.class));
+  }
+
+  @Test
+  void sendMessages_DoesNotSpoolAConfirmedBatch() {
+    confirmEach((correlation, index) -> ack(correlation));
+
+    StepVerifier.create(producerService.sendMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .verifyComplete();
+
+    verify(notificationSpool, never()).append(any(byte[].class));
+  }
+
+  @Test
+  void sendMessages_FailsWith503WhenTheSpoolIsFull() {
+    doThrow(new AmqpConnectException(new ConnectException("refused")))
+        .when(rabbitTemplate).invoke(any(RabbitOperations.OperationsCallback.class));
+    when(notificationSpool.append(any(byte[].class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("spool full")));
+
+    StepVerifier.create(producerService.sendMessages(List.of(notificationDto("1"), notificationDto("2"))))
+        .expectErrorSatisfies(e -> assertUnavailable(e))
+        .verify();
+
+    verify(notificationSpool, times(2)).append(any(byte[].class));
+  }
+
+  /**
+   * Settles the correlation of each published message as the scenario requires.
+   */
+  private void confirmEach(BiConsumer<CorrelationData, Integer> confirm) {
+    int[] published = {0};
+    doAnswer(invocation -> {
+      confirm.accept(invocation.getArgument(3), published[0]++);
+      return null;
+    }).when(operations).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+  }
+
+  private static void ack(CorrelationData correlation) {
+    correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+  }
+
+  private static ReturnedMessage returned() {
+    return new ReturnedMessage(new Message(new byte[0], new MessageProperties()), 312, "NO_ROUTE",
+        "notifications.exchange", "notifications.routingkey");
+  }
+
+  private static void assertUnavailable(Throwable e) {
+    assertTrue(e instanceof NotificationServiceException);
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((NotificationServiceException) e).getStatus());
+  }
+
+  private static NotificationDto notificationDto(String documentId) {
+    NotificationDto notificationDto = new NotificationDto();
+    notificationDto.setReceiver("john_doe");
+    notificationDto.setDocumentId(documentId);
+    notificationDto.setDocumentName("john_doe_Passport");
+    notificationDto.setTimestamp(LocalDateTime.of(2024, 8, 9, 14, 0));
+    notificationDto.setEventType(NotificationType.CREATE);
+    notificationDto.setMessage("Your document has been created.");
+    return notificationDto;
+  }
+}